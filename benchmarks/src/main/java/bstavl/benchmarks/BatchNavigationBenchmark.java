@@ -0,0 +1,69 @@
+package bstavl.benchmarks;
+
+import bstavl.AVL;
+import bstavl.BST;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Answers a sorted batch of ceiling probes one descent at a time, and with ceilingAll in one merged descent.
+ * The merged descent shares the top of the tree between neighbouring probes, so it gains the most on large batches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class BatchNavigationBenchmark {
+
+  @Param({"AVL", "BST"})
+  public String impl;
+
+  @Param({"16", "1024", "65536"})
+  public int batch;
+
+  @Param({"1000000"})
+  public int size;
+
+  private AVL < Integer > avl;
+  private BST < Integer > bst;
+  private List < Integer > probes;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (impl.equals("AVL")) avl = new AVL < > ();
+    else bst = new BST < > ();
+    for (int key: KeyDistribution.RANDOM.keys(size, 42)) {
+      if (avl != null) avl.add(2 * key);
+      else bst.add(2 * key);
+    }
+    Random random = new Random(7);
+    Integer[] sorted = new Integer[batch];
+    for (int i = 0; i < batch; i++) {
+      sorted[i] = 2 * random.nextInt(size) + (i & 1); // Half of the probes are in the tree.
+    }
+    Arrays.sort(sorted);
+    probes = Arrays.asList(sorted);
+  }
+
+  @Benchmark
+  public List < Integer > ceilingEach() {
+    List < Integer > result = new ArrayList < > (probes.size());
+    for (Integer probe: probes) {
+      result.add(avl != null ? avl.ceiling(probe) : bst.ceiling(probe));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List < Integer > ceilingAll() {
+    return avl != null ? avl.ceilingAll(probes) : bst.ceilingAll(probes);
+  }
+}
@@ -0,0 +1,101 @@
+package bstavl.benchmarks;
+
+import bstavl.AVL;
+import bstavl.BST;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Compares trees in natural order with trees ordered by a comparator that gives the same order. With mixed set, the setup
+ * first works a tree of the other ordering in the same JVM, so both code paths are profiled. add and contains keep separate
+ * comparison call sites for the two orderings, so the mixed results should match the unmixed ones. To see the inlining decisions,
+ * add -jvmArgsAppend "-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining" and look for Integer::compareTo or the comparator's
+ * compare being inlined into addHelper and containsHelper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ComparatorBenchmark {
+
+  private static final int PROBES = 1 << 16;
+  private static final Comparator < Integer > BY_VALUE = (a, b) -> Integer.compare(a, b);
+
+  @Param({"AVL", "BST"})
+  public String impl;
+
+  @Param({"natural", "comparator"})
+  public String ordering;
+
+  @Param({"false", "true"})
+  public boolean mixed;
+
+  @Param({"1000000"})
+  public int size;
+
+  private NavigableSet < Integer > tree;
+  private Integer[] probes;
+  private Integer[] absent;
+  private int next;
+
+  private NavigableSet < Integer > newTree(boolean natural) {
+    Comparator < Integer > comparator = natural ? null : BY_VALUE;
+    return impl.equals("AVL") ? new AVL < > (comparator) : new BST < > (comparator);
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    boolean natural = ordering.equals("natural");
+    if (mixed) {
+      NavigableSet < Integer > other = newTree(!natural);
+      Random random = new Random(11);
+      for (int i = 0; i < 200_000; i++) {
+        int key = random.nextInt();
+        other.add(key);
+        other.contains(key + 1);
+        other.ceiling(key);
+      }
+    }
+    tree = newTree(natural);
+    for (int key: KeyDistribution.RANDOM.keys(size, 42)) {
+      tree.add(2 * key);
+    }
+    Random random = new Random(7);
+    probes = new Integer[PROBES];
+    absent = new Integer[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = 2 * random.nextInt(size) + (i & 1); // Half of the probes are in the tree.
+      absent[i] = 2 * random.nextInt(size) + 1;
+    }
+  }
+
+  private Integer nextProbe() {
+    return probes[next++ & (PROBES - 1)];
+  }
+
+  @Benchmark
+  public boolean contains() {
+    return tree.contains(nextProbe());
+  }
+
+  @Benchmark
+  public Integer ceiling() {
+    return tree.ceiling(nextProbe());
+  }
+
+  /** Adds an absent key and removes it again. */
+  @Benchmark
+  public boolean addRemove() {
+    Integer key = absent[next++ & (PROBES - 1)];
+    boolean added = tree.add(key);
+    tree.remove(key);
+    return added;
+  }
+}
@@ -0,0 +1,119 @@
+package bstavl.benchmarks;
+
+import bstavl.ConcurrentAVL;
+import bstavl.ReadMostlyAVL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Measures the throughput of ConcurrentAVL and ReadMostlyAVL against java.util.concurrent.ConcurrentSkipListSet under a mix of
+ * contains/ceiling/floor reads and add/remove writes from several threads sharing one set.
+ * readPercent sets the share of reads; the writes are split evenly between add and remove, so the size stays near its initial value.
+ * The thread count comes from JMH's -t option, for example:
+ *
+ * java -jar benchmarks/target/benchmarks.jar ConcurrentBenchmark -t 8 -p readPercent=99
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class ConcurrentBenchmark {
+
+  interface SharedSet {
+    boolean add(Integer e);
+
+    boolean remove(Integer e);
+
+    boolean contains(Integer e);
+
+    Integer ceiling(Integer e);
+
+    Integer floor(Integer e);
+  }
+
+  @State(Scope.Benchmark)
+  public static class SharedState {
+
+    @Param({"ConcurrentAVL", "ReadMostlyAVL", "ConcurrentSkipListSet"})
+    public String impl;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"90", "99"})
+    public int readPercent;
+
+    SharedSet set;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      if (impl.equals("ConcurrentAVL")) {
+        ConcurrentAVL < Integer > tree = new ConcurrentAVL < > ();
+        set = new SharedSet() {
+          public boolean add(Integer e) { return tree.add(e); }
+          public boolean remove(Integer e) { return tree.remove(e); }
+          public boolean contains(Integer e) { return tree.contains(e); }
+          public Integer ceiling(Integer e) { return tree.ceiling(e); }
+          public Integer floor(Integer e) { return tree.floor(e); }
+        };
+      } else if (impl.equals("ReadMostlyAVL")) {
+        ReadMostlyAVL < Integer > tree = new ReadMostlyAVL < > ();
+        set = new SharedSet() {
+          public boolean add(Integer e) { return tree.add(e); }
+          public boolean remove(Integer e) { return tree.remove(e); }
+          public boolean contains(Integer e) { return tree.contains(e); }
+          public Integer ceiling(Integer e) { return tree.ceiling(e); }
+          public Integer floor(Integer e) { return tree.floor(e); }
+        };
+      } else if (impl.equals("ConcurrentSkipListSet")) {
+        ConcurrentSkipListSet < Integer > skipList = new ConcurrentSkipListSet < > ();
+        set = new SharedSet() {
+          public boolean add(Integer e) { return skipList.add(e); }
+          public boolean remove(Integer e) { return skipList.remove(e); }
+          public boolean contains(Integer e) { return skipList.contains(e); }
+          public Integer ceiling(Integer e) { return skipList.ceiling(e); }
+          public Integer floor(Integer e) { return skipList.floor(e); }
+        };
+      } else {
+        throw new IllegalArgumentException("Unknown set implementation: " + impl);
+      }
+      for (int key: KeyDistribution.RANDOM.keys(size, 42)) {
+        set.add(key);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      random = new SplittableRandom(Thread.currentThread().getId());
+    }
+  }
+
+  @Benchmark
+  public Object mixed(SharedState shared, ThreadState local) {
+    SplittableRandom random = local.random;
+    Integer key = random.nextInt(2 * shared.size); // Half of the keys are even and start out in the set.
+    int op = random.nextInt(100);
+    if (op < shared.readPercent) {
+      switch (op % 3) {
+        case 0:
+          return shared.set.contains(key);
+        case 1:
+          return shared.set.ceiling(key);
+        default:
+          return shared.set.floor(key);
+      }
+    }
+    return ((op & 1) == 0) ? shared.set.add(key) : shared.set.remove(key);
+  }
+}
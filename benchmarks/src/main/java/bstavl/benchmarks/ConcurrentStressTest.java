@@ -0,0 +1,120 @@
+package bstavl.benchmarks;
+
+import bstavl.ConcurrentAVL;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * @author Elijah Philip
+ * Hammers a ConcurrentAVL from many threads and checks the result.
+ * Writers add and remove even keys. Each owns the ones whose half is congruent to its index modulo the writer count, so it
+ * can keep an exact TreeSet model of its share while all writers still collide on the same nodes and rotations. Every
+ * STABLE_GAP-th odd key is added before the threads start and never touched again, so readers know answers that must hold
+ * throughout: contains, ceiling and floor of a stable key return it, and a probe between two neighbouring stable keys has its
+ * ceiling and floor between them too. Once the threads stop, the tree must hold exactly the stable keys and the union of the
+ * models, in order, and be within the AVL height bound.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar bstavl.benchmarks.ConcurrentStressTest [threads] [opsPerThread] [keyRange]
+ * or, from the build: mvn -B verify -Pstress
+ */
+public class ConcurrentStressTest {
+
+  private static final int STABLE_GAP = 32; // Distance between neighbouring stable keys; they are 1, 33, 65 and so on.
+
+  public static void main(String[] args) throws Exception {
+    int threads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int opsPerThread = (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000;
+    int keyRange = (args.length > 2) ? Integer.parseInt(args[2]) : 100_000;
+    int writers = Math.max(1, threads / 2);
+    int readers = Math.max(1, threads - writers);
+
+    ConcurrentAVL < Integer > tree = new ConcurrentAVL < > ();
+    int stableCount = Math.max(2, 2 * keyRange / STABLE_GAP);
+    for (int j = 0; j < stableCount; j++) {
+      tree.add(j * STABLE_GAP + 1);
+    }
+    List < TreeSet < Integer >> models = new ArrayList < > ();
+    for (int w = 0; w < writers; w++) {
+      models.add(new TreeSet < > ());
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+    CountDownLatch start = new CountDownLatch(1);
+    List < Future < ? >> futures = new ArrayList < > ();
+    long began = System.nanoTime();
+
+    for (int w = 0; w < writers; w++) {
+      int id = w;
+      futures.add(pool.submit(() -> {
+        SplittableRandom random = new SplittableRandom(id);
+        TreeSet < Integer > model = models.get(id);
+        start.await();
+        for (int i = 0; i < opsPerThread; i++) {
+          int key = 2 * (random.nextInt(keyRange / writers) * writers + id);
+          boolean agree = random.nextBoolean() ? tree.add(key) == model.add(key) : tree.remove(key) == model.remove(key);
+          if (!agree) throw new AssertionError("Writer " + id + " disagreed with its model on key " + key);
+          if (tree.contains(key) != model.contains(key)) throw new AssertionError("Writer " + id + " lost its own key " + key);
+        }
+        return null;
+      }));
+    }
+    for (int r = 0; r < readers; r++) {
+      int id = r;
+      futures.add(pool.submit(() -> {
+        SplittableRandom random = new SplittableRandom(1_000 + id);
+        start.await();
+        for (int i = 0; i < opsPerThread; i++) {
+          int stable = random.nextInt(stableCount - 1) * STABLE_GAP + 1;
+          if (!tree.contains(stable)) throw new AssertionError("Stable key " + stable + " went missing");
+          if (!Objects.equals(tree.ceiling(stable), stable)) throw new AssertionError("ceiling(" + stable + ") returned " + tree.ceiling(stable));
+          if (!Objects.equals(tree.floor(stable), stable)) throw new AssertionError("floor(" + stable + ") returned " + tree.floor(stable));
+          // A probe strictly between two stable keys, where the writers' keys come and go.
+          int key = stable + 1 + random.nextInt(STABLE_GAP - 1);
+          int nextStable = stable + STABLE_GAP;
+          Integer ceil = tree.ceiling(key);
+          Integer floor = tree.floor(key);
+          Integer higher = tree.higher(key);
+          Integer lower = tree.lower(key);
+          if (ceil == null || ceil < key || ceil > nextStable) throw new AssertionError("ceiling(" + key + ") returned " + ceil);
+          if (floor == null || floor > key || floor < stable) throw new AssertionError("floor(" + key + ") returned " + floor);
+          if (higher == null || higher <= key || higher > nextStable) throw new AssertionError("higher(" + key + ") returned " + higher);
+          if (lower == null || lower >= key || lower < stable) throw new AssertionError("lower(" + key + ") returned " + lower);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    try {
+      for (Future < ? > future: futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    long millis = (System.nanoTime() - began) / 1_000_000;
+
+    TreeSet < Integer > expected = new TreeSet < > ();
+    for (int j = 0; j < stableCount; j++) {
+      expected.add(j * STABLE_GAP + 1);
+    }
+    for (TreeSet < Integer > model: models) {
+      expected.addAll(model);
+    }
+    List < Integer > actual = new ArrayList < > ();
+    for (Integer e: tree) {
+      actual.add(e);
+    }
+    if (!actual.equals(new ArrayList < > (expected))) throw new AssertionError("The tree does not hold exactly the stable keys and the keys the writers left in it.");
+    if (tree.size() != expected.size()) throw new AssertionError("size() is " + tree.size() + ", expected " + expected.size());
+    for (int key = -1; key <= 2 * keyRange; key++) {
+      if (!Objects.equals(tree.ceiling(key), expected.ceiling(key)) || !Objects.equals(tree.floor(key), expected.floor(key))) {
+        throw new AssertionError("Navigation around " + key + " disagrees with the expected keys.");
+      }
+    }
+    double bound = 1.4405 * Math.log(expected.size() + 2) / Math.log(2) - 0.3277;
+    if (tree.height() > Math.ceil(bound)) throw new AssertionError("Height " + tree.height() + " exceeds the AVL bound " + bound);
+
+    System.out.printf("%d writers and %d readers ran %d operations each in %d ms; %d keys left, height %d%n",
+      writers, readers, opsPerThread, millis, expected.size(), tree.height());
+  }
+}
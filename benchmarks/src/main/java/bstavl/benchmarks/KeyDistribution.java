@@ -0,0 +1,53 @@
+package bstavl.benchmarks;
+
+import java.util.Random;
+
+/**
+ * @author Elijah Philip
+ * The orders in which the benchmarks insert their keys. Every key is even, so odd numbers are guaranteed to be absent.
+ */
+public enum KeyDistribution {
+
+  /** Keys in a random order, the typical case for both trees. */
+  RANDOM {
+    @Override
+    int[] keys(int size, long seed) {
+      int[] keys = SORTED.keys(size, seed);
+      Random random = new Random(seed);
+      for (int i = size - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        int tmp = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tmp;
+      }
+      return keys;
+    }
+  },
+
+  /** Keys in ascending order, which turns a BST into a linked list and makes an AVL tree rotate on most inserts. */
+  SORTED {
+    @Override
+    int[] keys(int size, long seed) {
+      int[] keys = new int[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = 2 * i;
+      }
+      return keys;
+    }
+  },
+
+  /** Keys taken alternately from both ends (lowest, highest, second lowest, ...), which builds a zig-zag chain in a BST. */
+  ADVERSARIAL {
+    @Override
+    int[] keys(int size, long seed) {
+      int[] keys = new int[size];
+      int low = 0, high = size - 1;
+      for (int i = 0; i < size; i++) {
+        keys[i] = 2 * ((i % 2 == 0) ? low++ : high--);
+      }
+      return keys;
+    }
+  };
+
+  abstract int[] keys(int size, long seed);
+}
@@ -0,0 +1,66 @@
+package bstavl.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Inserts and removals. Each invocation undoes its own change so the tree keeps the same size (and shape class) across iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MutationBenchmark {
+
+  /** Adds a key that is not in the tree, then removes it again. */
+  @Benchmark
+  public boolean add(TreeState state) {
+    Integer absent = state.probes[state.nextProbe()] | 1;
+    boolean added = state.tree.add(absent);
+    state.tree.remove(absent);
+    return added;
+  }
+
+  /** Removes a key that is in the tree, then adds it back. */
+  @Benchmark
+  public boolean remove(TreeState state) {
+    Integer present = state.probes[state.nextProbe()] & ~1;
+    boolean removed = state.tree.remove(present);
+    state.tree.add(present);
+    return removed;
+  }
+
+  /**
+   * Loads every key into a new, empty tree with a single addAll call.
+   */
+  @State(Scope.Benchmark)
+  public static class BulkLoadState {
+    List < Integer > keys;
+    String impl;
+
+    @Setup(Level.Trial)
+    public void setUp(TreeState state) {
+      impl = state.impl;
+      keys = new ArrayList < > (state.keys.length);
+      for (int key: state.keys) {
+        keys.add(key);
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  public int addAll(BulkLoadState bulk) {
+    TreeAdapter tree = TreeAdapter.create(bulk.impl);
+    tree.addAll(bulk.keys);
+    return tree.size();
+  }
+}
@@ -0,0 +1,67 @@
+package bstavl.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Read-only operations: lookups, navigation, positional access, range queries and full iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class NavigationBenchmark {
+
+  /** Number of consecutive keys covered by each getRange call. */
+  private static final int RANGE_WIDTH = 100;
+
+  @Benchmark
+  public boolean contains(TreeState state) {
+    return state.tree.contains(state.probes[state.nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer get(TreeState state) {
+    return state.tree.get(state.indexProbes[state.nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer ceiling(TreeState state) {
+    return state.tree.ceiling(state.probes[state.nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer floor(TreeState state) {
+    return state.tree.floor(state.probes[state.nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer lower(TreeState state) {
+    return state.tree.lower(state.probes[state.nextProbe()]);
+  }
+
+  @Benchmark
+  public Integer higher(TreeState state) {
+    return state.tree.higher(state.probes[state.nextProbe()]);
+  }
+
+  @Benchmark
+  public List < Integer > getRange(TreeState state) {
+    Integer from = state.probes[state.nextProbe()];
+    return state.tree.getRange(from, from + 2 * RANGE_WIDTH);
+  }
+
+  @Benchmark
+  public void iterate(TreeState state, Blackhole blackhole) {
+    Iterator < Integer > it = state.tree.iterator();
+    while (it.hasNext()) {
+      blackhole.consume(it.next());
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package bstavl.benchmarks;
+
+import bstavl.AVL;
+import bstavl.LongAVL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Compares LongAVL with AVL&lt;Long&gt; on the same random long keys. Run with the GC profiler (the default in RunBenchmarks)
+ * to see the boxing allocations that LongAVL avoids.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PrimitiveKeyBenchmark {
+
+  private static final int PROBES = 1 << 16;
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  private LongAVL primitiveTree;
+  private AVL < Long > boxedTree;
+  private long[] probes;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    int[] keys = KeyDistribution.RANDOM.keys(size, 42);
+    primitiveTree = new LongAVL();
+    boxedTree = new AVL < > ();
+    for (int key: keys) {
+      long timestamp = 1_700_000_000_000L + key; // Realistic millisecond timestamps, well outside the Long cache.
+      primitiveTree.add(timestamp);
+      boxedTree.add(timestamp);
+    }
+    Random random = new Random(7);
+    probes = new long[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = 1_700_000_000_000L + 2 * random.nextInt(size) + (i & 1);
+    }
+  }
+
+  private long nextProbe() {
+    return probes[next++ & (PROBES - 1)];
+  }
+
+  @Benchmark
+  public boolean containsPrimitive() {
+    return primitiveTree.contains(nextProbe());
+  }
+
+  @Benchmark
+  public boolean containsBoxed() {
+    return boxedTree.contains(nextProbe());
+  }
+
+  @Benchmark
+  public long ceilingPrimitive() {
+    return primitiveTree.ceiling(nextProbe());
+  }
+
+  @Benchmark
+  public Long ceilingBoxed() {
+    return boxedTree.ceiling(nextProbe());
+  }
+
+  /** Adds an absent key and removes it again. */
+  @Benchmark
+  public boolean addPrimitive() {
+    long key = nextProbe() | 1;
+    boolean added = primitiveTree.add(key);
+    primitiveTree.remove(key);
+    return added;
+  }
+
+  /** Adds an absent key and removes it again. */
+  @Benchmark
+  public boolean addBoxed() {
+    long key = nextProbe() | 1;
+    boolean added = boxedTree.add(key);
+    boxedTree.remove(key);
+    return added;
+  }
+}
@@ -0,0 +1,65 @@
+package bstavl.benchmarks;
+
+import bstavl.AVL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Elijah Philip
+ * Merges a shard into a large AVL tree, once with AVL.union and once by copying the large tree and calling addAll with the shard's keys.
+ * Half of the shard's keys are already in the large tree. union leaves both trees untouched, so every invocation starts from the same trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SetOperationBenchmark {
+
+  @Param({"1000000"})
+  public int size;
+
+  @Param({"1000", "100000", "1000000"})
+  public int shardSize;
+
+  AVL < Integer > main;
+  AVL < Integer > shard;
+  List < Integer > shardKeys;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    main = new AVL < > ();
+    for (int key: KeyDistribution.RANDOM.keys(size, 42)) {
+      main.add(key);
+    }
+    shard = new AVL < > ();
+    shardKeys = new ArrayList < > (shardSize);
+    int[] keys = KeyDistribution.RANDOM.keys(size, 7);
+    for (int i = 0; i < shardSize; i++) {
+      int key = keys[i % size] + (i & 1); // Even keys are already in the main tree, odd ones are new.
+      shard.add(key);
+      shardKeys.add(key);
+    }
+  }
+
+  @Benchmark
+  public int union() {
+    return AVL.union(main, shard).size();
+  }
+
+  @Benchmark
+  public int addAll() {
+    AVL < Integer > merged = AVL.copyOf(main);
+    merged.addAll(shardKeys);
+    return merged.size();
+  }
+
+  @Benchmark
+  public int intersection() {
+    return AVL.intersection(main, shard).size();
+  }
+}
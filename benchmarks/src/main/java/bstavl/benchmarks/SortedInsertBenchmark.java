@@ -0,0 +1,49 @@
+package bstavl.benchmarks;
+
+import bstavl.AVL;
+import bstavl.BST;
+
+/**
+ * @author Elijah Philip
+ * Inserts sorted keys into a BST and an AVL tree and reports the time taken, then checks the deep trees can still be searched, ranged and emptied.
+ * Sorted input turns the BST into a linked list, so every insert walks the whole chain and the BST run is quadratic;
+ * it is run with fewer keys by default (1M sorted keys take about an hour). Pass the key counts to override them.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar bstavl.benchmarks.SortedInsertBenchmark [avlKeys] [bstKeys]
+ */
+public class SortedInsertBenchmark {
+
+  public static void main(String[] args) {
+    int avlKeys = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+    int bstKeys = (args.length > 1) ? Integer.parseInt(args[1]) : 50_000;
+
+    AVL < Integer > avl = new AVL < > ();
+    long start = System.nanoTime();
+    for (int i = 0; i < avlKeys; i++) {
+      avl.add(i);
+    }
+    report("AVL", avlKeys, start, avl.height(), avl.contains(avlKeys - 1));
+
+    BST < Integer > bst = new BST < > ();
+    start = System.nanoTime();
+    for (int i = 0; i < bstKeys; i++) {
+      bst.add(i);
+    }
+    report("BST", bstKeys, start, bst.height(), bst.contains(bstKeys - 1));
+
+    // The remaining operations used to recurse once per level and overflow the stack on a tree this deep.
+    start = System.nanoTime();
+    int inRange = bst.getRange(bstKeys / 2, bstKeys).size();
+    Integer ceil = bst.ceiling(bstKeys - 1);
+    if (ceil == null || ceil != bstKeys - 1) throw new AssertionError("ceiling(" + (bstKeys - 1) + ") returned " + ceil);
+    for (int i = 0; i < bstKeys; i++) {
+      bst.remove(i); // Always the root of the remaining chain.
+    }
+    System.out.printf("BST range of %d keys and removal of all keys in %d ms, size is now %d%n", inRange, (System.nanoTime() - start) / 1_000_000, bst.size());
+  }
+
+  private static void report(String name, int keys, long start, int height, boolean found) {
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("%s: inserted %d sorted keys in %d ms (height %d, last key found: %b)%n", name, keys, millis, height, found);
+  }
+}
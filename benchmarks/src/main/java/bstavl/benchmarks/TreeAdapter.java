@@ -0,0 +1,148 @@
+package bstavl.benchmarks;
+
+import bstavl.AVL;
+import bstavl.ArrayAVL;
+import bstavl.BST;
+
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * The operations the benchmarks measure, implemented on top of each tree so that BST, AVL and java.util.TreeSet can share the benchmark code.
+ * Each parameter combination runs in its own forked JVM, so only one implementation is loaded and the calls through this interface stay monomorphic.
+ */
+interface TreeAdapter {
+
+  boolean add(Integer e);
+
+  boolean remove(Integer e);
+
+  boolean contains(Integer e);
+
+  Integer get(int index);
+
+  Integer ceiling(Integer e);
+
+  Integer floor(Integer e);
+
+  Integer lower(Integer e);
+
+  Integer higher(Integer e);
+
+  List < Integer > getRange(Integer fromElement, Integer toElement);
+
+  Iterator < Integer > iterator();
+
+  boolean addAll(Collection < Integer > collection);
+
+  int size();
+
+  static TreeAdapter create(String impl) {
+    switch (impl) {
+      case "BST":
+        return new BSTAdapter();
+      case "AVL":
+        return new AVLAdapter();
+      case "ArrayAVL":
+        return new ArrayAVLAdapter();
+      case "TreeSet":
+        return new TreeSetAdapter();
+      default:
+        throw new IllegalArgumentException("Unknown tree implementation: " + impl);
+    }
+  }
+
+  final class BSTAdapter implements TreeAdapter {
+    private final BST < Integer > tree = new BST < > ();
+
+    public boolean add(Integer e) { return tree.add(e); }
+    public boolean remove(Integer e) { return tree.remove(e); }
+    public boolean contains(Integer e) { return tree.contains(e); }
+    public Integer get(int index) { return tree.get(index); }
+    public Integer ceiling(Integer e) { return tree.ceiling(e); }
+    public Integer floor(Integer e) { return tree.floor(e); }
+    public Integer lower(Integer e) { return tree.lower(e); }
+    public Integer higher(Integer e) { return tree.higher(e); }
+    public List < Integer > getRange(Integer fromElement, Integer toElement) { return tree.getRange(fromElement, toElement); }
+    public Iterator < Integer > iterator() { return tree.iterator(); }
+    public boolean addAll(Collection < Integer > collection) { return tree.addAll(collection); }
+    public int size() { return tree.size(); }
+  }
+
+  final class AVLAdapter implements TreeAdapter {
+    private final AVL < Integer > tree = new AVL < > ();
+
+    public boolean add(Integer e) { return tree.add(e); }
+    public boolean remove(Integer e) { return tree.remove(e); }
+    public boolean contains(Integer e) { return tree.contains(e); }
+    public Integer get(int index) { return tree.get(index); }
+    public Integer ceiling(Integer e) { return tree.ceiling(e); }
+    public Integer floor(Integer e) { return tree.floor(e); }
+    public Integer lower(Integer e) { return tree.lower(e); }
+    public Integer higher(Integer e) { return tree.higher(e); }
+    public List < Integer > getRange(Integer fromElement, Integer toElement) { return tree.getRange(fromElement, toElement); }
+    public Iterator < Integer > iterator() { return tree.iterator(); }
+    public boolean addAll(Collection < Integer > collection) { return tree.addAll(collection); }
+    public int size() { return tree.size(); }
+  }
+
+  /**
+   * ArrayAVL has no positional access or addAll, so get(int) walks the iterator and addAll adds one element at a time.
+   */
+  final class ArrayAVLAdapter implements TreeAdapter {
+    private final ArrayAVL < Integer > tree = new ArrayAVL < > ();
+
+    public boolean add(Integer e) { return tree.add(e); }
+    public boolean remove(Integer e) { return tree.remove(e); }
+    public boolean contains(Integer e) { return tree.contains(e); }
+    public Integer ceiling(Integer e) { return tree.ceiling(e); }
+    public Integer floor(Integer e) { return tree.floor(e); }
+    public Integer lower(Integer e) { return tree.lower(e); }
+    public Integer higher(Integer e) { return tree.higher(e); }
+    public List < Integer > getRange(Integer fromElement, Integer toElement) { return tree.getRange(fromElement, toElement); }
+    public Iterator < Integer > iterator() { return tree.iterator(); }
+    public int size() { return tree.size(); }
+
+    public Integer get(int index) {
+      if (index < 0 || index >= tree.size()) throw new IndexOutOfBoundsException(index);
+      Iterator < Integer > it = tree.iterator();
+      while (index-- > 0) it.next();
+      return it.next();
+    }
+
+    public boolean addAll(Collection < Integer > collection) {
+      boolean changed = false;
+      for (Integer e: collection) changed |= tree.add(e);
+      return changed;
+    }
+  }
+
+  /**
+   * The JDK baseline. TreeSet has no positional access, so get(int) walks the iterator the way a caller would have to.
+   */
+  final class TreeSetAdapter implements TreeAdapter {
+    private final TreeSet < Integer > tree = new TreeSet < > ();
+
+    public boolean add(Integer e) { return tree.add(e); }
+    public boolean remove(Integer e) { return tree.remove(e); }
+    public boolean contains(Integer e) { return tree.contains(e); }
+    public Integer ceiling(Integer e) { return tree.ceiling(e); }
+    public Integer floor(Integer e) { return tree.floor(e); }
+    public Integer lower(Integer e) { return tree.lower(e); }
+    public Integer higher(Integer e) { return tree.higher(e); }
+    public Iterator < Integer > iterator() { return tree.iterator(); }
+    public boolean addAll(Collection < Integer > collection) { return tree.addAll(collection); }
+    public int size() { return tree.size(); }
+
+    public Integer get(int index) {
+      if (index < 0 || index >= tree.size()) throw new IndexOutOfBoundsException(index);
+      Iterator < Integer > it = tree.iterator();
+      while (index-- > 0) it.next();
+      return it.next();
+    }
+
+    public List < Integer > getRange(Integer fromElement, Integer toElement) {
+      return new ArrayList < > (tree.subSet(fromElement, true, toElement, true));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package bstavl.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+
+/**
+ * @author Elijah Philip
+ * A tree of the requested implementation, pre-filled with size keys in the requested order, plus random probe keys.
+ * Half of the probes are present in the tree and half are absent.
+ */
+@State(Scope.Benchmark)
+public class TreeState {
+
+  /** Largest size at which a BST is filled with SORTED or ADVERSARIAL keys: the fill is quadratic and would not finish beyond it. */
+  static final int MAX_DEGENERATE_BST_SIZE = 100_000;
+
+  private static final int PROBES = 1 << 16;
+
+  @Param({"BST", "AVL", "TreeSet"})
+  public String impl;
+
+  @Param({"RANDOM", "SORTED", "ADVERSARIAL"})
+  public KeyDistribution distribution;
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  TreeAdapter tree;
+  int[] keys;
+  Integer[] probes;
+  int[] indexProbes;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (impl.equals("BST") && distribution != KeyDistribution.RANDOM && size > MAX_DEGENERATE_BST_SIZE) {
+      throw new IllegalStateException("Skipping BST with " + distribution + " keys at size " + size
+        + ": filling a degenerate BST is quadratic. Use sizes up to " + MAX_DEGENERATE_BST_SIZE + ".");
+    }
+    keys = distribution.keys(size, 42);
+    tree = TreeAdapter.create(impl);
+    for (int key: keys) {
+      tree.add(key);
+    }
+
+    Random random = new Random(7);
+    probes = new Integer[PROBES];
+    indexProbes = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = 2 * random.nextInt(size) + (i & 1); // Even probes are in the tree, odd ones are not.
+      indexProbes[i] = random.nextInt(size);
+    }
+  }
+
+  /** Returns the position of the next probe, cycling through the probe arrays. */
+  int nextProbe() {
+    return next++ & (PROBES - 1);
+  }
+}
@@ -0,0 +1,2309 @@
+package bstavl;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author Elijah Philip
+ * This class is an implementation of an AVL tree, a self-balancing binary search tree.
+ * The AVL tree maintains its balance by performing rotations during insertion and removal operations when the height is updated.
+ */
+
+public class AVL < E extends Comparable < E >> extends AbstractSet < E > implements NavigableTree < E > , Cloneable {
+
+  private Node < E > head;
+  private int size;
+  private int modCount; // Number of structural modifications, used by the iterators to fail fast.
+  private Sharing sharing; // Set while the nodes are shared with clones; null when this tree owns them outright.
+  private final Comparator < ? super E > comparator; // Null when the elements are kept in their natural order.
+
+  // Set operations on trees at least this large are split across the common ForkJoinPool.
+  static final int PARALLEL_THRESHOLD = 4096;
+
+  /**
+   * Constructs a new, empty tree.
+   */
+  public AVL() {
+    size = 0;
+    this.head = null;
+    this.comparator = null;
+  }
+
+  /**
+   * Constructs a new, empty tree ordered by the specified comparator.
+   *
+   * @param comparator The comparator that orders the tree, or null to keep the elements in their natural order.
+   */
+  public AVL(Comparator < ? super E > comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Constructs a new tree containing the elements of the specified array, in any order.
+   * The elements are sorted and de-duplicated, then the tree is built balanced in a single pass instead of one insert at a time.
+   *
+   * @param collection Array whose elements will comprise the new tree.
+   * @throws NullPointerException if the specified array or any of its elements is null.
+   */
+  public AVL(E[] collection) {
+    comparator = null;
+    Object[] sorted = collection.clone();
+    for (Object e: sorted) {
+      if (e == null) throw new NullPointerException("Given Element cannot be null.");
+    }
+    Arrays.sort(sorted);
+    int count = removeDuplicates(sorted);
+    head = buildBalanced(sorted, 0, count);
+    size = count;
+  }
+
+  /**
+   * Builds a tree from elements that are already in strictly ascending order, in O(n) time without any rotations.
+   *
+   * @param sorted Array of elements in strictly ascending order.
+   * @return a new height-balanced tree containing the given elements.
+   * @throws NullPointerException     if the specified array or any of its elements is null.
+   * @throws IllegalArgumentException if the elements are not in strictly ascending order.
+   */
+  public static < E extends Comparable < E >> AVL < E > fromSorted(E[] sorted) {
+    return fromSortedArray(sorted.clone(), true);
+  }
+
+  /**
+   * Builds a tree from a collection whose iteration order is strictly ascending, in O(n) time without any rotations.
+   * The order is not re-checked for a SortedSet that uses the natural ordering.
+   *
+   * @param sorted Collection of elements in strictly ascending order.
+   * @return a new height-balanced tree containing the given elements.
+   * @throws NullPointerException     if the specified collection or any of its elements is null.
+   * @throws IllegalArgumentException if the elements are not in strictly ascending order.
+   */
+  public static < E extends Comparable < E >> AVL < E > fromSorted(Collection < ? extends E > sorted) {
+    boolean naturallySorted = sorted instanceof SortedSet && ((SortedSet < ? > ) sorted).comparator() == null;
+    return fromSortedArray(sorted.toArray(), !naturallySorted);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static < E extends Comparable < E >> AVL < E > fromSortedArray(Object[] sorted, boolean checkOrder) {
+    for (int i = 0; i < sorted.length; i++) {
+      if (sorted[i] == null) throw new NullPointerException("Given Element cannot be null.");
+      if (checkOrder && i > 0 && ((E) sorted[i - 1]).compareTo((E) sorted[i]) >= 0) {
+        throw new IllegalArgumentException("The elements should be in strictly ascending order.");
+      }
+    }
+    AVL < E > tree = new AVL < > ();
+    tree.head = tree.buildBalanced(sorted, 0, sorted.length);
+    tree.size = sorted.length;
+    return tree;
+  }
+
+  /**
+   * Removes adjacent duplicates from a sorted array in place.
+   *
+   * @return the number of distinct elements, which now occupy the front of the array.
+   */
+  @SuppressWarnings("unchecked")
+  private int removeDuplicates(Object[] sorted) {
+    if (sorted.length == 0) return 0;
+    int count = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (compare(comparator, (E) sorted[i], (E) sorted[count - 1]) != 0) {
+        sorted[count++] = sorted[i];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Recursively builds a perfectly balanced subtree from sorted[from, to) by rooting it at the middle element.
+   * Both halves differ in size by at most one, so their heights differ by at most one as well.
+   */
+  @SuppressWarnings("unchecked")
+  private Node < E > buildBalanced(Object[] sorted, int from, int to) {
+    if (from >= to) return null;
+    int mid = (from + to) >>> 1;
+    Node < E > cNode = new Node < > ((E) sorted[mid], buildBalanced(sorted, from, mid), buildBalanced(sorted, mid + 1, to));
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    cNode.size = 1 + getSize(cNode.left) + getSize(cNode.right);
+    return cNode;
+  }
+
+  /**
+   * Builds a tree from count elements read in strictly ascending order from the source, in O(n) time without any rotations.
+   * The elements are consumed in order while the tree is built, so they never have to be held in an array.
+   */
+  static < E extends Comparable < E >> AVL < E > fromSortedSource(int count, TreeSnapshot.KeySource < E > source) throws IOException {
+    AVL < E > tree = new AVL < > ();
+    tree.head = tree.buildBalanced(count, source);
+    tree.size = count;
+    return tree;
+  }
+
+  /**
+   * Builds a perfectly balanced subtree of count nodes by building the left half, reading the root and then building the right half.
+   */
+  private Node < E > buildBalanced(int count, TreeSnapshot.KeySource < E > source) throws IOException {
+    if (count == 0) return null;
+    int leftCount = count >>> 1;
+    Node < E > left = buildBalanced(leftCount, source);
+    Node < E > cNode = new Node < > (source.next(), left, null);
+    cNode.right = buildBalanced(count - leftCount - 1, source);
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    cNode.size = count;
+    return cNode;
+  }
+
+  /**
+   * Returns an independent copy of this tree in O(1). The copy shares the nodes of this tree until either of them is first
+   * modified, at which point the one being modified takes its own structural copy; a clone that is only read never copies anything.
+   *
+   * @return a copy of this tree.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public AVL < E > clone() {
+    try {
+      if (sharing == null) sharing = new Sharing();
+      sharing.owners++;
+      AVL < E > copy = (AVL < E > ) super.clone();
+      copy.modCount = 0;
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError();
+    }
+  }
+
+  /**
+   * Returns a new tree holding the same elements as the specified tree, copied node by node in O(n) time.
+   * The cached heights and subtree sizes are copied as they are, so nothing is compared or rebalanced.
+   *
+   * @param tree The tree to be copied.
+   * @return a new tree with the same elements and shape as the specified tree.
+   * @throws NullPointerException if the specified tree is null.
+   */
+  public static < E extends Comparable < E >> AVL < E > copyOf(AVL < E > tree) {
+    if (tree == null) throw new NullPointerException("This function's argument does not accept null.");
+    AVL < E > copy = new AVL < E > (tree.comparator);
+    copy.head = copyNodes(tree.head);
+    copy.size = tree.size;
+    return copy;
+  }
+
+  /**
+   * Counts the trees sharing one set of nodes after a clone.
+   */
+  private static final class Sharing {
+    int owners = 1;
+  }
+
+  /**
+   * Makes this tree copy its nodes before it is next modified, because a tree built by a set operation now shares some of them.
+   * The fresh count is never released by another tree, so the copy is always made; any group the tree leaves is only over-counted.
+   */
+  private void pinShared() {
+    sharing = new Sharing();
+    sharing.owners = 2;
+  }
+
+  /**
+   * Gives this tree nodes of its own before it is modified, if it is still sharing them with a clone.
+   * The last owner left keeps the original nodes, so each clone that is modified pays for exactly one copy.
+   */
+  private void ensureUnshared() {
+    if (sharing == null) return;
+    if (sharing.owners > 1) {
+      sharing.owners--;
+      head = copyNodes(head);
+    }
+    sharing = null;
+  }
+
+  /**
+   * Copies the subtree rooted at the given node in preorder, with an explicit stack so deep trees cannot overflow the call stack.
+   */
+  private static < E extends Comparable < E >> Node < E > copyNodes(Node < E > root) {
+    if (root == null) return null;
+    Node < E > rootCopy = copyNode(root);
+    ArrayDeque < Node < E >> copies = new ArrayDeque < > ();
+    copies.push(rootCopy);
+    while (!copies.isEmpty()) {
+      // Each copy still points at the children of its original until it is popped and given copies of its own.
+      Node < E > cNode = copies.pop();
+      if (cNode.right != null) {
+        cNode.right = copyNode(cNode.right);
+        copies.push(cNode.right);
+      }
+      if (cNode.left != null) {
+        cNode.left = copyNode(cNode.left);
+        copies.push(cNode.left);
+      }
+    }
+    return rootCopy;
+  }
+
+  private static < E extends Comparable < E >> Node < E > copyNode(Node < E > node) {
+    Node < E > copy = new Node < > (node.data, node.left, node.right);
+    copy.height = node.height;
+    copy.size = node.size;
+    return copy;
+  }
+
+  private class InOrderIter implements Iterator < E > {
+    // Nodes whose element and right subtree are still to be returned; the top holds the next element.
+    private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+    private Node < E > pending;
+    private E lastReturned;
+    private int expectedModCount;
+
+    public InOrderIter() {
+      pending = head;
+      expectedModCount = modCount;
+    }
+
+    private void pushLeft(Node < E > node) {
+      while (node != null) {
+        stack.push(node);
+        node = node.left;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (pending != null) {
+        pushLeft(pending);
+        pending = null;
+      }
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (!hasNext()) throw new NoSuchElementException();
+      Node < E > node = stack.pop();
+      pushLeft(node.right);
+      lastReturned = node.data;
+      return lastReturned;
+    }
+
+    @Override
+    public void remove() {
+      if (lastReturned == null) throw new IllegalStateException();
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      AVL.this.remove(lastReturned);
+      expectedModCount = modCount;
+
+      // The removal may have restructured the tree, so rebuild the path to the first element after the removed one.
+      stack.clear();
+      pending = null;
+      Node < E > cNode = head;
+      while (cNode != null) {
+        if (compare(comparator, cNode.data, lastReturned) > 0) {
+          stack.push(cNode);
+          cNode = cNode.left;
+        } else {
+          cNode = cNode.right;
+        }
+      }
+      lastReturned = null;
+    }
+  }
+
+  private class PreOrderIter implements Iterator < E > {
+    private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+    private int expectedModCount;
+
+    public PreOrderIter() {
+      if (head != null) stack.push(head);
+      expectedModCount = modCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (stack.isEmpty()) throw new NoSuchElementException();
+      Node < E > node = stack.pop();
+      if (node.right != null) stack.push(node.right);
+      if (node.left != null) stack.push(node.left);
+      return node.data;
+    }
+  }
+
+  private class PostOrderIter implements Iterator < E > {
+    // Ancestors of the next node to be returned; the top is returned once both of its subtrees are done.
+    private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+    private Node < E > pending;
+    private int expectedModCount;
+
+    public PostOrderIter() {
+      pending = head;
+      expectedModCount = modCount;
+    }
+
+    private void pushFirstLeaf(Node < E > node) {
+      while (node != null) {
+        stack.push(node);
+        node = (node.left != null) ? node.left : node.right;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (pending != null) {
+        pushFirstLeaf(pending);
+        pending = null;
+      }
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public E next() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (!hasNext()) throw new NoSuchElementException();
+      Node < E > node = stack.pop();
+      Node < E > parent = stack.peek();
+      if (parent != null && parent.left == node) {
+        pushFirstLeaf(parent.right);
+      }
+      return node.data;
+    }
+  }
+
+
+  /**
+   * Splits the elements by rank: a spliterator covers the ranks from index up to fence, and trySplit hands out the lower half
+   * of them, so every split is at the exact midpoint and both halves know their size. The path to the first element is only
+   * walked, using the subtree sizes, when the traversal starts.
+   */
+  private class RankSpliterator implements Spliterator < E > {
+    private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+    private int index;
+    private final int fence;
+    private final int expectedModCount;
+    private boolean started;
+
+    RankSpliterator(int index, int fence, int expectedModCount) {
+      this.index = index;
+      this.fence = fence;
+      this.expectedModCount = expectedModCount;
+    }
+
+    // Pushes the path to the element at the given rank; the nodes passed on the left are the ones still to come after it.
+    private void descendTo(int rank) {
+      Node < E > cNode = head;
+      while (cNode != null) {
+        int leftSize = getSize(cNode.left);
+        if (rank < leftSize) {
+          stack.push(cNode);
+          cNode = cNode.left;
+        } else if (rank == leftSize) {
+          stack.push(cNode);
+          return;
+        } else {
+          rank -= leftSize + 1;
+          cNode = cNode.right;
+        }
+      }
+    }
+
+    private E nextElement() {
+      Node < E > node = stack.pop();
+      for (Node < E > cNode = node.right; cNode != null; cNode = cNode.left) {
+        stack.push(cNode);
+      }
+      index++;
+      return node.data;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer < ? super E > action) {
+      if (action == null) throw new NullPointerException("This function's argument does not accept null.");
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (index >= fence) return false;
+      if (!started) {
+        descendTo(index);
+        started = true;
+      }
+      action.accept(nextElement());
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer < ? super E > action) {
+      if (action == null) throw new NullPointerException("This function's argument does not accept null.");
+      if (index >= fence) return;
+      if (!started) {
+        descendTo(index);
+        started = true;
+      }
+      while (index < fence) {
+        action.accept(nextElement());
+      }
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public Spliterator < E > trySplit() {
+      if (started) return null;
+      int mid = (index + fence) >>> 1;
+      if (mid <= index) return null;
+      Spliterator < E > lower = new RankSpliterator(index, mid, expectedModCount);
+      index = mid;
+      return lower;
+    }
+
+    @Override
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    @Override
+    public Comparator < ? super E > getComparator() {
+      return comparator; // Null when the elements are in their natural order.
+    }
+  }
+
+  /**
+   * The RangeCursor of this tree. The stack holds the nodes whose element, and the subtree on the far side of it, are still to come;
+   * the top holds the next element.
+   */
+  private class TreeCursor implements RangeCursor < E > {
+    private final boolean descending;
+    private Node < E > [] stack;
+    private int depth;
+    private E from, to;
+    private boolean fromInclusive, toInclusive;
+    private int expectedModCount;
+    private boolean closed;
+
+    @SuppressWarnings("unchecked")
+    TreeCursor(boolean descending) {
+      this.descending = descending;
+      this.stack = (Node < E > []) new Node < ? > [16];
+    }
+
+    @Override
+    public void reset(E from, boolean fromInclusive, E to, boolean toInclusive) {
+      if (from != null && to != null && compare(comparator, from, to) > 0) {
+        throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+      }
+      this.from = from;
+      this.fromInclusive = fromInclusive;
+      this.to = to;
+      this.toInclusive = toInclusive;
+      closed = false;
+      if (descending) {
+        position(to, toInclusive);
+      } else {
+        position(from, fromInclusive);
+      }
+    }
+
+    @Override
+    public void seek(E key) {
+      if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+      if (closed) throw new IllegalStateException("The cursor is closed.");
+      if (descending) {
+        if (to != null && compare(comparator, key, to) >= 0) {
+          position(to, toInclusive);
+        } else {
+          position(key, true);
+        }
+      } else if (from != null && compare(comparator, key, from) <= 0) {
+        position(from, fromInclusive);
+      } else {
+        position(key, true);
+      }
+    }
+
+    // Pushes the path to the first element at or past the key in the cursor's direction; a null key means the very first element.
+    private void position(E key, boolean inclusive) {
+      Arrays.fill(stack, 0, depth, null);
+      depth = 0;
+      expectedModCount = modCount;
+      Node < E > cNode = head;
+      while (cNode != null) {
+        int compareVal = (key == null) ? (descending ? -1 : 1) : compare(comparator, cNode.data, key);
+        if (descending) compareVal = -compareVal;
+        if (compareVal > 0 || (compareVal == 0 && inclusive)) {
+          push(cNode);
+          cNode = descending ? cNode.right : cNode.left;
+        } else {
+          cNode = descending ? cNode.left : cNode.right;
+        }
+      }
+    }
+
+    private void push(Node < E > cNode) {
+      if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+      stack[depth++] = cNode;
+    }
+
+    @Override
+    public E next() {
+      if (closed) throw new IllegalStateException("The cursor is closed.");
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (depth == 0) return null;
+      Node < E > node = stack[--depth];
+      stack[depth] = null;
+      if (descending ? pastStart(node.data) : pastEnd(node.data)) {
+        Arrays.fill(stack, 0, depth, null);
+        depth = 0;
+        return null;
+      }
+      for (Node < E > cNode = descending ? node.left : node.right; cNode != null; cNode = descending ? cNode.right : cNode.left) {
+        push(cNode);
+      }
+      return node.data;
+    }
+
+    private boolean pastEnd(E e) {
+      if (to == null) return false;
+      int compareVal = compare(comparator, e, to);
+      return compareVal > 0 || (compareVal == 0 && !toInclusive);
+    }
+
+    private boolean pastStart(E e) {
+      if (from == null) return false;
+      int compareVal = compare(comparator, e, from);
+      return compareVal < 0 || (compareVal == 0 && !fromInclusive);
+    }
+
+    @Override
+    public void close() {
+      Arrays.fill(stack, 0, depth, null);
+      depth = 0;
+      from = null;
+      to = null;
+      closed = true;
+    }
+  }
+
+  @Override
+  public Iterator < E > iterator() {
+    return new InOrderIter();
+  }
+
+  public Iterator < E > preorderIterator() {
+    return new PreOrderIter();
+  }
+
+  public Iterator < E > postorderIterator() {
+    return new PostOrderIter();
+  }
+
+  /**
+   * Returns a spliterator over the elements in ascending order. It splits at the exact middle rank, using the subtree sizes,
+   * so a parallel stream divides the tree into equal parts.
+   *
+   * @return a spliterator over the elements in the tree.
+   */
+  @Override
+  public Spliterator < E > spliterator() {
+    return new RankSpliterator(0, size, modCount);
+  }
+
+  /**
+   * Returns a sequential stream over the elements in ascending order.
+   *
+   * @return a stream over the elements in the tree.
+   */
+  public Stream < E > stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns a parallel stream over the elements in ascending order.
+   *
+   * @return a possibly parallel stream over the elements in the tree.
+   */
+  public Stream < E > parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  private static class Node < E extends Comparable < E >> {
+
+    E data;
+    int height;
+    int size; // Number of nodes in the subtree rooted at this node, used for order statistics.
+    Node < E > left,
+    right;
+
+    public Node(E data, Node < E > left, Node < E > right) {
+      this.data = data;
+      this.left = left;
+      this.right = right;
+      this.height = 1;
+      this.size = 1;
+    }
+  }
+
+  /**
+   * Compares two elements with the comparator, or by their natural order if it is null. The hottest loops do not come through here:
+   * add and contains test the comparator once and run a copy of their loop written for one ordering, so the comparison in each copy
+   * is a call site that only ever sees one kind of receiver, and the JIT can inline it.
+   */
+  static < E extends Comparable < E >> int compare(Comparator < ? super E > comparator, E a, E b) {
+    return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+  }
+
+  int getHeight() {
+    return getHeight(head); //Every node caches the height of its subtree, so the root holds the tree's height.
+  }
+
+  /**
+   * Recursive helper method to add a new element to the AVL tree while maintaining balance.
+   *
+   * @param e     The element to be added to the tree.
+   * @param cNode The current node in the recursion process.
+   * @return The updated node after adding the new element.
+   */
+  private Node < E > addHelper(E e, Node < E > cNode) {
+    if (cNode == null) {
+      return new Node < > (e, null, null);
+    }
+
+    int compareVal = e.compareTo(cNode.data);
+
+    if (compareVal < 0) {
+      cNode.left = addHelper(e, cNode.left);
+    } else if (compareVal > 0) {
+      cNode.right = addHelper(e, cNode.right);
+    } else {
+      return cNode;
+    }
+
+    return balanceAfterInsert(cNode);
+  }
+
+  /**
+   * The counterpart of addHelper for a tree ordered by a comparator. It is a separate copy so that the comparison in each stays monomorphic.
+   */
+  private Node < E > addHelper(E e, Node < E > cNode, Comparator < ? super E > comparator) {
+    if (cNode == null) {
+      return new Node < > (e, null, null);
+    }
+
+    int compareVal = comparator.compare(e, cNode.data);
+
+    if (compareVal < 0) {
+      cNode.left = addHelper(e, cNode.left, comparator);
+    } else if (compareVal > 0) {
+      cNode.right = addHelper(e, cNode.right, comparator);
+    } else {
+      return cNode;
+    }
+
+    return balanceAfterInsert(cNode);
+  }
+
+  /**
+   * Updates the height and size of a node on the path of an insertion and rotates it back into balance if needed.
+   * The new element went into the taller grandchild, so the heights tell which rotation is needed without comparing elements again.
+   */
+  private Node < E > balanceAfterInsert(Node < E > cNode) {
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    cNode.size = 1 + getSize(cNode.left) + getSize(cNode.right);
+
+    int balance = getBalance(cNode);
+
+    if (balance > 1) {
+      if (getHeight(cNode.left.left) > getHeight(cNode.left.right)) {
+        return rotateRight(cNode);
+      } else {
+        return rotateLeftRight(cNode);
+      }
+    }
+
+    if (balance < -1) {
+      if (getHeight(cNode.right.right) > getHeight(cNode.right.left)) {
+        return rotateLeft(cNode);
+      } else {
+        return rotateRightLeft(cNode);
+      }
+    }
+
+    return cNode;
+  }
+
+  /**
+   * Public method to add a new element to the AVL tree.
+   *
+   * @param e The element to be added to the tree.
+   * @return True if the tree did not already contain the element.
+   */
+  public boolean add(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    ensureUnshared();
+    head = (comparator == null) ? addHelper(e, head) : addHelper(e, head, comparator);
+    int oldSize = size;
+    size = getSize(head);
+    if (size == oldSize) return false;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Public method to add all elements from a collection to the AVL tree.
+   * When the tree is empty it is bulk-built from the sorted elements instead of inserting them one by one.
+   *
+   * @param collection The collection of elements to be added to the tree.
+   * @return true if the tree changed as a result of the call.
+   */
+  public boolean addAll(Collection < ? extends E > collection) {
+    ensureUnshared();
+    if (head == null && !collection.isEmpty()) {
+      Object[] sorted = collection.toArray();
+      for (Object e: sorted) {
+        if (e == null) throw new NullPointerException("Element cannot be null.");
+      }
+      if (!(collection instanceof SortedSet && Objects.equals(((SortedSet < ? > ) collection).comparator(), comparator))) {
+        sort(sorted, comparator);
+      }
+      int count = removeDuplicates(sorted);
+      head = buildBalanced(sorted, 0, count);
+      size = count;
+      modCount++;
+      return true;
+    }
+    boolean changed = false;
+    for (E e: collection) {
+      if (e == null) throw new NullPointerException("Element cannot be null.");
+      changed |= this.add(e);
+    }
+    return changed;
+  }
+
+  /**
+   * Private method to find the minimum element in a subtree starting from the given node.
+   *
+   * @param n The starting node for finding the minimum element.
+   * @return The minimum element in the subtree.
+   */
+  private E findMin(Node < E > n) {
+    while (n.left != null) {
+      n = n.left;
+    }
+    return n.data;
+  }
+
+  /**
+   * Recursive helper method to remove an element from the AVL tree while maintaining balance.
+   *
+   * @param o     The object to be removed from the tree.
+   * @param cNode The current node in the recursion process.
+   * @return The updated node after removing the specified object.
+   */
+  @SuppressWarnings("unchecked")
+  private Node < E > removeHelper(Object o, Node < E > cNode) {
+    if (cNode == null) {
+      return null; // If the node is null, the element is not in the tree.
+    } else if (!cNode.data.getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+
+    int compareVal = compare(comparator, (E) o, cNode.data);
+
+    if (compareVal < 0) {
+      cNode.left = removeHelper(o, cNode.left);
+    } else if (compareVal > 0) {
+      cNode.right = removeHelper(o, cNode.right);
+    } else {
+      // Node to be removed found
+
+      if (cNode.left == null && cNode.right == null) {
+        // If it's a leaf node, just remove the node.
+        return null;
+      } else if (cNode.left != null && cNode.right == null) {
+        // If it has a child node on the left, return the left child.
+        return cNode.left;
+      } else if (cNode.left == null && cNode.right != null) {
+        // If it has a child node on the right, return the right child.
+        return cNode.right;
+      } else {
+        // Node with two children
+        cNode.data = findMin(cNode.right); // Find the inorder successor
+        cNode.right = removeHelper(cNode.data, cNode.right); // Remove the inorder successor
+      }
+    }
+
+    // Update height and subtree size
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    cNode.size = 1 + getSize(cNode.left) + getSize(cNode.right);
+
+    // Rebalance the tree
+    int balance = getBalance(cNode);
+
+    // Left Heavy
+    if (balance > 1) {
+      if (getBalance(cNode.left) >= 0) {
+        return rotateRight(cNode);
+      } else {
+        return rotateLeftRight(cNode);
+      }
+    }
+
+    // Right Heavy
+    if (balance < -1) {
+      if (getBalance(cNode.right) <= 0) {
+        return rotateLeft(cNode);
+      } else {
+        return rotateRightLeft(cNode);
+      }
+    }
+
+    return cNode;
+  }
+
+  public boolean remove(Object o) {
+    if (o == null) throw new NullPointerException("Specified element cannot be null.");
+    ensureUnshared();
+    head = removeHelper(o, head);
+    int oldSize = size;
+    size = getSize(head);
+
+    if (size == oldSize) return false;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Removes all elements from the tree.
+   */
+  public void clear() {
+    if (sharing != null) {
+      sharing.owners--; // The nodes are dropped rather than copied, leaving them to the other owners.
+      sharing = null;
+    }
+    head = null;
+    size = 0;
+    modCount++;
+  }
+
+  /**
+   * Adds all of the elements in the specified collection in one pass over the tree. The batch is sorted, then merged into the
+   * tree top-down: each node splits the batch around its element, its subtrees take their halves, and the node is joined back
+   * with its new subtrees, rebalancing once however many elements went into them. Subtrees the batch does not reach are not visited,
+   * so a batch of k elements costs O(k log(n/k + 1)) after sorting instead of k separate inserts.
+   *
+   * @param batch Collection containing elements to be added to the tree.
+   * @return true if the tree changed as a result of the call.
+   * @throws NullPointerException if the specified collection or any of its elements is null.
+   * @throws ClassCastException   if the elements cannot be compared with one another or with the elements in the tree.
+   */
+  public boolean addBatch(Collection < ? extends E > batch) {
+    Object[] sorted = sortedDistinct(batch);
+    if (sorted.length == 0) return false;
+    ensureUnshared();
+    int oldSize = size;
+    head = addSorted(head, sorted, 0, sorted.length);
+    size = getSize(head);
+    if (size == oldSize) return false;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Removes all of the elements in the specified collection in one pass over the tree, the same way addBatch adds them:
+   * each node's subtrees lose their share of the batch first, then the node is joined back with them, or its subtrees are
+   * joined to each other if the node itself goes.
+   *
+   * @param batch Collection containing elements to be removed from the tree.
+   * @return true if the tree changed as a result of the call.
+   * @throws NullPointerException if the specified collection or any of its elements is null.
+   * @throws ClassCastException   if the elements cannot be compared with one another or with the elements in the tree.
+   */
+  public boolean removeBatch(Collection < ? extends E > batch) {
+    Object[] sorted = sortedDistinct(batch);
+    if (sorted.length == 0 || head == null) return false;
+    ensureUnshared();
+    int oldSize = size;
+    head = removeSorted(head, sorted, 0, sorted.length);
+    size = getSize(head);
+    if (size == oldSize) return false;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Returns the elements of the batch sorted, without duplicates.
+   */
+  private Object[] sortedDistinct(Collection < ? > batch) {
+    Object[] sorted = batch.toArray();
+    for (Object e: sorted) {
+      if (e == null) throw new NullPointerException("Element cannot be null.");
+    }
+    if (!(batch instanceof SortedSet && Objects.equals(((SortedSet < ? > ) batch).comparator(), comparator))) {
+      sort(sorted, comparator);
+    }
+    int count = removeDuplicates(sorted);
+    return (count == sorted.length) ? sorted : Arrays.copyOf(sorted, count);
+  }
+
+  /**
+   * Returns the index of the first element of sorted[from, to) that is not less than the key.
+   */
+  @SuppressWarnings("unchecked")
+  private static < E extends Comparable < E >> int lowerBound(Object[] sorted, int from, int to, E key, Comparator < ? super E > comparator) {
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      if (compare(comparator, (E) sorted[mid], key) < 0) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  private Node < E > addSorted(Node < E > cNode, Object[] sorted, int from, int to) {
+    if (from >= to) return cNode;
+    if (cNode == null) return buildBalanced(sorted, from, to);
+    int split = lowerBound(sorted, from, to, cNode.data, comparator);
+    boolean present = split < to && compare(comparator, cNode.data, cast(sorted[split])) == 0;
+    Node < E > left = addSorted(cNode.left, sorted, from, split);
+    Node < E > right = addSorted(cNode.right, sorted, present ? split + 1 : split, to);
+    return joinInPlace(left, cNode, right);
+  }
+
+  private Node < E > removeSorted(Node < E > cNode, Object[] sorted, int from, int to) {
+    if (from >= to || cNode == null) return cNode;
+    int split = lowerBound(sorted, from, to, cNode.data, comparator);
+    boolean present = split < to && compare(comparator, cNode.data, cast(sorted[split])) == 0;
+    Node < E > left = removeSorted(cNode.left, sorted, from, split);
+    Node < E > right = removeSorted(cNode.right, sorted, present ? split + 1 : split, to);
+    if (!present) return joinInPlace(left, cNode, right);
+    if (left == null) return right;
+    Node < E > last = left;
+    while (last.right != null) {
+      last = last.right;
+    }
+    return joinInPlace(withoutLastInPlace(left), last, right);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static < E > E cast(Object o) {
+    return (E) o;
+  }
+
+  /**
+   * Sorts elements by the comparator, or by their natural order if it is null.
+   */
+  @SuppressWarnings("unchecked")
+  private static void sort(Object[] elements, Comparator < ? > comparator) {
+    Arrays.sort(elements, (Comparator < Object > ) comparator);
+  }
+
+  private Node < E > withoutLastInPlace(Node < E > cNode) {
+    if (cNode.right == null) return cNode.left;
+    return joinInPlace(cNode.left, cNode, withoutLastInPlace(cNode.right));
+  }
+
+  /**
+   * Makes middle the parent of left and right and rebalances the result, reusing the nodes instead of copying them as join does.
+   * Every element of left must be less than middle's, and every element of right greater.
+   */
+  private Node < E > joinInPlace(Node < E > left, Node < E > middle, Node < E > right) {
+    if (getHeight(left) > getHeight(right) + 1) return joinRightInPlace(left, middle, right);
+    if (getHeight(right) > getHeight(left) + 1) return joinLeftInPlace(left, middle, right);
+    middle.left = left;
+    middle.right = right;
+    updateNode(middle);
+    return middle;
+  }
+
+  private Node < E > joinRightInPlace(Node < E > left, Node < E > middle, Node < E > right) {
+    Node < E > spine = left.right;
+    if (getHeight(spine) <= getHeight(right) + 1) {
+      middle.left = spine;
+      middle.right = right;
+      updateNode(middle);
+      if (getHeight(middle) <= getHeight(left.left) + 1) {
+        left.right = middle;
+        updateNode(left);
+        return left;
+      }
+      left.right = rotateRight(middle);
+      updateNode(left);
+      return rotateLeft(left);
+    }
+    Node < E > joined = joinRightInPlace(spine, middle, right);
+    left.right = joined;
+    updateNode(left);
+    return (getHeight(joined) <= getHeight(left.left) + 1) ? left : rotateLeft(left);
+  }
+
+  private Node < E > joinLeftInPlace(Node < E > left, Node < E > middle, Node < E > right) {
+    Node < E > spine = right.left;
+    if (getHeight(spine) <= getHeight(left) + 1) {
+      middle.left = left;
+      middle.right = spine;
+      updateNode(middle);
+      if (getHeight(middle) <= getHeight(right.right) + 1) {
+        right.left = middle;
+        updateNode(right);
+        return right;
+      }
+      right.left = rotateLeft(middle);
+      updateNode(right);
+      return rotateRight(right);
+    }
+    Node < E > joined = joinLeftInPlace(left, middle, spine);
+    right.left = joined;
+    updateNode(right);
+    return (getHeight(joined) <= getHeight(right.right) + 1) ? right : rotateRight(right);
+  }
+
+  private void updateNode(Node < E > cNode) {
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    cNode.size = 1 + getSize(cNode.left) + getSize(cNode.right);
+  }
+
+  public boolean containsHelper(Object o, Node < E > cNode) {
+    if (cNode == null) return false;
+
+    if (!cNode.data.getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+
+    // The type is checked once above, then the search follows the ordering down a single path, in a loop written for that ordering.
+    @SuppressWarnings("unchecked")
+    E e = (E) o;
+    if (comparator == null) {
+      while (cNode != null) {
+        int compareVal = e.compareTo(cNode.data);
+        if (compareVal < 0) {
+          cNode = cNode.left;
+        } else if (compareVal > 0) {
+          cNode = cNode.right;
+        } else {
+          return true;
+        }
+      }
+      return false;
+    }
+    Comparator < ? super E > comparator = this.comparator;
+    while (cNode != null) {
+      int compareVal = comparator.compare(e, cNode.data);
+      if (compareVal < 0) {
+        cNode = cNode.left;
+      } else if (compareVal > 0) {
+        cNode = cNode.right;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the tree contains the specified element.
+   *
+   * @param o Object to be checked for containment in the tree.
+   * @return true if the tree contains the specified element.
+   * @throws ClassCastException if the specified object cannot be compared with the elements in the tree.
+   * @throws NullPointerException if the specified element is null.
+   */
+  public boolean contains(Object o) {
+    Node < E > cNode = head;
+    if (o == null) throw new NullPointerException("Specified element cannot be null.");
+    return containsHelper(o, cNode);
+  }
+
+  /**
+   * Checks if the tree contains all elements from the specified collection.
+   * The probes are sorted (unless the collection is already a naturally ordered SortedSet) and then
+   * looked up in a single merged descent, so each tree node is compared against at most one run of probes.
+   *
+   * @param c Collection to be checked for containment in the tree.
+   * @return true if the tree contains all elements in the specified collection.
+   * @throws ClassCastException if an element of the collection cannot be compared with the elements in the tree.
+   * @throws NullPointerException if the specified collection contains null elements or if the specified collection is null.
+   */
+  public boolean containsAll(Collection < ? > c) {
+    if (c == null) throw new NullPointerException("Specified collection cannot be null.");
+    if (c.isEmpty()) return true;
+    Object[] probes = c.toArray();
+    for (Object o: probes) {
+      if (o == null) throw new NullPointerException("Specified collection cannot contain null elements.");
+      if (head != null && !head.data.getClass().isInstance(o)) {
+        throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+      }
+    }
+    if (head == null) return false;
+    if (!(c instanceof SortedSet && Objects.equals(((SortedSet < ? > ) c).comparator(), comparator))) {
+      sort(probes, comparator);
+    }
+    return containsAllHelper(head, probes, 0, probes.length);
+  }
+
+  /**
+   * Checks that every probe in probes[from, to) is found in the subtree rooted at cNode.
+   * The probes must be sorted in ascending order.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean containsAllHelper(Node < E > cNode, Object[] probes, int from, int to) {
+    if (from >= to) return true;
+    if (cNode == null) return false;
+
+    // Binary search for the first probe that is not less than the current node.
+    int low = from, high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compare(comparator, (E) probes[mid], cNode.data) < 0) low = mid + 1;
+      else high = mid;
+    }
+    if (!containsAllHelper(cNode.left, probes, from, low)) return false;
+
+    // Skip the probes that match the current node (the collection may hold duplicates).
+    while (low < to && compare(comparator, (E) probes[low], cNode.data) == 0) low++;
+    return containsAllHelper(cNode.right, probes, low, to);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return head == null;
+  }
+
+  public int height() {
+    return getHeight();
+  }
+
+  /**
+   * Returns the element at the specified position in ascending order, using the subtree sizes to descend in O(log n).
+   *
+   * @param index Index of the element to return.
+   * @return the element at the specified position in the tree.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  public E get(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException(String.format("%s%d%s%d", "The specified index should be between ", 0, " and ", size - 1));
+    Node < E > cNode = head;
+    while (true) {
+      int leftSize = getSize(cNode.left);
+      if (index < leftSize) {
+        cNode = cNode.left;
+      } else if (index > leftSize) {
+        index -= leftSize + 1;
+        cNode = cNode.right;
+      } else {
+        return cNode.data;
+      }
+    }
+  }
+
+  /**
+   * Counts the elements below (or up to, if inclusive) the given element in a single root-to-leaf descent.
+   */
+  private int rankHelper(E e, boolean inclusive) {
+    int rank = 0;
+    Node < E > cNode = head;
+    while (cNode != null) {
+      int compareVal = compare(comparator, e, cNode.data);
+      if (compareVal < 0 || (compareVal == 0 && !inclusive)) {
+        cNode = cNode.left;
+      } else {
+        rank += getSize(cNode.left) + 1;
+        if (compareVal == 0) break;
+        cNode = cNode.right;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Returns the number of elements in the tree strictly less than the given element.
+   *
+   * @param e The value to match.
+   * @return the number of elements less than e, which is also the index e has or would have in the tree.
+   * @throws NullPointerException if the specified element is null.
+   */
+  public int rank(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    return rankHelper(e, false);
+  }
+
+  /**
+   * Returns the number of elements ranging from fromElement to toElement in O(log n).
+   *
+   * @param fromElement Low endpoint (inclusive) of the range.
+   * @param toElement   High endpoint (inclusive) of the range.
+   * @return the number of elements e in the tree with fromElement <= e <= toElement.
+   * @throws NullPointerException     if fromElement or toElement is null.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public int countInRange(E fromElement, E toElement) {
+    if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+
+    if (compare(comparator, fromElement, toElement) > 0) throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+
+    return rankHelper(toElement, true) - rankHelper(fromElement, false);
+  }
+
+  /**
+   * Returns the number of elements between fromElement and toElement in O(log n). A null endpoint leaves that end of the range open.
+   *
+   * @param fromElement   Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toElement     High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @return the number of elements in the range.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public int countInRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+    if (fromElement != null && toElement != null && compare(comparator, fromElement, toElement) > 0) {
+      throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+    }
+    int upTo = (toElement == null) ? size : rankHelper(toElement, toInclusive);
+    int below = (fromElement == null) ? 0 : rankHelper(fromElement, !fromInclusive);
+    return Math.max(0, upTo - below); // An endpoint excluded from both ends would otherwise count as -1.
+  }
+
+  /**
+   * Checks the probe once before a navigation loop runs: it must not be null, and must be comparable with the elements in the tree.
+   */
+  private void checkProbe(E e, Node < E > cNode) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    if (cNode != null && !cNode.data.getClass().isInstance(e)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+  }
+
+  // The navigation loops make one comparison per level. Each branches on the comparator, so the comparison for either ordering
+  // is a call site of its own and stays monomorphic.
+  private E ceilingHelper(E e, Node < E > cNode) {
+    checkProbe(e, cNode);
+    Comparator < ? super E > comparator = this.comparator;
+    Node < E > ceil = null;
+    while (cNode != null) {
+      int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+      if (compareVal == 0) return cNode.data;
+      if (compareVal < 0) {
+        ceil = cNode; // Candidate; a smaller one may still be in the left subtree.
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return (ceil == null) ? null : ceil.data;
+  }
+
+  public E ceiling(E e) {
+    Node < E > cNode = head;
+    return ceilingHelper(e, cNode);
+  }
+
+  private E floorHelper(E e, Node < E > cNode) {
+    checkProbe(e, cNode);
+    Comparator < ? super E > comparator = this.comparator;
+    Node < E > floor = null;
+    while (cNode != null) {
+      int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+      if (compareVal == 0) return cNode.data;
+      if (compareVal > 0) {
+        floor = cNode; // Candidate; a greater one may still be in the right subtree.
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return (floor == null) ? null : floor.data;
+  }
+
+  public E floor(E e) {
+    Node < E > cNode = head;
+    return floorHelper(e, cNode);
+  }
+
+  public E first() {
+    if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+    Node < E > cNode = head;
+    while (cNode.left != null) cNode = cNode.left;
+    return cNode.data;
+  }
+
+  public E last() {
+    if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+    Node < E > cNode = head;
+    while (cNode.right != null) cNode = cNode.right;
+    return cNode.data;
+  }
+
+  private E lowerHelper(E e, Node < E > cNode) {
+    checkProbe(e, cNode);
+    Comparator < ? super E > comparator = this.comparator;
+    Node < E > lower = null;
+    while (cNode != null) {
+      int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+      if (compareVal > 0) {
+        lower = cNode;
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return (lower == null) ? null : lower.data;
+  }
+
+  public E lower(E e) {
+    Node < E > cNode = head;
+    return lowerHelper(e, cNode);
+  }
+
+  private E higherHelper(E e, Node < E > cNode) {
+    checkProbe(e, cNode);
+    Comparator < ? super E > comparator = this.comparator;
+    Node < E > higher = null;
+    while (cNode != null) {
+      int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+      if (compareVal < 0) {
+        higher = cNode;
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return (higher == null) ? null : higher.data;
+  }
+
+  public E higher(E e) {
+    Node < E > cNode = head;
+    return higherHelper(e, cNode);
+  }
+
+  /**
+   * Returns the ceiling of every probe in a single merged descent, instead of one descent per probe. Each node splits the probes
+   * around its element and hands each side to its subtree, so subtrees no probe reaches are never visited, and k probes cost
+   * O(k log(n/k + 1)) comparisons.
+   *
+   * @param sortedProbes Probes in ascending order; duplicates are allowed.
+   * @return a list holding, at each probe's index, the least element greater than or equal to it, or null if there is none.
+   * @throws NullPointerException     if the list or any probe is null.
+   * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+   * @throws IllegalArgumentException if the probes are not in ascending order.
+   */
+  public ArrayList < E > ceilingAll(List < ? extends E > sortedProbes) {
+    return navigateAll(sortedProbes, true, true);
+  }
+
+  /**
+   * Returns the floor of every probe in a single merged descent, as ceilingAll does.
+   *
+   * @param sortedProbes Probes in ascending order; duplicates are allowed.
+   * @return a list holding, at each probe's index, the greatest element less than or equal to it, or null if there is none.
+   * @throws NullPointerException     if the list or any probe is null.
+   * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+   * @throws IllegalArgumentException if the probes are not in ascending order.
+   */
+  public ArrayList < E > floorAll(List < ? extends E > sortedProbes) {
+    return navigateAll(sortedProbes, false, true);
+  }
+
+  /**
+   * Returns the next higher element for every probe in a single merged descent, as ceilingAll does.
+   *
+   * @param sortedProbes Probes in ascending order; duplicates are allowed.
+   * @return a list holding, at each probe's index, the least element strictly greater than it, or null if there is none.
+   * @throws NullPointerException     if the list or any probe is null.
+   * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+   * @throws IllegalArgumentException if the probes are not in ascending order.
+   */
+  public ArrayList < E > higherAll(List < ? extends E > sortedProbes) {
+    return navigateAll(sortedProbes, true, false);
+  }
+
+  /**
+   * Returns the next lower element for every probe in a single merged descent, as ceilingAll does.
+   *
+   * @param sortedProbes Probes in ascending order; duplicates are allowed.
+   * @return a list holding, at each probe's index, the greatest element strictly less than it, or null if there is none.
+   * @throws NullPointerException     if the list or any probe is null.
+   * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+   * @throws IllegalArgumentException if the probes are not in ascending order.
+   */
+  public ArrayList < E > lowerAll(List < ? extends E > sortedProbes) {
+    return navigateAll(sortedProbes, false, false);
+  }
+
+  /**
+   * Answers ceiling (upward and inclusive), higher, floor or lower for every probe. The probes are checked once up front,
+   * so the walk itself runs without type checks.
+   */
+  private ArrayList < E > navigateAll(List < ? extends E > sortedProbes, boolean upward, boolean inclusive) {
+    if (sortedProbes == null) throw new NullPointerException("This function's argument does not accept null.");
+    Object[] probes = sortedProbes.toArray();
+    E previous = null;
+    for (Object o: probes) {
+      E probe = cast(o);
+      checkProbe(probe, head);
+      if (previous != null && compare(comparator, previous, probe) > 0) {
+        throw new IllegalArgumentException("The probes should be in ascending order.");
+      }
+      previous = probe;
+    }
+    Object[] answers = new Object[probes.length];
+    navigateAllHelper(head, probes, 0, probes.length, null, upward, inclusive, answers);
+    ArrayList < E > result = new ArrayList < > (answers.length);
+    for (Object answer: answers) {
+      result.add(cast(answer));
+    }
+    return result;
+  }
+
+  private E navigateOne(E e, Node < E > cNode, boolean upward, boolean inclusive) {
+    if (upward) return inclusive ? ceilingHelper(e, cNode) : higherHelper(e, cNode);
+    return inclusive ? floorHelper(e, cNode) : lowerHelper(e, cNode);
+  }
+
+  /**
+   * Answers the probes in probes[from, to), which all lead into the subtree rooted at cNode. The candidate is the nearest element
+   * on the answering side of them met on the way down, and becomes their answer if the subtree is empty.
+   */
+  private void navigateAllHelper(Node < E > cNode, Object[] probes, int from, int to, E candidate, boolean upward, boolean inclusive, Object[] answers) {
+    if (from >= to) return;
+    if (cNode == null) {
+      Arrays.fill(answers, from, to, candidate);
+      return;
+    }
+    if (to - from == 1) { // A lone probe finishes with a plain descent.
+      E found = navigateOne(cast(probes[from]), cNode, upward, inclusive);
+      answers[from] = (found != null) ? found : candidate;
+      return;
+    }
+    int below = lowerBound(probes, from, to, cNode.data, comparator); // probes[from, below) are less than the node's element.
+    int equalEnd = below; // probes[below, equalEnd) are equal to it.
+    while (equalEnd < to && compare(comparator, cast(probes[equalEnd]), cNode.data) == 0) equalEnd++;
+    int leftEnd, rightStart;
+    if (inclusive) {
+      Arrays.fill(answers, below, equalEnd, cNode.data);
+      leftEnd = below;
+      rightStart = equalEnd;
+    } else {
+      // A probe equal to the element looks past it: for higher into the right subtree, for lower into the left one.
+      leftEnd = rightStart = upward ? below : equalEnd;
+    }
+    navigateAllHelper(cNode.left, probes, from, leftEnd, upward ? cNode.data : candidate, upward, inclusive, answers);
+    navigateAllHelper(cNode.right, probes, rightStart, to, upward ? candidate : cNode.data, upward, inclusive, answers);
+  }
+
+  /**
+   * Returned by the bounded reads below when they give up.
+   */
+  static final Object GAVE_UP = new Object();
+
+  // An AVL tree of 2^31 - 1 elements is at most 45 levels deep, so no valid descent takes this many steps.
+  private static final int MAX_DESCENT = 64;
+
+  // Bounded counterparts of the read methods, for ReadMostlyAVL, whose optimistic readers run without a lock and can catch a
+  // rotation halfway. A child link may then point back at a node above it, and an unbounded loop would cycle forever. These
+  // reads return GAVE_UP once they take more steps than the tree could need, and the caller retries under its read lock.
+  // Any other result may still be wrong, so the caller must also validate it.
+
+  Object boundedContains(Object o) {
+    if (o == null) throw new NullPointerException("Specified element cannot be null.");
+    Node < E > cNode = head;
+    if (cNode != null && !cNode.data.getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+    E e = cast(o);
+    for (int steps = 0; cNode != null; steps++) {
+      if (steps == MAX_DESCENT) return GAVE_UP;
+      int compareVal = compare(comparator, e, cNode.data);
+      if (compareVal == 0) return true;
+      cNode = (compareVal < 0) ? cNode.left : cNode.right;
+    }
+    return false;
+  }
+
+  /**
+   * Bounded ceiling (upward and inclusive), higher, floor or lower.
+   */
+  Object boundedNavigate(E e, boolean upward, boolean inclusive) {
+    Node < E > cNode = head;
+    checkProbe(e, cNode);
+    E found = null;
+    for (int steps = 0; cNode != null; steps++) {
+      if (steps == MAX_DESCENT) return GAVE_UP;
+      int compareVal = compare(comparator, e, cNode.data);
+      if (compareVal == 0 && inclusive) return cNode.data;
+      if (compareVal < 0 || (compareVal == 0 && !upward)) {
+        if (upward) found = cNode.data;
+        cNode = cNode.left;
+      } else {
+        if (!upward) found = cNode.data;
+        cNode = cNode.right;
+      }
+    }
+    return found;
+  }
+
+  Object boundedEdge(boolean last) {
+    Node < E > cNode = head;
+    if (cNode == null) throw new NoSuchElementException("The tree is currently empty.");
+    for (int steps = 0;; steps++) {
+      Node < E > next = last ? cNode.right : cNode.left;
+      if (next == null) return cNode.data;
+      if (steps == MAX_DESCENT) return GAVE_UP;
+      cNode = next;
+    }
+  }
+
+  Object boundedGet(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException(String.format("%s%d%s%d", "The specified index should be between ", 0, " and ", size - 1));
+    Node < E > cNode = head;
+    for (int steps = 0;; steps++) {
+      if (steps == MAX_DESCENT) return GAVE_UP;
+      int leftSize = getSize(cNode.left);
+      if (index < leftSize) {
+        cNode = cNode.left;
+      } else if (index > leftSize) {
+        index -= leftSize + 1;
+        cNode = cNode.right;
+      } else {
+        return cNode.data;
+      }
+    }
+  }
+
+  Object boundedRank(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    int rank = 0;
+    Node < E > cNode = head;
+    for (int steps = 0; cNode != null; steps++) {
+      if (steps == MAX_DESCENT) return GAVE_UP;
+      int compareVal = compare(comparator, e, cNode.data);
+      if (compareVal <= 0) {
+        cNode = cNode.left;
+      } else {
+        rank += getSize(cNode.left) + 1;
+        cNode = cNode.right;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Bounded getRange. A valid walk visits the elements of the range and at most two paths beside them, each node being pushed
+   * and popped once, so it takes fewer than 2 * (size + 2 * MAX_DESCENT) steps.
+   */
+  Object boundedRange(E fromElement, E toElement) {
+    if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+    if (compare(comparator, fromElement, toElement) > 0) throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+    ArrayList < E > result = new ArrayList < > ();
+    ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+    long budget = 2L * (size + 2 * MAX_DESCENT);
+    Node < E > cNode = head;
+    while (cNode != null || !stack.isEmpty()) {
+      if (--budget < 0) return GAVE_UP;
+      if (cNode != null) {
+        if (compare(comparator, cNode.data, fromElement) < 0) {
+          cNode = cNode.right; // The node and its left subtree are below the range.
+        } else {
+          stack.push(cNode);
+          cNode = cNode.left;
+        }
+      } else {
+        cNode = stack.pop();
+        if (compare(comparator, cNode.data, toElement) > 0) break;
+        result.add(cNode.data);
+        cNode = cNode.right;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes and returns the lowest element, or returns null if the tree is empty.
+   *
+   * @return the lowest element, or null if the tree is empty.
+   */
+  public E pollFirst() {
+    if (head == null) return null;
+    E e = first();
+    remove(e);
+    return e;
+  }
+
+  /**
+   * Removes and returns the highest element, or returns null if the tree is empty.
+   *
+   * @return the highest element, or null if the tree is empty.
+   */
+  public E pollLast() {
+    if (head == null) return null;
+    E e = last();
+    remove(e);
+    return e;
+  }
+
+  /**
+   * Returns the comparator that orders the tree, or null if the elements are kept in their natural order.
+   *
+   * @return the comparator, or null.
+   */
+  public Comparator < ? super E > comparator() {
+    return comparator;
+  }
+
+  /**
+   * Returns a live view of the elements in descending order. Changes to the tree show in the view, and the other way round.
+   *
+   * @return a descending view of the tree.
+   */
+  public NavigableSet < E > descendingSet() {
+    return new TreeSubSet < > (this, null, false, null, false, true);
+  }
+
+  public Iterator < E > descendingIterator() {
+    return new TreeSubSet.RangeIterator < > (this, null, false, null, false, true);
+  }
+
+  /**
+   * Returns a live view of the elements ranging from fromElement to toElement, created in O(1).
+   * Changes to the tree show in the view and the other way round; adding an element outside the range through the view is refused.
+   *
+   * @param fromElement   Low endpoint of the view.
+   * @param fromInclusive true if the low endpoint is part of the view.
+   * @param toElement     High endpoint of the view.
+   * @param toInclusive   true if the high endpoint is part of the view.
+   * @return a view of the part of the tree from fromElement to toElement.
+   * @throws NullPointerException     if fromElement or toElement is null.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public NavigableSet < E > subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+    if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+    return new TreeSubSet < > (this, fromElement, fromInclusive, toElement, toInclusive, false);
+  }
+
+  /**
+   * Returns a live view of the elements less than (or equal to, if inclusive) toElement, created in O(1).
+   *
+   * @param toElement High endpoint of the view.
+   * @param inclusive true if the high endpoint is part of the view.
+   * @return a view of the part of the tree below toElement.
+   * @throws NullPointerException if toElement is null.
+   */
+  public NavigableSet < E > headSet(E toElement, boolean inclusive) {
+    if (toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+    return new TreeSubSet < > (this, null, false, toElement, inclusive, false);
+  }
+
+  /**
+   * Returns a live view of the elements greater than (or equal to, if inclusive) fromElement, created in O(1).
+   *
+   * @param fromElement Low endpoint of the view.
+   * @param inclusive   true if the low endpoint is part of the view.
+   * @return a view of the part of the tree above fromElement.
+   * @throws NullPointerException if fromElement is null.
+   */
+  public NavigableSet < E > tailSet(E fromElement, boolean inclusive) {
+    if (fromElement == null) throw new NullPointerException("This function's argument does not accept null.");
+    return new TreeSubSet < > (this, fromElement, inclusive, null, false, false);
+  }
+
+  public SortedSet < E > subSet(E fromElement, E toElement) {
+    return subSet(fromElement, true, toElement, false);
+  }
+
+  public SortedSet < E > headSet(E toElement) {
+    return headSet(toElement, false);
+  }
+
+  public SortedSet < E > tailSet(E fromElement) {
+    return tailSet(fromElement, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public boolean equals(Object obj) {
+    if (this.getClass().isInstance(obj) && Objects.equals(((AVL < E > ) obj).comparator, comparator)) {
+      AVL < E > compareTree = (AVL < E > ) obj;
+      if (compareTree.size() == this.size()) {
+        //Traverse the tree using for loop and use the get method to check if each element is equal with the compareTo method.
+        Iterator < E > it1 = iterator();
+        Iterator < E > it2 = compareTree.iterator();
+        while (it1.hasNext()) {
+          if (compare(comparator, it1.next(), it2.next()) != 0) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return super.equals(obj); // Any other set is equal if it holds the same elements.
+  }
+
+  @Override
+  public String toString() {
+    Iterator < E > it = iterator();
+    StringBuilder sb = new StringBuilder("[");
+    if (size() == 0) return "[]";
+    while (it.hasNext()) {
+      sb.append(String.valueOf(it.next() + ", "));
+    }
+    sb.delete(sb.length() - 2, sb.length());
+    sb.append("]");
+
+    return sb.toString();
+  }
+
+  public Object[] toArray() {
+    Object[] o = new Object[size()];
+    int i = 0;
+    for (E e: this) {
+      o[i++] = e;
+    }
+    return o;
+  }
+
+
+    // Method to get a string representation of the tree in tree format
+    public String toStringTreeFormat() {
+      StringBuilder sb = new StringBuilder();
+      toStringTreeFormat(head, 0, sb);
+      return sb.toString();
+    }
+
+    public void toStringTreeFormat(Node < E > currentNode, int currentDepth, StringBuilder resultBuilder) {
+      for (int i = 0; i < currentDepth; i++) {
+        resultBuilder.append("|  ");
+      }
+
+      if (currentNode == null) {
+        resultBuilder.append("-null\n");
+        return;
+      }
+
+      resultBuilder.append("-").append(currentNode.data).append("\n");
+
+      toStringTreeFormat(currentNode.left, currentDepth + 1, resultBuilder);
+      toStringTreeFormat(currentNode.right, currentDepth + 1, resultBuilder);
+    }
+
+  static int getHeight(Node < ? > cNode) {
+    return (cNode == null) ? 0 : cNode.height;
+  }
+
+  static int getSize(Node < ? > cNode) {
+    return (cNode == null) ? 0 : cNode.size;
+  }
+
+  int getBalance(Node < E > cNode) {
+    return (cNode == null) ? 0 : getHeight(cNode.left) - getHeight(cNode.right);
+  }
+
+  private Node < E > rotateRight(Node < E > node2) {
+    Node < E > node1 = node2.left;
+    Node < E > nodeT2 = node1.right;
+
+    node1.right = node2;
+    node2.left = nodeT2;
+
+    node2.height = 1 + Math.max(getHeight(node2.left), getHeight(node2.right));
+    node1.height = 1 + Math.max(getHeight(node1.left), getHeight(node1.right));
+    node2.size = 1 + getSize(node2.left) + getSize(node2.right);
+    node1.size = 1 + getSize(node1.left) + getSize(node1.right);
+
+    return node1;
+  }
+
+  private Node < E > rotateLeft(Node < E > node1) {
+    Node < E > node2 = node1.right;
+    Node < E > nodeT2 = node2.left;
+
+    node2.left = node1;
+    node1.right = nodeT2;
+
+    node1.height = 1 + Math.max(getHeight(node1.left), getHeight(node1.right));
+    node2.height = 1 + Math.max(getHeight(node2.left), getHeight(node2.right));
+    node1.size = 1 + getSize(node1.left) + getSize(node1.right);
+    node2.size = 1 + getSize(node2.left) + getSize(node2.right);
+
+    return node2;
+  }
+
+  private Node < E > rotateRightLeft(Node < E > node3) {
+    node3.right = rotateRight(node3.right);
+    return rotateLeft(node3);
+  }
+
+  private Node < E > rotateLeftRight(Node < E > node3) {
+    node3.left = rotateLeft(node3.left);
+    return rotateRight(node3);
+  }
+  
+  /**
+   * Returns a collection whose elements range from fromElement to toElement.
+   *
+   * @param fromElement Low endpoint (inclusive) of the returned collection.
+   * @param toElement   High endpoint (inclusive) of the returned collection.
+   * @return a collection containing a portion of this tree whose elements range from fromElement to toElement.
+   * @throws NullPointerException     if fromElement or toElement is null.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public ArrayList < E > getRange(E fromElement, E toElement) {
+    if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+
+    if (compare(comparator, fromElement, toElement) > 0) throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+
+    ArrayList < E > result = new ArrayList < > ();
+    getRangeHelper(head, fromElement, toElement, result);
+    return result;
+  }
+
+  /**
+   * Opens a cursor over the elements from fromElement to toElement, in ascending order. Unlike getRange it builds no list:
+   * the elements are found one at a time as next() is called, and the cursor can be reset and reused for later scans.
+   * A null endpoint leaves that end of the range open.
+   *
+   * @param fromElement   Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toElement     High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @return a cursor positioned before the first element of the range.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public RangeCursor < E > openRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+    return openRange(fromElement, fromInclusive, toElement, toInclusive, false);
+  }
+
+  /**
+   * Opens a cursor over the elements from fromElement to toElement, in ascending or, if descending is true, descending order.
+   *
+   * @param fromElement   Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toElement     High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @param descending    true to walk the range from its high end down.
+   * @return a cursor positioned before the first element of the range in the chosen order.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public RangeCursor < E > openRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive, boolean descending) {
+    TreeCursor cursor = new TreeCursor(descending);
+    cursor.reset(fromElement, fromInclusive, toElement, toInclusive);
+    return cursor;
+  }
+  
+  
+  
+  private void getRangeHelper(Node < E > node, E fromElement, E toElement, ArrayList < E > result) {
+    if (node != null) {
+      int compareFrom = compare(comparator, fromElement, node.data);
+      int compareTo = compare(comparator, toElement, node.data);
+
+      // Traverse left subtree if needed
+      if (compareFrom < 0) {
+        getRangeHelper(node.left, fromElement, toElement, result);
+      }
+
+      // Add the current node's data if it's within the range
+      if (compareFrom <= 0 && compareTo >= 0) {
+        result.add(node.data);
+      }
+
+      // Traverse right subtree if needed
+      if (compareTo > 0) {
+        getRangeHelper(node.right, fromElement, toElement, result);
+      }
+    }
+  }
+
+  /**
+   * Returns a new tree holding every element that is in a or in b. Where both hold an equal element, the one from a is kept.
+   * The trees are combined by splitting and joining subtrees, in O(m log(n/m + 1)) time for trees of m and n elements with
+   * m no larger than n, so a small tree is merged into a large one without visiting most of it; above a size threshold the two
+   * halves of each step run in parallel on the common ForkJoinPool.
+   * Neither argument is changed. The result shares unchanged subtrees with them, so the first later change to any of the
+   * three trees copies all of its nodes first, in O(n). To keep changing the merged tree afterwards, use absorb, which merges
+   * in place and leaves nothing to copy.
+   *
+   * @param a The first tree.
+   * @param b The second tree.
+   * @return a new tree holding the union of both trees.
+   * @throws NullPointerException     if either tree is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way.
+   */
+  public static < E extends Comparable < E >> AVL < E > union(AVL < E > a, AVL < E > b) {
+    Comparator < ? super E > comparator = commonOrder(a, b);
+    AVL < E > result = withRoot(run(SetOperation.UNION, a.head, b.head, comparator), comparator);
+    result.pinShared();
+    a.pinShared();
+    b.pinShared();
+    return result;
+  }
+
+  /**
+   * Returns a new tree holding the elements of a that are also in b, in O(m log(n/m + 1)) time, in parallel above a size
+   * threshold. The elements are taken from a. Neither argument is changed, and the result shares no nodes with them.
+   *
+   * @param a The first tree.
+   * @param b The second tree.
+   * @return a new tree holding the intersection of both trees.
+   * @throws NullPointerException     if either tree is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way.
+   */
+  public static < E extends Comparable < E >> AVL < E > intersection(AVL < E > a, AVL < E > b) {
+    Comparator < ? super E > comparator = commonOrder(a, b);
+    return withRoot(run(SetOperation.INTERSECTION, a.head, b.head, comparator), comparator);
+  }
+
+  /**
+   * Returns a new tree holding the elements of a that are not in b, in O(m log(n/m + 1)) time, in parallel above a size threshold.
+   * Neither argument is changed. The result shares unchanged subtrees with a, so the first later change to either of them
+   * copies all of its nodes first, in O(n). subtract removes the elements in place and leaves nothing to copy.
+   *
+   * @param a The tree whose elements are kept.
+   * @param b The tree whose elements are taken away.
+   * @return a new tree holding the elements of a that are not in b.
+   * @throws NullPointerException     if either tree is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way.
+   */
+  public static < E extends Comparable < E >> AVL < E > difference(AVL < E > a, AVL < E > b) {
+    Comparator < ? super E > comparator = commonOrder(a, b);
+    AVL < E > result = withRoot(run(SetOperation.DIFFERENCE, a.head, b.head, comparator), comparator);
+    result.pinShared();
+    a.pinShared();
+    return result;
+  }
+
+  /**
+   * Splits the tree around the specified key in O(log n) time. The first tree returned holds the elements less than the key,
+   * the second the elements greater than it; the key itself, if present, is in neither.
+   * This tree is not changed. Both halves share subtrees with it, so the first later change to any of the three trees copies
+   * all of its nodes first, in O(n). splitOff splits this tree in place and leaves nothing to copy.
+   *
+   * @param key The key to split around.
+   * @return an array holding the lower and the upper half, in that order.
+   * @throws NullPointerException if the specified key is null.
+   */
+  @SuppressWarnings("unchecked")
+  public AVL < E > [] split(E key) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    Split < E > parts = split(head, key, comparator);
+    AVL < E > [] halves = (AVL < E > []) new AVL < ? > [2];
+    halves[0] = withRoot(parts.left, comparator);
+    halves[1] = withRoot(parts.right, comparator);
+    halves[0].pinShared();
+    halves[1].pinShared();
+    pinShared();
+    return halves;
+  }
+
+  /**
+   * Returns a new tree holding the elements of left, the key and the elements of right, in O(|h(left) - h(right)| + 1) time.
+   * Every element of left must be less than the key and every element of right greater than it.
+   * Neither argument is changed. The result shares their nodes, so the first later change to any of the three trees copies
+   * all of its nodes first, in O(n). append joins in place and leaves nothing to copy.
+   *
+   * @param left  The tree of elements less than the key.
+   * @param key   The element between the two trees.
+   * @param right The tree of elements greater than the key.
+   * @return a new tree holding the elements of both trees and the key.
+   * @throws NullPointerException     if either tree or the key is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way, or if an element of left is not less than the key,
+   *                                  or an element of right is not greater than it.
+   */
+  public static < E extends Comparable < E >> AVL < E > join(AVL < E > left, E key, AVL < E > right) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    Comparator < ? super E > comparator = commonOrder(left, right);
+    if ((left.head != null && compare(comparator, left.last(), key) >= 0) || (right.head != null && compare(comparator, key, right.first()) >= 0)) {
+      throw new IllegalArgumentException("The elements of the left tree must be less than the key, and those of the right tree greater.");
+    }
+    AVL < E > result = withRoot(join(left.head, key, right.head), comparator);
+    result.pinShared();
+    left.pinShared();
+    right.pinShared();
+    return result;
+  }
+
+  /**
+   * Adds every element of the other tree to this one and leaves the other tree empty, in O(m log(n/m + 1)) time, in parallel
+   * above a size threshold. Where both hold an equal element, the one already in this tree is kept. Unlike union, this moves
+   * the other tree's nodes instead of sharing them, so neither tree has to copy its nodes when it is next changed.
+   *
+   * @param other The tree whose elements are moved into this one.
+   * @throws NullPointerException     if the other tree is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way.
+   */
+  public void absorb(AVL < E > other) {
+    commonOrder(this, other);
+    if (other == this) return;
+    Node < E > merged = run(SetOperation.UNION, head, other.head, comparator);
+    consume(other);
+    replaceRoot(merged);
+  }
+
+  /**
+   * Removes every element of the other tree from this one, in O(m log(n/m + 1)) time, in parallel above a size threshold.
+   * Unlike difference, this leaves no nodes shared, so neither tree has to copy its nodes when it is next changed.
+   * The other tree is not changed.
+   *
+   * @param other The tree whose elements are removed from this one.
+   * @throws NullPointerException     if the other tree is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way.
+   */
+  public void subtract(AVL < E > other) {
+    commonOrder(this, other);
+    replaceRoot(run(SetOperation.DIFFERENCE, head, other.head, comparator));
+  }
+
+  /**
+   * Splits this tree around the specified key in O(log n) time, keeping the elements less than the key and returning a new
+   * tree of the elements greater than it; the key itself, if present, is removed. Unlike split, the two trees share no nodes,
+   * so neither has to copy its nodes when it is next changed.
+   *
+   * @param key The key to split around.
+   * @return a new tree holding the elements greater than the key.
+   * @throws NullPointerException if the specified key is null.
+   */
+  public AVL < E > splitOff(E key) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    Split < E > parts = split(head, key, comparator);
+    AVL < E > upper = withRoot(parts.right, comparator);
+    if (sharing != null) upper.pinShared(); // The upper half still shares its nodes with this tree's clones.
+    replaceRoot(parts.left);
+    return upper;
+  }
+
+  /**
+   * Appends the key and the elements of the right tree to this tree, in O(|h(this) - h(right)| + 1) time, and leaves the right
+   * tree empty. Every element of this tree must be less than the key and every element of right greater than it.
+   * Unlike join, this moves the right tree's nodes instead of sharing them, so neither tree has to copy its nodes when it is next changed.
+   *
+   * @param key   The element between the two trees.
+   * @param right The tree of elements greater than the key.
+   * @throws NullPointerException     if the key or the right tree is null.
+   * @throws IllegalArgumentException if the trees are not ordered the same way, if right is this tree, or if an element of this
+   *                                  tree is not less than the key, or an element of right is not greater than it.
+   */
+  public void append(E key, AVL < E > right) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    commonOrder(this, right);
+    if (right == this) throw new IllegalArgumentException("A tree cannot be joined with itself.");
+    if ((head != null && compare(comparator, last(), key) >= 0) || (right.head != null && compare(comparator, key, right.first()) >= 0)) {
+      throw new IllegalArgumentException("The elements of the left tree must be less than the key, and those of the right tree greater.");
+    }
+    Node < E > joined = join(head, key, right.head);
+    consume(right);
+    replaceRoot(joined);
+  }
+
+  /**
+   * Installs the root built by an in-place set operation. The operations never change a node, so if this tree still shares its
+   * nodes with clones, it keeps its place among their owners and copies the nodes before it is next modified, as before.
+   */
+  private void replaceRoot(Node < E > root) {
+    head = root;
+    size = getSize(root);
+    modCount++;
+  }
+
+  /**
+   * Empties a tree whose nodes an in-place set operation has moved into this one. If it was sharing them with clones, this tree
+   * now shares them instead: it takes the other tree's place among their owners by leaving the count as it is, and copies its
+   * own nodes before it is next modified.
+   */
+  private void consume(AVL < E > other) {
+    if (other.sharing != null) {
+      other.sharing = null;
+      pinShared();
+    }
+    other.head = null;
+    other.size = 0;
+    other.modCount++;
+  }
+
+  /**
+   * Returns the comparator two trees share, checking that a set operation on them is possible at all.
+   */
+  private static < E extends Comparable < E >> Comparator < ? super E > commonOrder(AVL < E > a, AVL < E > b) {
+    if (a == null || b == null) throw new NullPointerException("This function's argument does not accept null.");
+    if (!Objects.equals(a.comparator, b.comparator)) throw new IllegalArgumentException("Both trees must be ordered the same way.");
+    return a.comparator;
+  }
+
+  private static < E extends Comparable < E >> AVL < E > withRoot(Node < E > root, Comparator < ? super E > comparator) {
+    AVL < E > tree = new AVL < E > (comparator);
+    tree.head = root;
+    tree.size = getSize(root);
+    return tree;
+  }
+
+  /**
+   * Runs a set operation on the common ForkJoinPool when the trees are large enough to make splitting the work worthwhile.
+   */
+  private static < E extends Comparable < E >> Node < E > run(int operation, Node < E > a, Node < E > b, Comparator < ? super E > comparator) {
+    if (getSize(a) + getSize(b) < PARALLEL_THRESHOLD) return setOperation(operation, a, b, comparator);
+    return ForkJoinPool.commonPool().invoke(new SetOperation < > (operation, a, b, comparator));
+  }
+
+  /**
+   * Combines two subtrees by splitting b around the root of a, combining the lower and the upper halves independently and
+   * joining the results around the root of a, if the operation keeps it. Nodes are never changed, only created, so the
+   * inputs stay intact and the two halves can be combined on different threads.
+   */
+  private static < E extends Comparable < E >> Node < E > setOperation(int operation, Node < E > a, Node < E > b, Comparator < ? super E > comparator) {
+    if (a == null) return (operation == SetOperation.UNION) ? b : null;
+    if (b == null) return (operation == SetOperation.INTERSECTION) ? null : a;
+    Split < E > parts = split(b, a.data, comparator);
+    Node < E > left, right;
+    if (getSize(a) + getSize(b) >= PARALLEL_THRESHOLD && ForkJoinTask.inForkJoinPool()) {
+      SetOperation < E > lower = new SetOperation < > (operation, a.left, parts.left, comparator);
+      lower.fork();
+      right = setOperation(operation, a.right, parts.right, comparator);
+      left = lower.join();
+    } else {
+      left = setOperation(operation, a.left, parts.left, comparator);
+      right = setOperation(operation, a.right, parts.right, comparator);
+    }
+    boolean keep = (operation == SetOperation.UNION) || (parts.found == (operation == SetOperation.INTERSECTION));
+    return keep ? join(left, a.data, right) : join2(left, right);
+  }
+
+  private static final class SetOperation < E extends Comparable < E >> extends RecursiveTask < Node < E >> {
+    private static final long serialVersionUID = 1L;
+
+    static final int UNION = 0;
+    static final int INTERSECTION = 1;
+    static final int DIFFERENCE = 2;
+
+    private final int operation;
+    private final Node < E > a, b;
+    private final Comparator < ? super E > comparator;
+
+    SetOperation(int operation, Node < E > a, Node < E > b, Comparator < ? super E > comparator) {
+      this.operation = operation;
+      this.a = a;
+      this.b = b;
+      this.comparator = comparator;
+    }
+
+    @Override
+    protected Node < E > compute() {
+      return setOperation(operation, a, b, comparator);
+    }
+  }
+
+  /**
+   * The two halves of a subtree split around a key, and whether the key itself was found.
+   */
+  private static final class Split < E extends Comparable < E >> {
+    Node < E > left, right;
+    boolean found;
+  }
+
+  /**
+   * Splits a subtree around the key by joining the subtrees left on either side of the search path, in O(log n) time.
+   */
+  private static < E extends Comparable < E >> Split < E > split(Node < E > cNode, E key, Comparator < ? super E > comparator) {
+    if (cNode == null) return new Split < > ();
+    int compareVal = compare(comparator, key, cNode.data);
+    if (compareVal == 0) {
+      Split < E > parts = new Split < > ();
+      parts.left = cNode.left;
+      parts.right = cNode.right;
+      parts.found = true;
+      return parts;
+    }
+    if (compareVal < 0) {
+      Split < E > parts = split(cNode.left, key, comparator);
+      parts.right = join(parts.right, cNode.data, cNode.right);
+      return parts;
+    }
+    Split < E > parts = split(cNode.right, key, comparator);
+    parts.left = join(cNode.left, cNode.data, parts.left);
+    return parts;
+  }
+
+  /**
+   * Joins two subtrees and a key that lies between them into one balanced subtree. The shorter subtree is hung from the spine
+   * of the taller one at the point where their heights match, and the path back up is rebuilt with at most two rotations per level.
+   */
+  private static < E extends Comparable < E >> Node < E > join(Node < E > left, E key, Node < E > right) {
+    if (getHeight(left) > getHeight(right) + 1) return joinRight(left, key, right);
+    if (getHeight(right) > getHeight(left) + 1) return joinLeft(left, key, right);
+    return newNode(left, key, right);
+  }
+
+  private static < E extends Comparable < E >> Node < E > joinRight(Node < E > left, E key, Node < E > right) {
+    Node < E > spine = left.right;
+    if (getHeight(spine) <= getHeight(right) + 1) {
+      Node < E > joined = newNode(spine, key, right);
+      if (getHeight(joined) <= getHeight(left.left) + 1) return newNode(left.left, left.data, joined);
+      return rotatedLeft(newNode(left.left, left.data, rotatedRight(joined)));
+    }
+    Node < E > joined = joinRight(spine, key, right);
+    Node < E > cNode = newNode(left.left, left.data, joined);
+    return (getHeight(joined) <= getHeight(left.left) + 1) ? cNode : rotatedLeft(cNode);
+  }
+
+  private static < E extends Comparable < E >> Node < E > joinLeft(Node < E > left, E key, Node < E > right) {
+    Node < E > spine = right.left;
+    if (getHeight(spine) <= getHeight(left) + 1) {
+      Node < E > joined = newNode(left, key, spine);
+      if (getHeight(joined) <= getHeight(right.right) + 1) return newNode(joined, right.data, right.right);
+      return rotatedRight(newNode(rotatedLeft(joined), right.data, right.right));
+    }
+    Node < E > joined = joinLeft(left, key, spine);
+    Node < E > cNode = newNode(joined, right.data, right.right);
+    return (getHeight(joined) <= getHeight(right.right) + 1) ? cNode : rotatedRight(cNode);
+  }
+
+  /**
+   * Joins two subtrees with no key between them, by taking the largest element of the left one as the key.
+   */
+  private static < E extends Comparable < E >> Node < E > join2(Node < E > left, Node < E > right) {
+    if (left == null) return right;
+    if (right == null) return left;
+    Node < E > last = left;
+    while (last.right != null) {
+      last = last.right;
+    }
+    return join(withoutLast(left), last.data, right);
+  }
+
+  private static < E extends Comparable < E >> Node < E > withoutLast(Node < E > cNode) {
+    if (cNode.right == null) return cNode.left;
+    return join(cNode.left, cNode.data, withoutLast(cNode.right));
+  }
+
+  private static < E extends Comparable < E >> Node < E > newNode(Node < E > left, E data, Node < E > right) {
+    Node < E > cNode = new Node < > (data, left, right);
+    cNode.height = 1 + Math.max(getHeight(left), getHeight(right));
+    cNode.size = 1 + getSize(left) + getSize(right);
+    return cNode;
+  }
+
+  // Copying counterparts of rotateLeft and rotateRight, which leave the nodes they are given untouched.
+  private static < E extends Comparable < E >> Node < E > rotatedLeft(Node < E > cNode) {
+    Node < E > right = cNode.right;
+    return newNode(newNode(cNode.left, cNode.data, right.left), right.data, right.right);
+  }
+
+  private static < E extends Comparable < E >> Node < E > rotatedRight(Node < E > cNode) {
+    Node < E > left = cNode.left;
+    return newNode(left.left, left.data, newNode(left.right, cNode.data, cNode.right));
+  }
+
+}
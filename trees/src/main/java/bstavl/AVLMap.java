@@ -0,0 +1,1484 @@
+package bstavl;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * @author Elijah Philip
+ * This class is an AVL tree that maps keys to values, balanced by the same rotations as AVL.
+ * Each node holds its key and value itself, so nothing wraps the key and a lookup compares keys directly.
+ * put, putIfAbsent, computeIfAbsent, computeIfPresent, compute, merge and remove find the key, make the change and rebalance
+ * along one recorded root-to-leaf path, and openRange returns an EntryCursor whose entries can be updated in place.
+ * Null keys are not permitted; null values are.
+ */
+
+public class AVLMap < K extends Comparable < K > , V > extends AbstractMap < K, V > implements NavigableMap < K, V > {
+
+  private Node < K, V > head;
+  private int size;
+  private int modCount; // Number of structural modifications, used by the iterators and cursors to fail fast.
+  private Node < K, V > [] path; // Reusable buffer holding the root-to-node path of the update in progress.
+  private int lastCompare; // Result of the last key comparison made by descend; 0 if the key was found.
+
+  /**
+   * Constructs a new, empty map.
+   */
+  @SuppressWarnings("unchecked")
+  public AVLMap() {
+    path = (Node < K, V > []) new Node < ?, ? > [16];
+  }
+
+  /**
+   * Constructs a new map holding the mappings of the given map.
+   *
+   * @param map The mappings to copy.
+   * @throws NullPointerException if the map or any of its keys is null.
+   */
+  public AVLMap(Map < ? extends K, ? extends V > map) {
+    this();
+    putAll(map);
+  }
+
+  private static final class Node < K, V > implements Map.Entry < K, V > {
+    K key;
+    V value;
+    int height = 1;
+    int size = 1; // Number of nodes in the subtree rooted at this node, used to count ranges.
+    Node < K, V > left,
+    right;
+
+    Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V oldValue = this.value;
+      this.value = value;
+      return oldValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Map.Entry < ? , ? > e && Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(key) ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static < K > K cast(Object o) {
+    return (K) o;
+  }
+
+  private static < K, V > Map.Entry < K, V > export(Node < K, V > node) {
+    return (node == null) ? null : new AbstractMap.SimpleImmutableEntry < > (node.key, node.value);
+  }
+
+  private static int getHeight(Node < ? , ? > cNode) {
+    return (cNode == null) ? 0 : cNode.height;
+  }
+
+  private static int getSize(Node < ? , ? > cNode) {
+    return (cNode == null) ? 0 : cNode.size;
+  }
+
+  private static void updateNode(Node < ? , ? > cNode) {
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    cNode.size = 1 + getSize(cNode.left) + getSize(cNode.right);
+  }
+
+  private Node < K, V > rotateRight(Node < K, V > node2) {
+    Node < K, V > node1 = node2.left;
+    node2.left = node1.right;
+    node1.right = node2;
+    updateNode(node2);
+    updateNode(node1);
+    return node1;
+  }
+
+  private Node < K, V > rotateLeft(Node < K, V > node1) {
+    Node < K, V > node2 = node1.right;
+    node1.right = node2.left;
+    node2.left = node1;
+    updateNode(node1);
+    updateNode(node2);
+    return node2;
+  }
+
+  /**
+   * Refreshes the node's height and size and, if its subtrees now differ in height by two, rotates it back into balance.
+   *
+   * @return the root of the rebalanced subtree.
+   */
+  private Node < K, V > rebalance(Node < K, V > cNode) {
+    updateNode(cNode);
+    int balance = getHeight(cNode.left) - getHeight(cNode.right);
+    if (balance > 1) {
+      if (getHeight(cNode.left.left) < getHeight(cNode.left.right)) cNode.left = rotateLeft(cNode.left);
+      return rotateRight(cNode);
+    }
+    if (balance < -1) {
+      if (getHeight(cNode.right.right) < getHeight(cNode.right.left)) cNode.right = rotateRight(cNode.right);
+      return rotateLeft(cNode);
+    }
+    return cNode;
+  }
+
+  private void pushPath(int depth, Node < K, V > cNode) {
+    if (path == null) path = cast(new Node < ?, ? > [16]); // Taken by an update whose mapping function is running; see takePath().
+    if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+    path[depth] = cNode;
+  }
+
+  /**
+   * Walks from the root towards the key, recording every node passed in path.
+   *
+   * @return the length of the path. If lastCompare is 0 the last node on it holds the key; otherwise the key belongs
+   * below that node, on the side lastCompare points to.
+   */
+  private int descend(K key) {
+    int depth = 0;
+    lastCompare = 1;
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      pushPath(depth++, cNode);
+      lastCompare = key.compareTo(cNode.key);
+      if (lastCompare == 0) break;
+      cNode = (lastCompare < 0) ? cNode.left : cNode.right;
+    }
+    return depth;
+  }
+
+  private boolean found(int depth) {
+    return depth > 0 && lastCompare == 0;
+  }
+
+  private void clearPath(int depth) {
+    if (path != null) Arrays.fill(path, 0, depth, null);
+  }
+
+  /**
+   * Retraces the recorded path from the bottom up, refreshing each node and rotating where the update unbalanced it.
+   */
+  private void rebalancePath(int depth) {
+    for (int i = depth - 1; i >= 0; i--) {
+      Node < K, V > cNode = path[i];
+      Node < K, V > balanced = rebalance(cNode);
+      if (balanced != cNode) {
+        if (i == 0) {
+          head = balanced;
+        } else if (path[i - 1].left == cNode) {
+          path[i - 1].left = balanced;
+        } else {
+          path[i - 1].right = balanced;
+        }
+      }
+    }
+    clearPath(depth);
+  }
+
+  // Hangs a new node where descend stopped, then rebalances the path above it.
+  private void insertAt(int depth, K key, V value) {
+    Node < K, V > node = new Node < > (key, value);
+    if (depth == 0) {
+      head = node;
+    } else if (lastCompare < 0) {
+      path[depth - 1].left = node;
+    } else {
+      path[depth - 1].right = node;
+    }
+    size++;
+    modCount++;
+    rebalancePath(depth);
+  }
+
+  // Unlinks the node descend found, then rebalances the path above it.
+  private void removeAt(int depth) {
+    Node < K, V > target = path[depth - 1];
+    if (target.left != null && target.right != null) {
+      // Move the successor's mapping into the target and unlink the successor instead, extending the path down to it.
+      Node < K, V > successor = target.right;
+      pushPath(depth++, successor);
+      while (successor.left != null) {
+        successor = successor.left;
+        pushPath(depth++, successor);
+      }
+      target.key = successor.key;
+      target.value = successor.value;
+      target = successor;
+    }
+    Node < K, V > child = (target.left != null) ? target.left : target.right;
+    depth--;
+    path[depth] = null;
+    if (depth == 0) {
+      head = child;
+    } else if (path[depth - 1].left == target) {
+      path[depth - 1].left = child;
+    } else {
+      path[depth - 1].right = child;
+    }
+    size--;
+    modCount++;
+    rebalancePath(depth);
+  }
+
+  /**
+   * Takes the path buffer away from the map while a mapping function runs, so that a nested update of this map records into a
+   * buffer of its own instead of overwriting the path held by the outer one.
+   */
+  private Node < K, V > [] takePath() {
+    Node < K, V > [] taken = path;
+    path = null;
+    return taken;
+  }
+
+  // Runs once the buffer is back: a nested structural change has invalidated the recorded path, so it is reported instead.
+  private void checkPath(int depth, int expectedModCount) {
+    if (modCount != expectedModCount) {
+      clearPath(depth);
+      throw new ConcurrentModificationException();
+    }
+  }
+
+  private Node < K, V > getNode(Object key) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    K k = cast(key);
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      int compareVal = k.compareTo(cNode.key);
+      if (compareVal == 0) return cNode;
+      cNode = (compareVal < 0) ? cNode.left : cNode.right;
+    }
+    return null;
+  }
+
+  @Override
+  public V get(Object key) {
+    Node < K, V > node = getNode(key);
+    return (node == null) ? null : node.value;
+  }
+
+  @Override
+  public V getOrDefault(Object key, V defaultValue) {
+    Node < K, V > node = getNode(key);
+    return (node == null) ? defaultValue : node.value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return getNode(key) != null;
+  }
+
+  /**
+   * Associates the value with the key, replacing any previous value, in a single descent.
+   *
+   * @param key   The key.
+   * @param value The value, which may be null.
+   * @return the previous value of the key, or null if it had none.
+   * @throws NullPointerException if the key is null.
+   */
+  @Override
+  public V put(K key, V value) {
+    if (key == null) throw new NullPointerException("Element cannot be null");
+    int depth = descend(key);
+    if (found(depth)) {
+      Node < K, V > node = path[depth - 1];
+      clearPath(depth);
+      return node.setValue(value);
+    }
+    insertAt(depth, key, value);
+    return null;
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    if (key == null) throw new NullPointerException("Element cannot be null");
+    int depth = descend(key);
+    if (found(depth)) {
+      Node < K, V > node = path[depth - 1];
+      clearPath(depth);
+      return (node.value == null) ? node.setValue(value) : node.value;
+    }
+    insertAt(depth, key, value);
+    return null;
+  }
+
+  /**
+   * Returns the value of the key, first computing and inserting it if the key has no value. The lookup and the insertion share a
+   * single descent: the function runs while the path to the key's place is held, and the new node is hung there directly.
+   *
+   * @param key             The key.
+   * @param mappingFunction Computes the value of an absent key; a null result leaves the map unchanged.
+   * @return the current, or newly computed, value of the key.
+   * @throws NullPointerException            if the key or the function is null.
+   * @throws ConcurrentModificationException if the function structurally modified this map.
+   */
+  @Override
+  public V computeIfAbsent(K key, Function < ? super K, ? extends V > mappingFunction) {
+    if (key == null || mappingFunction == null) throw new NullPointerException("This function's argument does not accept null.");
+    int depth = descend(key);
+    boolean found = found(depth);
+    Node < K, V > node = found ? path[depth - 1] : null;
+    if (found && node.value != null) {
+      clearPath(depth);
+      return node.value;
+    }
+    int lastCompare = this.lastCompare;
+    int expectedModCount = modCount;
+    Node < K, V > [] taken = takePath();
+    V value;
+    try {
+      value = mappingFunction.apply(key);
+    } finally {
+      path = taken; // Given back even if the function throws, so the map keeps working.
+    }
+    checkPath(depth, expectedModCount);
+    this.lastCompare = lastCompare;
+    if (value == null) {
+      clearPath(depth);
+    } else if (found) {
+      node.value = value;
+      clearPath(depth);
+    } else {
+      insertAt(depth, key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Recomputes the value of a key that has a non-null value, in a single descent. A null result removes the mapping.
+   *
+   * @param key               The key.
+   * @param remappingFunction Computes the new value from the key and its current value.
+   * @return the new value, or null if the key has none.
+   * @throws NullPointerException            if the key or the function is null.
+   * @throws ConcurrentModificationException if the function structurally modified this map.
+   */
+  @Override
+  public V computeIfPresent(K key, BiFunction < ? super K, ? super V, ? extends V > remappingFunction) {
+    if (key == null || remappingFunction == null) throw new NullPointerException("This function's argument does not accept null.");
+    int depth = descend(key);
+    if (!found(depth) || path[depth - 1].value == null) {
+      clearPath(depth);
+      return null;
+    }
+    Node < K, V > node = path[depth - 1];
+    int expectedModCount = modCount;
+    Node < K, V > [] taken = takePath();
+    V value;
+    try {
+      value = remappingFunction.apply(key, node.value);
+    } finally {
+      path = taken; // Given back even if the function throws, so the map keeps working.
+    }
+    checkPath(depth, expectedModCount);
+    lastCompare = 0;
+    if (value == null) {
+      removeAt(depth);
+    } else {
+      node.value = value;
+      clearPath(depth);
+    }
+    return value;
+  }
+
+  /**
+   * Computes a new value for the key from its current value, or null if it has none, in a single descent.
+   * A null result removes the mapping, if there is one.
+   *
+   * @param key               The key.
+   * @param remappingFunction Computes the new value from the key and its current value.
+   * @return the new value, or null if the key now has none.
+   * @throws NullPointerException            if the key or the function is null.
+   * @throws ConcurrentModificationException if the function structurally modified this map.
+   */
+  @Override
+  public V compute(K key, BiFunction < ? super K, ? super V, ? extends V > remappingFunction) {
+    if (key == null || remappingFunction == null) throw new NullPointerException("This function's argument does not accept null.");
+    int depth = descend(key);
+    boolean found = found(depth);
+    Node < K, V > node = found ? path[depth - 1] : null;
+    int lastCompare = this.lastCompare;
+    int expectedModCount = modCount;
+    Node < K, V > [] taken = takePath();
+    V value;
+    try {
+      value = remappingFunction.apply(key, found ? node.value : null);
+    } finally {
+      path = taken; // Given back even if the function throws, so the map keeps working.
+    }
+    checkPath(depth, expectedModCount);
+    this.lastCompare = lastCompare;
+    if (value == null) {
+      if (found) {
+        removeAt(depth);
+      } else {
+        clearPath(depth);
+      }
+    } else if (found) {
+      node.value = value;
+      clearPath(depth);
+    } else {
+      insertAt(depth, key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Inserts the value for an absent key, or combines it with the key's current value, in a single descent.
+   * A null result of the combination removes the mapping.
+   *
+   * @param key               The key.
+   * @param value             The value to insert, or to combine with the current one.
+   * @param remappingFunction Combines the current value with the given one.
+   * @return the new value, or null if the key now has none.
+   * @throws NullPointerException            if the key, the value or the function is null.
+   * @throws ConcurrentModificationException if the function structurally modified this map.
+   */
+  @Override
+  public V merge(K key, V value, BiFunction < ? super V, ? super V, ? extends V > remappingFunction) {
+    if (key == null || value == null || remappingFunction == null) throw new NullPointerException("This function's argument does not accept null.");
+    int depth = descend(key);
+    if (!found(depth)) {
+      insertAt(depth, key, value);
+      return value;
+    }
+    Node < K, V > node = path[depth - 1];
+    if (node.value == null) {
+      node.value = value;
+      clearPath(depth);
+      return value;
+    }
+    int expectedModCount = modCount;
+    Node < K, V > [] taken = takePath();
+    V merged;
+    try {
+      merged = remappingFunction.apply(node.value, value);
+    } finally {
+      path = taken; // Given back even if the function throws, so the map keeps working.
+    }
+    checkPath(depth, expectedModCount);
+    lastCompare = 0;
+    if (merged == null) {
+      removeAt(depth);
+    } else {
+      node.value = merged;
+      clearPath(depth);
+    }
+    return merged;
+  }
+
+  /**
+   * Removes the mapping of the key, if any, in a single descent.
+   *
+   * @param key The key.
+   * @return the value the key had, or null if it had none.
+   * @throws NullPointerException if the key is null.
+   */
+  @Override
+  public V remove(Object key) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    int depth = descend(cast(key));
+    if (!found(depth)) {
+      clearPath(depth);
+      return null;
+    }
+    V value = path[depth - 1].value;
+    removeAt(depth);
+    return value;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void clear() {
+    head = null;
+    size = 0;
+    modCount++;
+  }
+
+  private Node < K, V > firstNode() {
+    Node < K, V > cNode = head;
+    if (cNode != null) {
+      while (cNode.left != null) cNode = cNode.left;
+    }
+    return cNode;
+  }
+
+  private Node < K, V > lastNode() {
+    Node < K, V > cNode = head;
+    if (cNode != null) {
+      while (cNode.right != null) cNode = cNode.right;
+    }
+    return cNode;
+  }
+
+  private Node < K, V > ceilingNode(K key) {
+    Node < K, V > best = null;
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      int compareVal = key.compareTo(cNode.key);
+      if (compareVal == 0) return cNode;
+      if (compareVal < 0) {
+        best = cNode;
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return best;
+  }
+
+  private Node < K, V > higherNode(K key) {
+    Node < K, V > best = null;
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      if (key.compareTo(cNode.key) < 0) {
+        best = cNode;
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return best;
+  }
+
+  private Node < K, V > floorNode(K key) {
+    Node < K, V > best = null;
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      int compareVal = key.compareTo(cNode.key);
+      if (compareVal == 0) return cNode;
+      if (compareVal > 0) {
+        best = cNode;
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return best;
+  }
+
+  private Node < K, V > lowerNode(K key) {
+    Node < K, V > best = null;
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      if (key.compareTo(cNode.key) > 0) {
+        best = cNode;
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return best;
+  }
+
+  private static < K > K keyOrNull(Node < K, ? > node) {
+    return (node == null) ? null : node.key;
+  }
+
+  private static < K > K checkKey(K key) {
+    if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+    return key;
+  }
+
+  @Override
+  public Map.Entry < K, V > ceilingEntry(K key) {
+    return export(ceilingNode(checkKey(key)));
+  }
+
+  @Override
+  public K ceilingKey(K key) {
+    return keyOrNull(ceilingNode(checkKey(key)));
+  }
+
+  @Override
+  public Map.Entry < K, V > higherEntry(K key) {
+    return export(higherNode(checkKey(key)));
+  }
+
+  @Override
+  public K higherKey(K key) {
+    return keyOrNull(higherNode(checkKey(key)));
+  }
+
+  @Override
+  public Map.Entry < K, V > floorEntry(K key) {
+    return export(floorNode(checkKey(key)));
+  }
+
+  @Override
+  public K floorKey(K key) {
+    return keyOrNull(floorNode(checkKey(key)));
+  }
+
+  @Override
+  public Map.Entry < K, V > lowerEntry(K key) {
+    return export(lowerNode(checkKey(key)));
+  }
+
+  @Override
+  public K lowerKey(K key) {
+    return keyOrNull(lowerNode(checkKey(key)));
+  }
+
+  @Override
+  public Map.Entry < K, V > firstEntry() {
+    return export(firstNode());
+  }
+
+  @Override
+  public Map.Entry < K, V > lastEntry() {
+    return export(lastNode());
+  }
+
+  @Override
+  public K firstKey() {
+    if (head == null) throw new NoSuchElementException("The map is currently empty.");
+    return firstNode().key;
+  }
+
+  @Override
+  public K lastKey() {
+    if (head == null) throw new NoSuchElementException("The map is currently empty.");
+    return lastNode().key;
+  }
+
+  @Override
+  public Map.Entry < K, V > pollFirstEntry() {
+    Node < K, V > node = firstNode();
+    if (node == null) return null;
+    Map.Entry < K, V > entry = export(node);
+    remove(node.key);
+    return entry;
+  }
+
+  @Override
+  public Map.Entry < K, V > pollLastEntry() {
+    Node < K, V > node = lastNode();
+    if (node == null) return null;
+    Map.Entry < K, V > entry = export(node);
+    remove(node.key);
+    return entry;
+  }
+
+  /**
+   * Always returns null: the map orders its keys by their natural ordering.
+   */
+  @Override
+  public Comparator < ? super K > comparator() {
+    return null;
+  }
+
+  /**
+   * Counts the keys in the range below (or up to, if inclusive) the given key in a single root-to-leaf descent.
+   */
+  private int rankHelper(K key, boolean inclusive) {
+    int rank = 0;
+    Node < K, V > cNode = head;
+    while (cNode != null) {
+      int compareVal = key.compareTo(cNode.key);
+      if (compareVal < 0 || (compareVal == 0 && !inclusive)) {
+        cNode = cNode.left;
+      } else {
+        rank += getSize(cNode.left) + 1;
+        if (compareVal == 0) break;
+        cNode = cNode.right;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Returns the number of keys between fromKey and toKey in O(log n). A null endpoint leaves that end of the range open.
+   *
+   * @param fromKey       Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toKey         High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @return the number of keys in the range.
+   * @throws IllegalArgumentException if fromKey is greater than toKey.
+   */
+  public int countInRange(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+    if (fromKey != null && toKey != null && fromKey.compareTo(toKey) > 0) {
+      throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+    }
+    int upTo = (toKey == null) ? size : rankHelper(toKey, toInclusive);
+    int below = (fromKey == null) ? 0 : rankHelper(fromKey, !fromInclusive);
+    return Math.max(0, upTo - below); // An endpoint excluded from both ends would otherwise count as -1.
+  }
+
+  /**
+   * Opens a cursor over the entries with keys from fromKey to toKey, in ascending or, if descending is true, descending key order.
+   * A null endpoint leaves that end of the range open. The cursor hands out the map's own entries, so setValue on one updates
+   * the map without another descent.
+   *
+   * @param fromKey       Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toKey         High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @param descending    true to walk the range from its high end down.
+   * @return a cursor positioned before the first entry of the range in the chosen order.
+   * @throws IllegalArgumentException if fromKey is greater than toKey.
+   */
+  public EntryCursor < K, V > openRange(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive, boolean descending) {
+    TreeCursor cursor = new TreeCursor(descending);
+    cursor.reset(fromKey, fromInclusive, toKey, toInclusive);
+    return cursor;
+  }
+
+  /**
+   * Opens a cursor over the entries with keys from fromKey to toKey in ascending key order.
+   *
+   * @param fromKey       Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toKey         High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @return a cursor positioned before the first entry of the range.
+   * @throws IllegalArgumentException if fromKey is greater than toKey.
+   */
+  public EntryCursor < K, V > openRange(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+    return openRange(fromKey, fromInclusive, toKey, toInclusive, false);
+  }
+
+  /**
+   * The EntryCursor of this map. The stack holds the nodes whose entry, and the subtree on the far side of it, are still to come;
+   * the top holds the next entry.
+   */
+  private class TreeCursor implements EntryCursor < K, V > {
+    private final boolean descending;
+    private Node < K, V > [] stack;
+    private int depth;
+    private K from, to;
+    private boolean fromInclusive, toInclusive;
+    private int expectedModCount;
+    private boolean closed;
+
+    @SuppressWarnings("unchecked")
+    TreeCursor(boolean descending) {
+      this.descending = descending;
+      this.stack = (Node < K, V > []) new Node < ?, ? > [16];
+    }
+
+    @Override
+    public void reset(K from, boolean fromInclusive, K to, boolean toInclusive) {
+      if (from != null && to != null && from.compareTo(to) > 0) {
+        throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+      }
+      this.from = from;
+      this.fromInclusive = fromInclusive;
+      this.to = to;
+      this.toInclusive = toInclusive;
+      closed = false;
+      if (descending) {
+        position(to, toInclusive);
+      } else {
+        position(from, fromInclusive);
+      }
+    }
+
+    @Override
+    public void seek(K key) {
+      if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+      if (closed) throw new IllegalStateException("The cursor is closed.");
+      if (descending) {
+        if (to != null && key.compareTo(to) >= 0) {
+          position(to, toInclusive);
+        } else {
+          position(key, true);
+        }
+      } else if (from != null && key.compareTo(from) <= 0) {
+        position(from, fromInclusive);
+      } else {
+        position(key, true);
+      }
+    }
+
+    // Pushes the path to the first entry at or past the key in the cursor's direction; a null key means the very first entry.
+    private void position(K key, boolean inclusive) {
+      Arrays.fill(stack, 0, depth, null);
+      depth = 0;
+      expectedModCount = modCount;
+      Node < K, V > cNode = head;
+      while (cNode != null) {
+        int compareVal = (key == null) ? (descending ? -1 : 1) : cNode.key.compareTo(key);
+        if (descending) compareVal = -compareVal;
+        if (compareVal > 0 || (compareVal == 0 && inclusive)) {
+          push(cNode);
+          cNode = descending ? cNode.right : cNode.left;
+        } else {
+          cNode = descending ? cNode.left : cNode.right;
+        }
+      }
+    }
+
+    private void push(Node < K, V > cNode) {
+      if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+      stack[depth++] = cNode;
+    }
+
+    @Override
+    public Map.Entry < K, V > next() {
+      if (closed) throw new IllegalStateException("The cursor is closed.");
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (depth == 0) return null;
+      Node < K, V > node = stack[--depth];
+      stack[depth] = null;
+      if (descending ? pastStart(node.key) : pastEnd(node.key)) {
+        Arrays.fill(stack, 0, depth, null);
+        depth = 0;
+        return null;
+      }
+      for (Node < K, V > cNode = descending ? node.left : node.right; cNode != null; cNode = descending ? cNode.right : cNode.left) {
+        push(cNode);
+      }
+      return node;
+    }
+
+    private boolean pastEnd(K key) {
+      if (to == null) return false;
+      int compareVal = key.compareTo(to);
+      return compareVal > 0 || (compareVal == 0 && !toInclusive);
+    }
+
+    private boolean pastStart(K key) {
+      if (from == null) return false;
+      int compareVal = key.compareTo(from);
+      return compareVal < 0 || (compareVal == 0 && !fromInclusive);
+    }
+
+    @Override
+    public void close() {
+      Arrays.fill(stack, 0, depth, null);
+      depth = 0;
+      from = null;
+      to = null;
+      closed = true;
+    }
+  }
+
+  @Override
+  public Set < Map.Entry < K, V >> entrySet() {
+    return new EntrySet(null, false, null, false, false);
+  }
+
+  @Override
+  public Set < K > keySet() {
+    return navigableKeySet();
+  }
+
+  @Override
+  public NavigableSet < K > navigableKeySet() {
+    return new KeySet < > (this);
+  }
+
+  @Override
+  public NavigableSet < K > descendingKeySet() {
+    return descendingMap().navigableKeySet();
+  }
+
+  @Override
+  public NavigableMap < K, V > descendingMap() {
+    return new SubMap(null, false, null, false, true);
+  }
+
+  @Override
+  public NavigableMap < K, V > subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+    return new SubMap(checkKey(fromKey), fromInclusive, checkKey(toKey), toInclusive, false);
+  }
+
+  @Override
+  public NavigableMap < K, V > headMap(K toKey, boolean inclusive) {
+    return new SubMap(null, false, checkKey(toKey), inclusive, false);
+  }
+
+  @Override
+  public NavigableMap < K, V > tailMap(K fromKey, boolean inclusive) {
+    return new SubMap(checkKey(fromKey), inclusive, null, false, false);
+  }
+
+  @Override
+  public SortedMap < K, V > subMap(K fromKey, K toKey) {
+    return subMap(fromKey, true, toKey, false);
+  }
+
+  @Override
+  public SortedMap < K, V > headMap(K toKey) {
+    return headMap(toKey, false);
+  }
+
+  @Override
+  public SortedMap < K, V > tailMap(K fromKey) {
+    return tailMap(fromKey, true);
+  }
+
+  /**
+   * The entries of the map whose keys fall in a range, in ascending or descending key order. The iterator hands out the
+   * map's own entries, so setValue writes through.
+   */
+  private final class EntrySet extends AbstractSet < Map.Entry < K, V >> {
+    private final K low, high;
+    private final boolean lowInclusive, highInclusive;
+    private final boolean descending;
+
+    EntrySet(K low, boolean lowInclusive, K high, boolean highInclusive, boolean descending) {
+      this.low = low;
+      this.lowInclusive = lowInclusive;
+      this.high = high;
+      this.highInclusive = highInclusive;
+      this.descending = descending;
+    }
+
+    // Returns the map's node for the entry's key if the entry is in the range and matches the mapping.
+    private Node < K, V > matching(Object o) {
+      if (!(o instanceof Map.Entry < ? , ? > entry) || entry.getKey() == null) return null;
+      K key = cast(entry.getKey());
+      if (!inRange(key, low, lowInclusive, high, highInclusive)) return null;
+      Node < K, V > node = getNode(key);
+      return (node != null && Objects.equals(node.value, entry.getValue())) ? node : null;
+    }
+
+    @Override
+    public Iterator < Map.Entry < K, V >> iterator() {
+      return new EntryIterator(low, lowInclusive, high, highInclusive, descending);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return matching(o) != null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      Node < K, V > node = matching(o);
+      if (node == null) return false;
+      AVLMap.this.remove(node.key);
+      return true;
+    }
+
+    @Override
+    public int size() {
+      return countInRange(low, lowInclusive, high, highInclusive);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !iterator().hasNext();
+    }
+  }
+
+  /**
+   * Iterates over a range of the map with an EntryCursor, one entry ahead. After a removal the cursor is moved back to the key
+   * it had already read, because the removal may have restructured the path it held, or moved that key into another node.
+   */
+  private final class EntryIterator implements Iterator < Map.Entry < K, V >> {
+    private final EntryCursor < K, V > cursor;
+    private Map.Entry < K, V > next;
+    private Map.Entry < K, V > lastReturned;
+
+    EntryIterator(K low, boolean lowInclusive, K high, boolean highInclusive, boolean descending) {
+      this.cursor = openRange(low, lowInclusive, high, highInclusive, descending);
+      this.next = cursor.next();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry < K, V > next() {
+      if (next == null) throw new NoSuchElementException();
+      lastReturned = next;
+      next = cursor.next();
+      return lastReturned;
+    }
+
+    @Override
+    public void remove() {
+      if (lastReturned == null) throw new IllegalStateException();
+      K nextKey = (next == null) ? null : next.getKey();
+      AVLMap.this.remove(lastReturned.getKey());
+      lastReturned = null;
+      if (nextKey != null) {
+        cursor.seek(nextKey);
+        next = cursor.next();
+      }
+    }
+  }
+
+  private static < K extends Comparable < K >> boolean inRange(K key, K low, boolean lowInclusive, K high, boolean highInclusive) {
+    if (low != null) {
+      int compareVal = key.compareTo(low);
+      if (compareVal < 0 || (compareVal == 0 && !lowInclusive)) return false;
+    }
+    if (high != null) {
+      int compareVal = key.compareTo(high);
+      if (compareVal > 0 || (compareVal == 0 && !highInclusive)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * A live view of the mappings whose keys fall in a range, in ascending or descending key order, built like TreeSubSet:
+   * it holds no mappings of its own, and a null bound leaves that end of the range open.
+   */
+  private final class SubMap extends AbstractMap < K, V > implements NavigableMap < K, V > {
+    private final K low, high;
+    private final boolean lowInclusive, highInclusive;
+    private final boolean descending;
+
+    SubMap(K low, boolean lowInclusive, K high, boolean highInclusive, boolean descending) {
+      if (low != null && high != null && low.compareTo(high) > 0) {
+        throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+      }
+      this.low = low;
+      this.lowInclusive = lowInclusive;
+      this.high = high;
+      this.highInclusive = highInclusive;
+      this.descending = descending;
+    }
+
+    private boolean tooLow(K key) {
+      if (low == null) return false;
+      int compareVal = key.compareTo(low);
+      return compareVal < 0 || (compareVal == 0 && !lowInclusive);
+    }
+
+    private boolean tooHigh(K key) {
+      if (high == null) return false;
+      int compareVal = key.compareTo(high);
+      return compareVal > 0 || (compareVal == 0 && !highInclusive);
+    }
+
+    private boolean inRange(Object key) {
+      K k = cast(checkKey(key));
+      return !tooLow(k) && !tooHigh(k);
+    }
+
+    /**
+     * Checks that a bound for a narrower view lies within this range. A bound equal to an exclusive endpoint is only allowed as an exclusive bound.
+     */
+    private void checkBound(K key, boolean inclusive) {
+      checkKey(key);
+      int compareLow = (low == null) ? 1 : key.compareTo(low);
+      int compareHigh = (high == null) ? -1 : key.compareTo(high);
+      if (compareLow < 0 || compareHigh > 0 || (inclusive && ((compareLow == 0 && !lowInclusive) || (compareHigh == 0 && !highInclusive)))) {
+        throw new IllegalArgumentException("The bound lies outside the range of this view.");
+      }
+    }
+
+    // Lookups in ascending order over the range; the descending view maps its methods onto the mirrored ones.
+    private Node < K, V > lowest() {
+      Node < K, V > node = (low == null) ? firstNode() : (lowInclusive ? ceilingNode(low) : higherNode(low));
+      return (node == null || tooHigh(node.key)) ? null : node;
+    }
+
+    private Node < K, V > highest() {
+      Node < K, V > node = (high == null) ? lastNode() : (highInclusive ? floorNode(high) : lowerNode(high));
+      return (node == null || tooLow(node.key)) ? null : node;
+    }
+
+    private Node < K, V > ceilingInRange(K key) {
+      if (tooLow(key)) return lowest();
+      Node < K, V > node = ceilingNode(key);
+      return (node == null || tooHigh(node.key)) ? null : node;
+    }
+
+    private Node < K, V > higherInRange(K key) {
+      if (tooLow(key)) return lowest();
+      Node < K, V > node = higherNode(key);
+      return (node == null || tooHigh(node.key)) ? null : node;
+    }
+
+    private Node < K, V > floorInRange(K key) {
+      if (tooHigh(key)) return highest();
+      Node < K, V > node = floorNode(key);
+      return (node == null || tooLow(node.key)) ? null : node;
+    }
+
+    private Node < K, V > lowerInRange(K key) {
+      if (tooHigh(key)) return highest();
+      Node < K, V > node = lowerNode(key);
+      return (node == null || tooLow(node.key)) ? null : node;
+    }
+
+    private Node < K, V > ceilingFor(K key) {
+      checkKey(key);
+      return descending ? floorInRange(key) : ceilingInRange(key);
+    }
+
+    private Node < K, V > higherFor(K key) {
+      checkKey(key);
+      return descending ? lowerInRange(key) : higherInRange(key);
+    }
+
+    private Node < K, V > floorFor(K key) {
+      checkKey(key);
+      return descending ? ceilingInRange(key) : floorInRange(key);
+    }
+
+    private Node < K, V > lowerFor(K key) {
+      checkKey(key);
+      return descending ? higherInRange(key) : lowerInRange(key);
+    }
+
+    @Override
+    public V get(Object key) {
+      return inRange(key) ? AVLMap.this.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return inRange(key) && AVLMap.this.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+      if (!inRange(key)) throw new IllegalArgumentException("The key lies outside the range of this view.");
+      return AVLMap.this.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+      return inRange(key) ? AVLMap.this.remove(key) : null;
+    }
+
+    @Override
+    public int size() {
+      return countInRange(low, lowInclusive, high, highInclusive);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return lowest() == null;
+    }
+
+    @Override
+    public Set < Map.Entry < K, V >> entrySet() {
+      return new EntrySet(low, lowInclusive, high, highInclusive, descending);
+    }
+
+    @Override
+    public Set < K > keySet() {
+      return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet < K > navigableKeySet() {
+      return new KeySet < > (this);
+    }
+
+    @Override
+    public NavigableSet < K > descendingKeySet() {
+      return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Comparator < ? super K > comparator() {
+      return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public Map.Entry < K, V > ceilingEntry(K key) {
+      return export(ceilingFor(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+      return keyOrNull(ceilingFor(key));
+    }
+
+    @Override
+    public Map.Entry < K, V > higherEntry(K key) {
+      return export(higherFor(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+      return keyOrNull(higherFor(key));
+    }
+
+    @Override
+    public Map.Entry < K, V > floorEntry(K key) {
+      return export(floorFor(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+      return keyOrNull(floorFor(key));
+    }
+
+    @Override
+    public Map.Entry < K, V > lowerEntry(K key) {
+      return export(lowerFor(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+      return keyOrNull(lowerFor(key));
+    }
+
+    @Override
+    public Map.Entry < K, V > firstEntry() {
+      return export(descending ? highest() : lowest());
+    }
+
+    @Override
+    public Map.Entry < K, V > lastEntry() {
+      return export(descending ? lowest() : highest());
+    }
+
+    @Override
+    public K firstKey() {
+      Node < K, V > node = descending ? highest() : lowest();
+      if (node == null) throw new NoSuchElementException("The view is currently empty.");
+      return node.key;
+    }
+
+    @Override
+    public K lastKey() {
+      Node < K, V > node = descending ? lowest() : highest();
+      if (node == null) throw new NoSuchElementException("The view is currently empty.");
+      return node.key;
+    }
+
+    @Override
+    public Map.Entry < K, V > pollFirstEntry() {
+      Node < K, V > node = descending ? highest() : lowest();
+      if (node == null) return null;
+      Map.Entry < K, V > entry = export(node);
+      AVLMap.this.remove(node.key);
+      return entry;
+    }
+
+    @Override
+    public Map.Entry < K, V > pollLastEntry() {
+      Node < K, V > node = descending ? lowest() : highest();
+      if (node == null) return null;
+      Map.Entry < K, V > entry = export(node);
+      AVLMap.this.remove(node.key);
+      return entry;
+    }
+
+    @Override
+    public NavigableMap < K, V > descendingMap() {
+      return new SubMap(low, lowInclusive, high, highInclusive, !descending);
+    }
+
+    @Override
+    public NavigableMap < K, V > subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+      checkBound(fromKey, fromInclusive);
+      checkBound(toKey, toInclusive);
+      if (descending) return new SubMap(toKey, toInclusive, fromKey, fromInclusive, true);
+      return new SubMap(fromKey, fromInclusive, toKey, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap < K, V > headMap(K toKey, boolean inclusive) {
+      checkBound(toKey, inclusive);
+      if (descending) return new SubMap(toKey, inclusive, high, highInclusive, true);
+      return new SubMap(low, lowInclusive, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap < K, V > tailMap(K fromKey, boolean inclusive) {
+      checkBound(fromKey, inclusive);
+      if (descending) return new SubMap(low, lowInclusive, fromKey, inclusive, true);
+      return new SubMap(fromKey, inclusive, high, highInclusive, false);
+    }
+
+    @Override
+    public SortedMap < K, V > subMap(K fromKey, K toKey) {
+      return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap < K, V > headMap(K toKey) {
+      return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap < K, V > tailMap(K fromKey) {
+      return tailMap(fromKey, true);
+    }
+  }
+
+  /**
+   * The keys of a map or of one of its views, as a NavigableSet. Every call goes to the map, so removals write through; adding is not supported.
+   */
+  static final class KeySet < K > extends AbstractSet < K > implements NavigableSet < K > {
+    private final NavigableMap < K, ? > map;
+
+    KeySet(NavigableMap < K, ? > map) {
+      this.map = map;
+    }
+
+    private static < K > Iterator < K > keys(Iterator < ? extends Map.Entry < K, ? >> entries) {
+      return new Iterator < > () {
+        @Override
+        public boolean hasNext() {
+          return entries.hasNext();
+        }
+
+        @Override
+        public K next() {
+          return entries.next().getKey();
+        }
+
+        @Override
+        public void remove() {
+          entries.remove();
+        }
+      };
+    }
+
+    @Override
+    public Iterator < K > iterator() {
+      return keys(map.entrySet().iterator());
+    }
+
+    @Override
+    public Iterator < K > descendingIterator() {
+      return keys(map.descendingMap().entrySet().iterator());
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return map.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return map.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      int oldSize = map.size();
+      map.remove(o);
+      return map.size() != oldSize;
+    }
+
+    @Override
+    public void clear() {
+      map.clear();
+    }
+
+    @Override
+    public Comparator < ? super K > comparator() {
+      return map.comparator();
+    }
+
+    @Override
+    public K first() {
+      return map.firstKey();
+    }
+
+    @Override
+    public K last() {
+      return map.lastKey();
+    }
+
+    @Override
+    public K ceiling(K key) {
+      return map.ceilingKey(key);
+    }
+
+    @Override
+    public K higher(K key) {
+      return map.higherKey(key);
+    }
+
+    @Override
+    public K floor(K key) {
+      return map.floorKey(key);
+    }
+
+    @Override
+    public K lower(K key) {
+      return map.lowerKey(key);
+    }
+
+    @Override
+    public K pollFirst() {
+      Map.Entry < K, ? > entry = map.pollFirstEntry();
+      return (entry == null) ? null : entry.getKey();
+    }
+
+    @Override
+    public K pollLast() {
+      Map.Entry < K, ? > entry = map.pollLastEntry();
+      return (entry == null) ? null : entry.getKey();
+    }
+
+    @Override
+    public NavigableSet < K > descendingSet() {
+      return new KeySet < > (map.descendingMap());
+    }
+
+    @Override
+    public NavigableSet < K > subSet(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+      return new KeySet < > (map.subMap(fromKey, fromInclusive, toKey, toInclusive));
+    }
+
+    @Override
+    public NavigableSet < K > headSet(K toKey, boolean inclusive) {
+      return new KeySet < > (map.headMap(toKey, inclusive));
+    }
+
+    @Override
+    public NavigableSet < K > tailSet(K fromKey, boolean inclusive) {
+      return new KeySet < > (map.tailMap(fromKey, inclusive));
+    }
+
+    @Override
+    public SortedSet < K > subSet(K fromKey, K toKey) {
+      return subSet(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedSet < K > headSet(K toKey) {
+      return headSet(toKey, false);
+    }
+
+    @Override
+    public SortedSet < K > tailSet(K fromKey) {
+      return tailSet(fromKey, true);
+    }
+  }
+}
@@ -0,0 +1,484 @@
+package bstavl;
+
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * This class is an AVL tree whose nodes are stored in parallel arrays instead of one object per node.
+ * A node is an int index into the left, right, height and keys arrays. Index 0 is a sentinel standing for "no node" (its height is 0),
+ * and removed nodes are chained into a free list through the left array so their slots are reused by later inserts.
+ * The whole tree is five arrays for the GC to trace, and a descent reads neighbouring ints instead of chasing node objects across the heap.
+ */
+public class ArrayAVL < E extends Comparable < E >> implements Iterable < E > {
+
+  private static final int NIL = 0;
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] left;
+  private int[] right;
+  private int[] height;
+  private Object[] keys;
+
+  private int head = NIL;
+  private int size;
+  private int nextUnused = 1; // First slot that has never been handed out; slot 0 is the sentinel.
+  private int freeList = NIL; // Slots of removed nodes, linked through left[].
+  private int modCount; // Number of structural modifications, used by the iterators to fail fast.
+
+  /**
+   * Constructs a new, empty tree.
+   */
+  public ArrayAVL() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a new, empty tree with room for the given number of elements before the arrays have to grow.
+   *
+   * @param initialCapacity The number of elements to reserve space for.
+   * @throws IllegalArgumentException if the capacity is negative.
+   */
+  public ArrayAVL(int initialCapacity) {
+    if (initialCapacity < 0) throw new IllegalArgumentException("The capacity cannot be negative.");
+    int slots = initialCapacity + 1;
+    left = new int[slots];
+    right = new int[slots];
+    height = new int[slots];
+    keys = new Object[slots];
+  }
+
+  @SuppressWarnings("unchecked")
+  private E key(int node) {
+    return (E) keys[node];
+  }
+
+  private int newNode(E e) {
+    int node;
+    if (freeList != NIL) {
+      node = freeList;
+      freeList = left[node];
+    } else {
+      if (nextUnused == keys.length) grow();
+      node = nextUnused++;
+    }
+    keys[node] = e;
+    left[node] = NIL;
+    right[node] = NIL;
+    height[node] = 1;
+    return node;
+  }
+
+  private void freeNode(int node) {
+    keys[node] = null; // Let the element be collected.
+    right[node] = NIL;
+    left[node] = freeList;
+    freeList = node;
+  }
+
+  private void grow() {
+    int capacity = Math.max(DEFAULT_CAPACITY, keys.length * 2);
+    left = Arrays.copyOf(left, capacity);
+    right = Arrays.copyOf(right, capacity);
+    height = Arrays.copyOf(height, capacity);
+    keys = Arrays.copyOf(keys, capacity);
+  }
+
+  private void updateHeight(int node) {
+    height[node] = 1 + Math.max(height[left[node]], height[right[node]]);
+  }
+
+  private int getBalance(int node) {
+    return height[left[node]] - height[right[node]];
+  }
+
+  private int rotateRight(int node2) {
+    int node1 = left[node2];
+    left[node2] = right[node1];
+    right[node1] = node2;
+    updateHeight(node2);
+    updateHeight(node1);
+    return node1;
+  }
+
+  private int rotateLeft(int node1) {
+    int node2 = right[node1];
+    right[node1] = left[node2];
+    left[node2] = node1;
+    updateHeight(node1);
+    updateHeight(node2);
+    return node2;
+  }
+
+  /**
+   * Updates the height of the node and restores the AVL balance of its subtree if needed.
+   *
+   * @return the new root of the subtree.
+   */
+  private int rebalance(int node) {
+    updateHeight(node);
+    int balance = getBalance(node);
+    if (balance > 1) {
+      if (getBalance(left[node]) < 0) left[node] = rotateLeft(left[node]);
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (getBalance(right[node]) > 0) right[node] = rotateRight(right[node]);
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private int addHelper(E e, int node) {
+    if (node == NIL) {
+      size++;
+      return newNode(e);
+    }
+    int compareVal = e.compareTo(key(node));
+    if (compareVal < 0) {
+      int child = addHelper(e, left[node]);
+      left[node] = child; // Assigned after the call, which may have reallocated the arrays.
+    } else if (compareVal > 0) {
+      int child = addHelper(e, right[node]);
+      right[node] = child;
+    } else {
+      return node;
+    }
+    return rebalance(node);
+  }
+
+  /**
+   * Adds the specified element to the tree.
+   *
+   * @param e The element to be added to the tree.
+   * @return true if the tree did not already contain the element.
+   * @throws NullPointerException if the specified element is null.
+   */
+  public boolean add(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    int oldSize = size;
+    head = addHelper(e, head);
+    if (size == oldSize) return false;
+    modCount++;
+    return true;
+  }
+
+  private int removeHelper(E e, int node) {
+    if (node == NIL) return NIL;
+    int compareVal = e.compareTo(key(node));
+    if (compareVal < 0) {
+      left[node] = removeHelper(e, left[node]);
+    } else if (compareVal > 0) {
+      right[node] = removeHelper(e, right[node]);
+    } else if (left[node] == NIL || right[node] == NIL) {
+      int child = (left[node] != NIL) ? left[node] : right[node];
+      freeNode(node);
+      size--;
+      return child;
+    } else {
+      // Node with two children: take over the inorder successor's element and remove the successor instead.
+      int successor = right[node];
+      while (left[successor] != NIL) successor = left[successor];
+      keys[node] = keys[successor];
+      right[node] = removeHelper(key(successor), right[node]);
+    }
+    return rebalance(node);
+  }
+
+  /**
+   * Removes the specified element from the tree.
+   *
+   * @param o Object to be removed from the tree, if present.
+   * @return true if the tree contained the specified element.
+   * @throws ClassCastException if the specified object cannot be compared with the elements in the tree.
+   * @throws NullPointerException if the specified element is null.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean remove(Object o) {
+    if (o == null) throw new NullPointerException("Specified element cannot be null.");
+    if (head == NIL) return false;
+    if (!keys[head].getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+    int oldSize = size;
+    head = removeHelper((E) o, head);
+    if (size == oldSize) return false;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Removes all elements from the tree. The arrays keep their capacity.
+   */
+  public void clear() {
+    Arrays.fill(keys, null);
+    head = NIL;
+    size = 0;
+    nextUnused = 1;
+    freeList = NIL;
+    modCount++;
+  }
+
+  /**
+   * Checks if the tree contains the specified element.
+   *
+   * @param o Object to be checked for containment in the tree.
+   * @return true if the tree contains the specified element.
+   * @throws ClassCastException if the specified object cannot be compared with the elements in the tree.
+   * @throws NullPointerException if the specified element is null.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean contains(Object o) {
+    if (o == null) throw new NullPointerException("Specified element cannot be null.");
+    if (head == NIL) return false;
+    if (!keys[head].getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+    E e = (E) o;
+    int node = head;
+    while (node != NIL) {
+      int compareVal = e.compareTo(key(node));
+      if (compareVal == 0) return true;
+      node = (compareVal < 0) ? left[node] : right[node];
+    }
+    return false;
+  }
+
+  private void checkElement(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    if (head != NIL && !keys[head].getClass().isInstance(e)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+  }
+
+  /**
+   * Returns the least element in the tree greater than or equal to the given element.
+   *
+   * @param e The value to match.
+   * @return the least element greater than or equal to e, or null if there is no such element.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   * @throws NullPointerException if the specified element is null.
+   */
+  public E ceiling(E e) {
+    checkElement(e);
+    int node = head, ceil = NIL;
+    while (node != NIL) {
+      int compareVal = e.compareTo(key(node));
+      if (compareVal == 0) return key(node);
+      if (compareVal < 0) {
+        ceil = node;
+        node = left[node];
+      } else {
+        node = right[node];
+      }
+    }
+    return key(ceil); // keys[NIL] is always null.
+  }
+
+  /**
+   * Returns the greatest element in the tree less than or equal to the given element.
+   *
+   * @param e The value to match.
+   * @return the greatest element less than or equal to e, or null if there is no such element.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   * @throws NullPointerException if the specified element is null.
+   */
+  public E floor(E e) {
+    checkElement(e);
+    int node = head, floor = NIL;
+    while (node != NIL) {
+      int compareVal = e.compareTo(key(node));
+      if (compareVal == 0) return key(node);
+      if (compareVal > 0) {
+        floor = node;
+        node = right[node];
+      } else {
+        node = left[node];
+      }
+    }
+    return key(floor);
+  }
+
+  /**
+   * Returns the greatest element in the tree strictly less than the given element.
+   *
+   * @param e The value to match.
+   * @return the greatest element less than e, or null if there is no such element.
+   */
+  public E lower(E e) {
+    checkElement(e);
+    int node = head, lower = NIL;
+    while (node != NIL) {
+      if (e.compareTo(key(node)) > 0) {
+        lower = node;
+        node = right[node];
+      } else {
+        node = left[node];
+      }
+    }
+    return key(lower);
+  }
+
+  /**
+   * Returns the least element in the tree strictly greater than the given element.
+   *
+   * @param e The value to match.
+   * @return the least element greater than e, or null if there is no such element.
+   */
+  public E higher(E e) {
+    checkElement(e);
+    int node = head, higher = NIL;
+    while (node != NIL) {
+      if (e.compareTo(key(node)) < 0) {
+        higher = node;
+        node = left[node];
+      } else {
+        node = right[node];
+      }
+    }
+    return key(higher);
+  }
+
+  /**
+   * Returns the first (lowest) element currently in the tree.
+   *
+   * @return the first (lowest) element currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E first() {
+    if (head == NIL) throw new NoSuchElementException("The tree is currently empty.");
+    int node = head;
+    while (left[node] != NIL) node = left[node];
+    return key(node);
+  }
+
+  /**
+   * Returns the last (highest) element currently in the tree.
+   *
+   * @return the last (highest) element currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E last() {
+    if (head == NIL) throw new NoSuchElementException("The tree is currently empty.");
+    int node = head;
+    while (right[node] != NIL) node = right[node];
+    return key(node);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return head == NIL;
+  }
+
+  public int height() {
+    return height[head];
+  }
+
+  /**
+   * Returns a collection whose elements range from fromElement to toElement.
+   *
+   * @param fromElement Low endpoint (inclusive) of the returned collection.
+   * @param toElement   High endpoint (inclusive) of the returned collection.
+   * @return a collection containing a portion of this tree whose elements range from fromElement to toElement.
+   * @throws NullPointerException     if fromElement or toElement is null.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public ArrayList < E > getRange(E fromElement, E toElement) {
+    if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+
+    if (fromElement.compareTo(toElement) > 0) throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+
+    ArrayList < E > result = new ArrayList < > ();
+    int[] stack = new int[height[head]];
+    int depth = 0;
+    int node = head;
+    while (node != NIL || depth > 0) {
+      while (node != NIL) {
+        if (fromElement.compareTo(key(node)) <= 0) {
+          stack[depth++] = node;
+          node = left[node];
+        } else {
+          node = right[node];
+        }
+      }
+      if (depth == 0) break;
+      node = stack[--depth];
+      if (toElement.compareTo(key(node)) < 0) break;
+      result.add(key(node));
+      node = right[node];
+    }
+    return result;
+  }
+
+  @Override
+  public Iterator < E > iterator() {
+    return new InOrderIter();
+  }
+
+  private class InOrderIter implements Iterator < E > {
+    private int[] stack = new int[height[head]];
+    private int depth;
+    private E lastReturned;
+    private int expectedModCount = modCount;
+
+    public InOrderIter() {
+      pushLeft(head);
+    }
+
+    private void pushLeft(int node) {
+      while (node != NIL) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, Math.max(4, depth * 2));
+        stack[depth++] = node;
+        node = left[node];
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return depth > 0;
+    }
+
+    @Override
+    public E next() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (depth == 0) throw new NoSuchElementException();
+      int node = stack[--depth];
+      pushLeft(right[node]);
+      lastReturned = key(node);
+      return lastReturned;
+    }
+
+    @Override
+    public void remove() {
+      if (lastReturned == null) throw new IllegalStateException();
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      ArrayAVL.this.remove(lastReturned);
+      expectedModCount = modCount;
+
+      // The removal may have rotated the nodes on the stack, so rebuild the path to the first element after the removed one.
+      depth = 0;
+      int node = head;
+      while (node != NIL) {
+        if (key(node).compareTo(lastReturned) > 0) {
+          if (depth == stack.length) stack = Arrays.copyOf(stack, Math.max(4, depth * 2));
+          stack[depth++] = node;
+          node = left[node];
+        } else {
+          node = right[node];
+        }
+      }
+      lastReturned = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner sj = new StringJoiner(", ", "[", "]");
+    for (E e: this) {
+      sj.add(String.valueOf(e));
+    }
+    return sj.toString();
+  }
+}
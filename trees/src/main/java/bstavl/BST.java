@@ -0,0 +1,1730 @@
+    package bstavl;
+
+    import java.io.IOException;
+    import java.util.*;
+    import java.util.function.Consumer;
+    import java.util.stream.Stream;
+    import java.util.stream.StreamSupport;
+
+
+    /**
+     * @author Elijah Philip
+     * This class is an implmentation of a BST tree. It is able to take in elements and automatically sort them to the left tree (if less), or right tree (if greater).
+     */
+
+    /**
+     * Constructs a new, empty tree.
+     */
+    public class BST < E extends Comparable < E >> extends AbstractSet < E > implements NavigableTree < E > , Cloneable {
+
+      private Node < E > head;
+      private int size;
+      private Node < E > [] path; // Reusable buffer holding the root-to-node path of the current add or remove.
+      private int modCount; // Number of structural modifications, used by the iterators to fail fast.
+      private Sharing sharing; // Set while the nodes are shared with clones; null when this tree owns them outright.
+      private final Comparator < ? super E > comparator; // Null when the elements are kept in their natural order.
+
+      /**
+       * Constructs a new, empty tree.
+       */
+      public BST() {
+        size = 0;
+        this.head = null;
+        this.comparator = null;
+      }
+
+      /**
+       * Constructs a new, empty tree ordered by the specified comparator.
+       *
+       * @param comparator The comparator that orders the tree, or null to keep the elements in their natural order.
+       */
+      public BST(Comparator < ? super E > comparator) {
+        this.comparator = comparator;
+      }
+
+      /**
+       * Constructs a new tree containing elements from the specified collection.
+       *
+       * @param collection Collection whose elements will comprise the new tree.
+       * @throws NullPointerException if the specified collection is null.
+       */
+      public BST(E[] collection) { //Case Where collection si empty?
+        comparator = null;
+        for (E e: collection) {
+          if (e == null) throw new NullPointerException("Given Element cannot be null.");
+          this.add(e);
+        }
+      }
+
+      /**
+       * Builds a tree from count elements read in strictly ascending order from the source, in O(n) time.
+       * The tree is perfectly balanced, and the elements are consumed in order so they never have to be held in an array.
+       */
+      static < E extends Comparable < E >> BST < E > fromSortedSource(int count, TreeSnapshot.KeySource < E > source) throws IOException {
+        BST < E > tree = new BST < > ();
+        tree.head = tree.buildBalanced(count, source);
+        tree.size = count;
+        return tree;
+      }
+
+      /**
+       * Builds a perfectly balanced subtree of count nodes by building the left half, reading the root and then building the right half.
+       */
+      private Node < E > buildBalanced(int count, TreeSnapshot.KeySource < E > source) throws IOException {
+        if (count == 0) return null;
+        int leftCount = count >>> 1;
+        Node < E > left = buildBalanced(leftCount, source);
+        Node < E > cNode = new Node < > (source.next(), left, null);
+        cNode.right = buildBalanced(count - leftCount - 1, source);
+        cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+        return cNode;
+      }
+
+      /**
+       * Returns an independent copy of this tree in O(1). The copy shares the nodes of this tree until either of them is first
+       * modified, at which point the one being modified takes its own structural copy; a clone that is only read never copies anything.
+       *
+       * @return a copy of this tree.
+       */
+      @SuppressWarnings("unchecked")
+      @Override
+      public BST < E > clone() {
+        try {
+          if (sharing == null) sharing = new Sharing();
+          sharing.owners++;
+          BST < E > copy = (BST < E > ) super.clone();
+          copy.path = null;
+          copy.modCount = 0;
+          return copy;
+        } catch (CloneNotSupportedException e) {
+          throw new AssertionError();
+        }
+      }
+
+      /**
+       * Returns a new tree holding the same elements as the specified tree, copied node by node in O(n) time.
+       * The copy has the same shape and cached heights as the original, so nothing is compared.
+       *
+       * @param tree The tree to be copied.
+       * @return a new tree with the same elements and shape as the specified tree.
+       * @throws NullPointerException if the specified tree is null.
+       */
+      public static < E extends Comparable < E >> BST < E > copyOf(BST < E > tree) {
+        if (tree == null) throw new NullPointerException("This function's argument does not accept null.");
+        BST < E > copy = new BST < E > (tree.comparator);
+        copy.head = copyNodes(tree.head);
+        copy.size = tree.size;
+        return copy;
+      }
+
+      /**
+       * Counts the trees sharing one set of nodes after a clone.
+       */
+      private static final class Sharing {
+        int owners = 1;
+      }
+
+      /**
+       * Gives this tree nodes of its own before it is modified, if it is still sharing them with a clone.
+       * The last owner left keeps the original nodes, so each clone that is modified pays for exactly one copy.
+       */
+      private void ensureUnshared() {
+        if (sharing == null) return;
+        if (sharing.owners > 1) {
+          sharing.owners--;
+          head = copyNodes(head);
+        }
+        sharing = null;
+      }
+
+      /**
+       * Copies the subtree rooted at the given node in preorder, with an explicit stack so a degenerate tree cannot overflow the call stack.
+       */
+      private static < E extends Comparable < E >> Node < E > copyNodes(Node < E > root) {
+        if (root == null) return null;
+        Node < E > rootCopy = copyNode(root);
+        ArrayDeque < Node < E >> copies = new ArrayDeque < > ();
+        copies.push(rootCopy);
+        while (!copies.isEmpty()) {
+          // Each copy still points at the children of its original until it is popped and given copies of its own.
+          Node < E > cNode = copies.pop();
+          if (cNode.right != null) {
+            cNode.right = copyNode(cNode.right);
+            copies.push(cNode.right);
+          }
+          if (cNode.left != null) {
+            cNode.left = copyNode(cNode.left);
+            copies.push(cNode.left);
+          }
+        }
+        return rootCopy;
+      }
+
+      private static < E extends Comparable < E >> Node < E > copyNode(Node < E > node) {
+        Node < E > copy = new Node < > (node.data, node.left, node.right);
+        copy.height = node.height;
+        return copy;
+      }
+      private class InOrderIter implements Iterator < E > {
+        // Nodes whose element and right subtree are still to be returned; the top holds the next element.
+        private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+        private Node < E > pending;
+        private E lastReturned;
+        private int expectedModCount;
+
+        public InOrderIter() {
+          pending = head;
+          expectedModCount = modCount;
+        }
+
+        private void pushLeft(Node < E > node) {
+          while (node != null) {
+            stack.push(node);
+            node = node.left;
+          }
+        }
+
+        @Override
+        public boolean hasNext() {
+          if (pending != null) {
+            pushLeft(pending);
+            pending = null;
+          }
+          return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          if (!hasNext()) throw new NoSuchElementException();
+          Node < E > node = stack.pop();
+          pushLeft(node.right);
+          lastReturned = node.data;
+          return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+          if (lastReturned == null) throw new IllegalStateException();
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          BST.this.remove(lastReturned);
+          expectedModCount = modCount;
+
+          // The removal may have restructured the tree, so rebuild the path to the first element after the removed one.
+          stack.clear();
+          pending = null;
+          Node < E > cNode = head;
+          while (cNode != null) {
+            if (compare(comparator, cNode.data, lastReturned) > 0) {
+              stack.push(cNode);
+              cNode = cNode.left;
+            } else {
+              cNode = cNode.right;
+            }
+          }
+          lastReturned = null;
+        }
+      }
+
+      private class PreOrderIter implements Iterator < E > {
+        private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+        private int expectedModCount;
+
+        public PreOrderIter() {
+          if (head != null) stack.push(head);
+          expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          if (stack.isEmpty()) throw new NoSuchElementException();
+          Node < E > node = stack.pop();
+          if (node.right != null) stack.push(node.right);
+          if (node.left != null) stack.push(node.left);
+          return node.data;
+        }
+      }
+
+      private class PostOrderIter implements Iterator < E > {
+        // Ancestors of the next node to be returned; the top is returned once both of its subtrees are done.
+        private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+        private Node < E > pending;
+        private int expectedModCount;
+
+        public PostOrderIter() {
+          pending = head;
+          expectedModCount = modCount;
+        }
+
+        private void pushFirstLeaf(Node < E > node) {
+          while (node != null) {
+            stack.push(node);
+            node = (node.left != null) ? node.left : node.right;
+          }
+        }
+
+        @Override
+        public boolean hasNext() {
+          if (pending != null) {
+            pushFirstLeaf(pending);
+            pending = null;
+          }
+          return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          if (!hasNext()) throw new NoSuchElementException();
+          Node < E > node = stack.pop();
+          Node < E > parent = stack.peek();
+          if (parent != null && parent.left == node) {
+            pushFirstLeaf(parent.right);
+          }
+          return node.data;
+        }
+      }
+
+      /**
+       * Splits the elements at subtree boundaries. Before the traversal starts, a spliterator covers an optional first element followed
+       * by a whole subtree; trySplit hands out the first element and the left subtree, and keeps the root and the right subtree.
+       * The tree keeps no subtree sizes, so after a split the sizes are estimates, halved at each split.
+       */
+      private class SubtreeSpliterator implements Spliterator < E > {
+        private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+        private E first;
+        private Node < E > root;
+        private long estimate;
+        private boolean exact;
+        private boolean started;
+        private final int expectedModCount;
+
+        SubtreeSpliterator(E first, Node < E > root, long estimate, boolean exact, int expectedModCount) {
+          this.first = first;
+          this.root = root;
+          this.estimate = estimate;
+          this.exact = exact;
+          this.expectedModCount = expectedModCount;
+        }
+
+        private void start() {
+          for (Node < E > cNode = root; cNode != null; cNode = cNode.left) {
+            stack.push(cNode);
+          }
+          root = null;
+          started = true;
+        }
+
+        private E nextElement() {
+          if (estimate > 0) estimate--;
+          if (first != null) {
+            E e = first;
+            first = null;
+            return e;
+          }
+          Node < E > node = stack.pop();
+          for (Node < E > cNode = node.right; cNode != null; cNode = cNode.left) {
+            stack.push(cNode);
+          }
+          return node.data;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer < ? super E > action) {
+          if (action == null) throw new NullPointerException("This function's argument does not accept null.");
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          if (!started) start();
+          if (first == null && stack.isEmpty()) return false;
+          action.accept(nextElement());
+          return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer < ? super E > action) {
+          if (action == null) throw new NullPointerException("This function's argument does not accept null.");
+          if (!started) start();
+          while (first != null || !stack.isEmpty()) {
+            action.accept(nextElement());
+          }
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public Spliterator < E > trySplit() {
+          if (started || root == null || estimate < 2) return null;
+          Node < E > node = root;
+          SubtreeSpliterator lower;
+          if (first == null && node.left == null) {
+            lower = new SubtreeSpliterator(node.data, null, 1, false, expectedModCount); // Nothing on the left, so only the root goes.
+          } else {
+            lower = new SubtreeSpliterator(first, node.left, estimate >>> 1, false, expectedModCount);
+            first = node.data;
+          }
+          root = node.right;
+          estimate -= lower.estimate;
+          exact = false;
+          return lower;
+        }
+
+        @Override
+        public long estimateSize() {
+          return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+          return Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL | (exact ? Spliterator.SIZED : 0);
+        }
+
+        @Override
+        public Comparator < ? super E > getComparator() {
+          return comparator; // Null when the elements are in their natural order.
+        }
+      }
+
+      /**
+       * The RangeCursor of this tree. The stack holds the nodes whose element, and the subtree on the far side of it, are still to come;
+       * the top holds the next element.
+       */
+      private class TreeCursor implements RangeCursor < E > {
+        private final boolean descending;
+        private Node < E > [] stack;
+        private int depth;
+        private E from, to;
+        private boolean fromInclusive, toInclusive;
+        private int expectedModCount;
+        private boolean closed;
+
+        @SuppressWarnings("unchecked")
+        TreeCursor(boolean descending) {
+          this.descending = descending;
+          this.stack = (Node < E > []) new Node < ? > [16];
+        }
+
+        @Override
+        public void reset(E from, boolean fromInclusive, E to, boolean toInclusive) {
+          if (from != null && to != null && compare(comparator, from, to) > 0) {
+            throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+          }
+          this.from = from;
+          this.fromInclusive = fromInclusive;
+          this.to = to;
+          this.toInclusive = toInclusive;
+          closed = false;
+          if (descending) {
+            position(to, toInclusive);
+          } else {
+            position(from, fromInclusive);
+          }
+        }
+
+        @Override
+        public void seek(E key) {
+          if (key == null) throw new NullPointerException("This function's argument does not accept null.");
+          if (closed) throw new IllegalStateException("The cursor is closed.");
+          if (descending) {
+            if (to != null && compare(comparator, key, to) >= 0) {
+              position(to, toInclusive);
+            } else {
+              position(key, true);
+            }
+          } else if (from != null && compare(comparator, key, from) <= 0) {
+            position(from, fromInclusive);
+          } else {
+            position(key, true);
+          }
+        }
+
+        // Pushes the path to the first element at or past the key in the cursor's direction; a null key means the very first element.
+        private void position(E key, boolean inclusive) {
+          Arrays.fill(stack, 0, depth, null);
+          depth = 0;
+          expectedModCount = modCount;
+          Node < E > cNode = head;
+          while (cNode != null) {
+            int compareVal = (key == null) ? (descending ? -1 : 1) : compare(comparator, cNode.data, key);
+            if (descending) compareVal = -compareVal;
+            if (compareVal > 0 || (compareVal == 0 && inclusive)) {
+              push(cNode);
+              cNode = descending ? cNode.right : cNode.left;
+            } else {
+              cNode = descending ? cNode.left : cNode.right;
+            }
+          }
+        }
+
+        private void push(Node < E > cNode) {
+          if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+          stack[depth++] = cNode;
+        }
+
+        @Override
+        public E next() {
+          if (closed) throw new IllegalStateException("The cursor is closed.");
+          if (modCount != expectedModCount) throw new ConcurrentModificationException();
+          if (depth == 0) return null;
+          Node < E > node = stack[--depth];
+          stack[depth] = null;
+          if (descending ? pastStart(node.data) : pastEnd(node.data)) {
+            Arrays.fill(stack, 0, depth, null);
+            depth = 0;
+            return null;
+          }
+          for (Node < E > cNode = descending ? node.left : node.right; cNode != null; cNode = descending ? cNode.right : cNode.left) {
+            push(cNode);
+          }
+          return node.data;
+        }
+
+        private boolean pastEnd(E e) {
+          if (to == null) return false;
+          int compareVal = compare(comparator, e, to);
+          return compareVal > 0 || (compareVal == 0 && !toInclusive);
+        }
+
+        private boolean pastStart(E e) {
+          if (from == null) return false;
+          int compareVal = compare(comparator, e, from);
+          return compareVal < 0 || (compareVal == 0 && !fromInclusive);
+        }
+
+        @Override
+        public void close() {
+          Arrays.fill(stack, 0, depth, null);
+          depth = 0;
+          from = null;
+          to = null;
+          closed = true;
+        }
+      }
+
+      @Override
+      /**
+       * Returns an iterator over the elements in the tree in ascending order.
+       *
+       * @return an iterator over the elements in the tree in ascending order.
+       */
+      public Iterator < E > iterator() {
+        return new InOrderIter();
+      }
+
+      /**
+       * Returns an iterator over the elements in the tree in order of the preorder traversal.
+       *
+       * @return an iterator over the elements in the tree in order of the preorder traversal.
+       */
+      public Iterator < E > preorderIterator() {
+        return new PreOrderIter();
+      }
+      /**
+       * Returns an iterator over the elements in the tree in order of the postorder traversal.
+       *
+       * @return an iterator over the elements in the tree in order of the postorder traversal.
+       */
+      public Iterator < E > postorderIterator() {
+        return new PostOrderIter();
+      }
+
+      /**
+       * Returns a spliterator over the elements in ascending order, which splits the tree at subtree boundaries.
+       *
+       * @return a spliterator over the elements in the tree.
+       */
+      @Override
+      public Spliterator < E > spliterator() {
+        return new SubtreeSpliterator(null, head, size, true, modCount);
+      }
+
+      /**
+       * Returns a sequential stream over the elements in ascending order.
+       *
+       * @return a stream over the elements in the tree.
+       */
+      public Stream < E > stream() {
+        return StreamSupport.stream(spliterator(), false);
+      }
+
+      /**
+       * Returns a parallel stream over the elements in ascending order.
+       *
+       * @return a possibly parallel stream over the elements in the tree.
+       */
+      public Stream < E > parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+      }
+
+      private static class Node < E extends Comparable < E >> {
+
+        E data;
+        int height;
+        Node < E > left,
+        right;
+
+        public Node(E data, Node < E > left, Node < E > right) {
+          this.data = data;
+          this.left = left;
+          this.right = right;
+          this.height = 1;
+        }
+      }
+
+      /**
+       * Compares two elements with the comparator, or by their natural order if it is null. add, remove and contains do not come
+       * through here: they branch on the comparator themselves, so each of their comparisons is a call site of its own that only
+       * ever sees one kind of receiver, and the JIT can inline it.
+       */
+      private static < E extends Comparable < E >> int compare(Comparator < ? super E > comparator, E a, E b) {
+        return (comparator == null) ? a.compareTo(b) : comparator.compare(a, b);
+      }
+
+      int getHeight(Node < E > cNode) {
+        return (cNode == null) ? 0 : cNode.height; //If the node is null it means there are no nodes (empty).
+      }
+
+      int getHeight() {
+        return getHeight(head); //Every node caches the height of its subtree, so the root holds the tree's height.
+      }
+
+      /**
+       * Records a node on the path from the root, growing the reusable path buffer when a descent goes deeper than before.
+       */
+      @SuppressWarnings("unchecked")
+      private void pushPath(int depth, Node < E > cNode) {
+        if (path == null) {
+          path = (Node < E > []) new Node < ? > [16];
+        } else if (depth == path.length) {
+          path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = cNode;
+      }
+
+      /**
+       * Recomputes the cached heights of the nodes on the recorded path, from the deepest one up to the root.
+       * Stops as soon as a height is unchanged, since the heights above it cannot change either.
+       */
+      private void updatePathHeights(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+          Node < E > cNode = path[i];
+          int newHeight = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+          if (newHeight == cNode.height) break;
+          cNode.height = newHeight;
+        }
+        clearPath(depth);
+      }
+
+      /**
+       * Clears the first depth entries of the path buffer, so it doesn't keep removed nodes reachable.
+       * A descent that stopped at the root recorded nothing, and the buffer may not even be allocated yet.
+       */
+      private void clearPath(int depth) {
+        if (depth > 0) Arrays.fill(path, 0, depth, null);
+      }
+
+      private boolean addHelper(E e) {
+        if (head == null) { //If the BST is empty make the first node equal to the specified element.
+          head = new Node < > (e, null, null);
+          size++; //increase size after every addition of a node.
+          return true;
+        }
+        int depth = 0;
+        Node < E > cNode = head;
+        Comparator < ? super E > comparator = this.comparator;
+        while (true) {
+          int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+          if (compareVal == 0) {
+            clearPath(depth);
+            return false;
+          }
+          pushPath(depth++, cNode);
+          Node < E > next = (compareVal < 0) ? cNode.left : cNode.right;
+          if (next == null) {
+            if (compareVal < 0) {
+              cNode.left = new Node < > (e, null, null);
+            } else {
+              cNode.right = new Node < > (e, null, null);
+            }
+            break;
+          }
+          cNode = next;
+        }
+        size++; //increase size after every addition of a node.
+        updatePathHeights(depth);
+        return true;
+      }
+      /**
+       * Adds the specified element to the tree.
+       *
+       * @param e Element to be added to the tree.
+       * @return true if this set did not already contain the specified element.
+       * @throws NullPointerException if the specified element is null.
+       */
+      public boolean add(E e) {
+        if (e == null) throw new NullPointerException("Element cannot be null");
+        ensureUnshared();
+        if (!addHelper(e)) return false;
+        modCount++;
+        return true;
+      }
+
+      /**
+       * Adds all elements from the specified collection to the tree.
+       *
+       * @param collection Collection containing elements to be added to the tree.
+       * @return true if this set changed as a result of the call.
+       * @throws NullPointerException if the specified collection is null.
+       */
+      public boolean addAll(Collection < ? extends E > collection) {
+        boolean changed = false;
+        for (E e: collection) {
+          if (e == null) throw new NullPointerException("Element cannot be null.");
+          changed |= this.add(e);
+        }
+        return changed;
+      }
+
+      private boolean removeHelper(Object o) {
+        if (head == null) {
+          return false; // If the tree is empty, the element is not in the tree.
+        } else if (!head.data.getClass().isInstance(o)) {
+          throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+        }
+        @SuppressWarnings("unchecked")
+        E e = (E) o;
+        int depth = 0;
+        Node < E > parent = null;
+        Node < E > cNode = head;
+        Comparator < ? super E > comparator = this.comparator;
+        while (cNode != null) {
+          int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+          if (compareVal == 0) break;
+          pushPath(depth++, cNode);
+          parent = cNode;
+          cNode = (compareVal < 0) ? cNode.left : cNode.right;
+        }
+        if (cNode == null) {
+          clearPath(depth);
+          return false; // If the node is null, the element is not in the tree.
+        }
+
+        if (cNode.left != null && cNode.right != null) {
+          // If it's Node with two children, then replace the node that's to be removed with the inorder successor.
+          pushPath(depth++, cNode);
+          Node < E > successorParent = cNode;
+          Node < E > successor = cNode.right;
+          while (successor.left != null) {
+            pushPath(depth++, successor);
+            successorParent = successor;
+            successor = successor.left;
+          }
+          cNode.data = successor.data;
+          if (successorParent == cNode) {
+            successorParent.right = successor.right;
+          } else {
+            successorParent.left = successor.right;
+          }
+        } else {
+          // If it's a leaf node, just remove the node; if it has a child node, put the child in its place.
+          Node < E > child = (cNode.left != null) ? cNode.left : cNode.right;
+          if (parent == null) {
+            head = child;
+          } else if (parent.left == cNode) {
+            parent.left = child;
+          } else {
+            parent.right = child;
+          }
+        }
+        size--;
+        updatePathHeights(depth);
+        return true;
+      }
+      /**
+       * Removes the specified element from the tree.
+       *
+       * @param o Object to be removed from the tree, if present.
+       * @return true if the tree contained the specified element.
+       * @throws ClassCastException if the specified object cannot be compared with the elements in the tree.
+       * @throws NullPointerException if the specified element is null.
+       */
+      public boolean remove(Object o) {
+        if (o == null) throw new NullPointerException("Specified element cannot be null.");
+        ensureUnshared();
+        if (!removeHelper(o)) return false;
+        modCount++;
+        return true;
+      }
+
+      /**
+       * Adds all of the elements in the specified collection in one pass over the tree. The batch is sorted, then merged into the
+       * tree top-down: each node splits the batch around its element and hands the halves to its subtrees, and a half that reaches
+       * an empty subtree is hung there as a balanced subtree of its own. Each affected node's height is updated once, on the way back up,
+       * and subtrees the batch does not reach are not visited. The walk uses an explicit stack, so a degenerate tree cannot overflow the call stack.
+       *
+       * @param batch Collection containing elements to be added to the tree.
+       * @return true if the tree changed as a result of the call.
+       * @throws NullPointerException if the specified collection or any of its elements is null.
+       * @throws ClassCastException   if the elements cannot be compared with one another or with the elements in the tree.
+       */
+      public boolean addBatch(Collection < ? extends E > batch) {
+        Object[] sorted = sortedDistinct(batch);
+        if (sorted.length == 0) return false;
+        ensureUnshared();
+        int oldSize = size;
+        head = mergeSorted(sorted, true);
+        if (size == oldSize) return false;
+        modCount++;
+        return true;
+      }
+
+      /**
+       * Removes all of the elements in the specified collection in one pass over the tree, the same way addBatch adds them.
+       * A node is removed after its subtrees have lost their share of the batch, so its replacement is never itself about to go.
+       *
+       * @param batch Collection containing elements to be removed from the tree.
+       * @return true if the tree changed as a result of the call.
+       * @throws NullPointerException if the specified collection or any of its elements is null.
+       * @throws ClassCastException   if the elements cannot be compared with one another or with the elements in the tree.
+       */
+      public boolean removeBatch(Collection < ? extends E > batch) {
+        Object[] sorted = sortedDistinct(batch);
+        if (sorted.length == 0 || head == null) return false;
+        ensureUnshared();
+        int oldSize = size;
+        head = mergeSorted(sorted, false);
+        if (size == oldSize) return false;
+        modCount++;
+        return true;
+      }
+
+      /**
+       * A node visited by mergeSorted, with the part of the batch that falls in its subtree.
+       */
+      private static final class Frame < E extends Comparable < E >> {
+        final Node < E > node;
+        final int from, to;
+        int split; // Index of the first batch element greater than the node's element.
+        boolean present; // Whether the node's element is in the batch.
+        int phase; // 0 before the left subtree is merged, 1 before the right one, 2 when both are done.
+
+        Frame(Node < E > node, int from, int to) {
+          this.node = node;
+          this.from = from;
+          this.to = to;
+        }
+      }
+
+      /**
+       * Adds or removes the sorted batch in a single post-order walk over the subtrees it reaches, and returns the new root.
+       */
+      private Node < E > mergeSorted(Object[] sorted, boolean adding) {
+        if (head == null) {
+          size = sorted.length;
+          return buildBalanced(sorted, 0, sorted.length);
+        }
+        ArrayDeque < Frame < E >> stack = new ArrayDeque < > ();
+        stack.push(new Frame < > (head, 0, sorted.length));
+        Node < E > root = head;
+        while (!stack.isEmpty()) {
+          Frame < E > frame = stack.peek();
+          Node < E > cNode = frame.node;
+          if (frame.phase == 0) {
+            int split = lowerBound(sorted, frame.from, frame.to, cNode.data, comparator);
+            frame.present = split < frame.to && compare(comparator, cNode.data, cast(sorted[split])) == 0;
+            frame.split = frame.present ? split + 1 : split;
+            frame.phase = 1;
+            if (frame.from < split) {
+              if (cNode.left != null) {
+                stack.push(new Frame < > (cNode.left, frame.from, split));
+              } else if (adding) {
+                cNode.left = buildBalanced(sorted, frame.from, split);
+                size += split - frame.from;
+              }
+            }
+            continue;
+          }
+          if (frame.phase == 1) {
+            frame.phase = 2;
+            if (frame.split < frame.to) {
+              if (cNode.right != null) {
+                stack.push(new Frame < > (cNode.right, frame.split, frame.to));
+              } else if (adding) {
+                cNode.right = buildBalanced(sorted, frame.split, frame.to);
+                size += frame.to - frame.split;
+              }
+            }
+            continue;
+          }
+          stack.pop();
+          Node < E > replacement = cNode;
+          if (!adding && frame.present) {
+            replacement = unlink(cNode);
+            size--;
+          } else {
+            cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+          }
+          Frame < E > parent = stack.peek();
+          if (parent == null) {
+            root = replacement;
+          } else if (parent.phase == 1) {
+            parent.node.left = replacement;
+          } else {
+            parent.node.right = replacement;
+          }
+        }
+        return root;
+      }
+
+      /**
+       * Removes a node whose subtrees are already final and returns what takes its place, as removeHelper does:
+       * its only child, or the node itself holding the element of its inorder successor.
+       */
+      private Node < E > unlink(Node < E > cNode) {
+        if (cNode.left == null || cNode.right == null) return (cNode.left != null) ? cNode.left : cNode.right;
+        int depth = 0;
+        pushPath(depth++, cNode);
+        Node < E > successorParent = cNode;
+        Node < E > successor = cNode.right;
+        while (successor.left != null) {
+          pushPath(depth++, successor);
+          successorParent = successor;
+          successor = successor.left;
+        }
+        cNode.data = successor.data;
+        if (successorParent == cNode) {
+          successorParent.right = successor.right;
+        } else {
+          successorParent.left = successor.right;
+        }
+        updatePathHeights(depth);
+        cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right)); // The path update may stop below it.
+        return cNode;
+      }
+
+      /**
+       * Returns the elements of the batch sorted, without duplicates.
+       */
+      @SuppressWarnings("unchecked")
+      private Object[] sortedDistinct(Collection < ? > batch) {
+        Object[] sorted = batch.toArray();
+        for (Object e: sorted) {
+          if (e == null) throw new NullPointerException("Element cannot be null.");
+        }
+        if (!(batch instanceof SortedSet && Objects.equals(((SortedSet < ? > ) batch).comparator(), comparator))) {
+          sort(sorted, comparator);
+        }
+        int count = sorted.length == 0 ? 0 : 1;
+        for (int i = 1; i < sorted.length; i++) {
+          if (compare(comparator, (E) sorted[i], (E) sorted[count - 1]) != 0) {
+            sorted[count++] = sorted[i];
+          }
+        }
+        return (count == sorted.length) ? sorted : Arrays.copyOf(sorted, count);
+      }
+
+      /**
+       * Returns the index of the first element of sorted[from, to) that is not less than the key.
+       */
+      @SuppressWarnings("unchecked")
+      private static < E extends Comparable < E >> int lowerBound(Object[] sorted, int from, int to, E key, Comparator < ? super E > comparator) {
+        while (from < to) {
+          int mid = (from + to) >>> 1;
+          if (compare(comparator, (E) sorted[mid], key) < 0) {
+            from = mid + 1;
+          } else {
+            to = mid;
+          }
+        }
+        return from;
+      }
+
+      @SuppressWarnings("unchecked")
+      private static < E > E cast(Object o) {
+        return (E) o;
+      }
+
+      /**
+       * Sorts elements by the comparator, or by their natural order if it is null.
+       */
+      @SuppressWarnings("unchecked")
+      private static void sort(Object[] elements, Comparator < ? > comparator) {
+        Arrays.sort(elements, (Comparator < Object > ) comparator);
+      }
+
+      /**
+       * Builds a perfectly balanced subtree from sorted[from, to) by rooting it at the middle element.
+       */
+      private Node < E > buildBalanced(Object[] sorted, int from, int to) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        Node < E > cNode = new Node < > (cast(sorted[mid]), buildBalanced(sorted, from, mid), buildBalanced(sorted, mid + 1, to));
+        cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+        return cNode;
+      }
+
+      /**
+       * Removes all elements from the tree.
+       */
+      public void clear() {
+        if (sharing != null) {
+          sharing.owners--; // The nodes are dropped rather than copied, leaving them to the other owners.
+          sharing = null;
+        }
+        head = null;
+        size = 0;
+        modCount++;
+      }
+
+      public boolean containsHelper(Object o, Node < E > cNode) {
+        if (cNode == null) return false;
+
+        if (!cNode.data.getClass().isInstance(o)) {
+          throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+        }
+
+        // The type is checked once above, then the search follows the ordering down a single path, in a loop written for that ordering.
+        @SuppressWarnings("unchecked")
+        E e = (E) o;
+        if (comparator == null) {
+          while (cNode != null) {
+            int compareVal = e.compareTo(cNode.data);
+            if (compareVal < 0) {
+              cNode = cNode.left;
+            } else if (compareVal > 0) {
+              cNode = cNode.right;
+            } else {
+              return true;
+            }
+          }
+          return false;
+        }
+        Comparator < ? super E > comparator = this.comparator;
+        while (cNode != null) {
+          int compareVal = comparator.compare(e, cNode.data);
+          if (compareVal < 0) {
+            cNode = cNode.left;
+          } else if (compareVal > 0) {
+            cNode = cNode.right;
+          } else {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      /**
+       * Checks if the tree contains the specified element.
+       *
+       * @param o Object to be checked for containment in the tree.
+       * @return true if the tree contains the specified element.
+       * @throws ClassCastException if the specified object cannot be compared with the elements in the tree.
+       * @throws NullPointerException if the specified element is null.
+       */
+      public boolean contains(Object o) {
+        Node < E > cNode = head;
+        if (o == null) throw new NullPointerException("Specified element cannot be null.");
+        return containsHelper(o, cNode);
+      }
+
+      /**
+       * Checks if the tree contains all elements from the specified collection.
+       * The probes are sorted (unless the collection is already a naturally ordered SortedSet) and then
+       * looked up in a single merged descent, so each tree node is compared against at most one run of probes.
+       *
+       * @param c Collection to be checked for containment in the tree.
+       * @return true if the tree contains all elements in the specified collection.
+       * @throws ClassCastException if an element of the collection cannot be compared with the elements in the tree.
+       * @throws NullPointerException if the specified collection contains null elements or if the specified collection is null.
+       */
+      public boolean containsAll(Collection < ? > c) {
+        if (c == null) throw new NullPointerException("Specified collection cannot be null.");
+        if (c.isEmpty()) return true;
+        Object[] probes = c.toArray();
+        for (Object o: probes) {
+          if (o == null) throw new NullPointerException("Specified collection cannot contain null elements.");
+          if (head != null && !head.data.getClass().isInstance(o)) {
+            throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+          }
+        }
+        if (head == null) return false;
+        if (!(c instanceof SortedSet && Objects.equals(((SortedSet < ? > ) c).comparator(), comparator))) {
+          sort(probes, comparator);
+        }
+        return containsAllHelper(head, probes, 0, probes.length);
+      }
+
+      /**
+       * Checks that every probe in probes[from, to) is found in the subtree rooted at cNode.
+       * The probes must be sorted in ascending order.
+       */
+      @SuppressWarnings("unchecked")
+      private boolean containsAllHelper(Node < E > cNode, Object[] probes, int from, int to) {
+        if (from >= to) return true;
+        if (cNode == null) return false;
+
+        // Pending subtrees and the [from, to) probe ranges they still have to contain, so deep trees don't overflow the stack.
+        ArrayDeque < Node < E >> nodes = new ArrayDeque < > ();
+        int[] ranges = new int[16];
+        int pending = 0;
+        nodes.push(cNode);
+        ranges[0] = from;
+        ranges[1] = to;
+        pending++;
+        while (pending > 0) {
+          cNode = nodes.pop();
+          pending--;
+          from = ranges[2 * pending];
+          to = ranges[2 * pending + 1];
+
+          // Binary search for the first probe that is not less than the current node.
+          int low = from, high = to;
+          while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(comparator, (E) probes[mid], cNode.data) < 0) low = mid + 1;
+            else high = mid;
+          }
+          int leftTo = low;
+
+          // Skip the probes that match the current node (the collection may hold duplicates).
+          while (low < to && compare(comparator, (E) probes[low], cNode.data) == 0) low++;
+
+          if (from < leftTo) {
+            if (cNode.left == null) return false;
+            if (2 * pending + 2 > ranges.length) ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            nodes.push(cNode.left);
+            ranges[2 * pending] = from;
+            ranges[2 * pending + 1] = leftTo;
+            pending++;
+          }
+          if (low < to) {
+            if (cNode.right == null) return false;
+            if (2 * pending + 2 > ranges.length) ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            nodes.push(cNode.right);
+            ranges[2 * pending] = low;
+            ranges[2 * pending + 1] = to;
+            pending++;
+          }
+        }
+        return true;
+      }
+
+      /**
+       * Returns the number of elements in the tree.
+       *
+       * @return the number of elements in the tree.
+       */
+      public int size() {
+        return size;
+      }
+
+      /**
+       * Checks if the tree is empty.
+       *
+       * @return true if the tree contains no elements.
+       */
+      public boolean isEmpty() {
+        return head == null;
+      }
+
+      /**
+       * Returns the height of the tree.
+       *
+       * @return the height of the tree or zero if the tree is empty.
+       */
+      public int height() {
+        return getHeight();
+      }
+
+      /**
+       * Returns the element at the specified position in the tree.
+       *
+       * @param index Index of the element to return.
+       * @return the element at the specified position in the tree.
+       * @throws IndexOutOfBoundsException if the index is out of range.
+       */
+      public E get(int index) {
+        if (size() == 0) return null;
+        if (index < 0 || index >= size)
+          throw new IndexOutOfBoundsException(String.format("%s%d%s%d", "The specified index should be between ", 0, " and ", size - 1));
+        Iterator < E > iter = new InOrderIter();
+        while (index != 0 && iter.hasNext()) {
+          iter.next();
+          index--;
+        }
+        return iter.next();
+      }
+
+      /**
+       * Rejects a null probe, and a probe of another class than the elements, with one type check at the root.
+       */
+      private void checkProbe(E e, Node < E > cNode) {
+        if (e == null) throw new NullPointerException("Element cannot be null");
+        if (cNode != null && !cNode.data.getClass().isInstance(e)) {
+          throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+        }
+      }
+
+      // The navigation loops make one comparison per level. Each branches on the comparator, so the comparison for either ordering
+      // is a call site of its own and stays monomorphic.
+      private E ceilingHelper(E e, Node < E > cNode) {
+        checkProbe(e, cNode);
+        if (cNode == null) return null;
+        Comparator < ? super E > comparator = this.comparator;
+        Node < E > ceil = null;
+        while (cNode != null) {
+          int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+          if (compareVal == 0) return cNode.data;
+          if (compareVal < 0) {
+            ceil = cNode; // Candidate; a smaller one may still be in the left subtree.
+            cNode = cNode.left;
+          } else {
+            cNode = cNode.right;
+          }
+        }
+        return (ceil == null) ? null : ceil.data;
+      }
+      /**
+       * Returns the least element in the tree greater than or equal to the given element.
+       *
+       * @param e The value to match.
+       * @return the least element greater than or equal to e, or null if there is no such element.
+       * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+       * @throws NullPointerException if the specified element is null.
+       */
+      public E ceiling(E e) {
+        Node < E > cNode = head;
+        return ceilingHelper(e, cNode);
+      }
+
+      private E floorHelper(E e, Node < E > cNode) {
+        checkProbe(e, cNode);
+        if (cNode == null) return null;
+        Comparator < ? super E > comparator = this.comparator;
+        Node < E > floor = null;
+        while (cNode != null) {
+          int compareVal = (comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data);
+          if (compareVal == 0) return cNode.data;
+          if (compareVal > 0) {
+            floor = cNode; // Candidate; a greater one may still be in the right subtree.
+            cNode = cNode.right;
+          } else {
+            cNode = cNode.left;
+          }
+        }
+        return (floor == null) ? null : floor.data;
+      }
+
+      /**
+       * Returns the greatest element in the tree less than or equal to the given element.
+       *
+       * @param e The value to match.
+       * @return the greatest element less than or equal to e, or null if there is no such element.
+       * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+       * @throws NullPointerException if the specified element is null.
+       */
+      public E floor(E e) {
+        Node < E > cNode = head;
+        return floorHelper(e, cNode);
+      }
+      /**
+       * Returns the first (lowest) element currently in the tree.
+       *
+       * @return the first (lowest) element currently in the tree.
+       * @throws NoSuchElementException if the tree is empty.
+       */
+      public E first() {
+        if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+        Node < E > cNode = head;
+        while (cNode.left != null) cNode = cNode.left;
+        return cNode.data;
+      }
+      /**
+       * Returns the last (highest) element currently in the tree.
+       *
+       * @return the last (highest) element currently in the tree.
+       * @throws NoSuchElementException if the tree is empty.
+       */
+      public E last() {
+        if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+        Node < E > cNode = head;
+        while (cNode.right != null) cNode = cNode.right;
+        return cNode.data;
+      }
+
+      private E lowerHelper(E e, Node < E > cNode) {
+        checkProbe(e, cNode);
+        if (cNode == null) return null;
+        Comparator < ? super E > comparator = this.comparator;
+        Node < E > lower = null;
+        while (cNode != null) {
+          if (((comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data)) > 0) {
+            lower = cNode;
+            cNode = cNode.right;
+          } else {
+            cNode = cNode.left;
+          }
+        }
+        return (lower == null) ? null : lower.data;
+      }
+
+      /**
+       * Returns the greatest element in the tree strictly less than the given element.
+       *
+       * @param e The value to match.
+       * @return the greatest element less than e, or null
+       */
+      public E lower(E e) {
+        Node < E > cNode = head;
+        return lowerHelper(e, cNode);
+      }
+
+      private E higherHelper(E e, Node < E > cNode) {
+        checkProbe(e, cNode);
+        if (cNode == null) return null;
+        Comparator < ? super E > comparator = this.comparator;
+        Node < E > higher = null;
+        while (cNode != null) {
+          if (((comparator == null) ? e.compareTo(cNode.data) : comparator.compare(e, cNode.data)) < 0) {
+            higher = cNode;
+            cNode = cNode.left;
+          } else {
+            cNode = cNode.right;
+          }
+        }
+        return (higher == null) ? null : higher.data;
+      }
+
+      public E higher(E e) {
+        Node < E > cNode = head;
+        return higherHelper(e, cNode);
+      }
+
+      /**
+       * Returns the ceiling of every probe in a single merged descent, instead of one descent per probe. Each node splits the probes
+       * around its element and hands each side to its subtree, so subtrees no probe reaches are never visited, and k probes cost
+       * O(k log(n/k + 1)) comparisons on a balanced tree.
+       *
+       * @param sortedProbes Probes in ascending order; duplicates are allowed.
+       * @return a list holding, at each probe's index, the least element greater than or equal to it, or null if there is none.
+       * @throws NullPointerException     if the list or any probe is null.
+       * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+       * @throws IllegalArgumentException if the probes are not in ascending order.
+       */
+      public ArrayList < E > ceilingAll(List < ? extends E > sortedProbes) {
+        return navigateAll(sortedProbes, true, true);
+      }
+
+      /**
+       * Returns the floor of every probe in a single merged descent, as ceilingAll does.
+       *
+       * @param sortedProbes Probes in ascending order; duplicates are allowed.
+       * @return a list holding, at each probe's index, the greatest element less than or equal to it, or null if there is none.
+       * @throws NullPointerException     if the list or any probe is null.
+       * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+       * @throws IllegalArgumentException if the probes are not in ascending order.
+       */
+      public ArrayList < E > floorAll(List < ? extends E > sortedProbes) {
+        return navigateAll(sortedProbes, false, true);
+      }
+
+      /**
+       * Returns the next higher element for every probe in a single merged descent, as ceilingAll does.
+       *
+       * @param sortedProbes Probes in ascending order; duplicates are allowed.
+       * @return a list holding, at each probe's index, the least element strictly greater than it, or null if there is none.
+       * @throws NullPointerException     if the list or any probe is null.
+       * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+       * @throws IllegalArgumentException if the probes are not in ascending order.
+       */
+      public ArrayList < E > higherAll(List < ? extends E > sortedProbes) {
+        return navigateAll(sortedProbes, true, false);
+      }
+
+      /**
+       * Returns the next lower element for every probe in a single merged descent, as ceilingAll does.
+       *
+       * @param sortedProbes Probes in ascending order; duplicates are allowed.
+       * @return a list holding, at each probe's index, the greatest element strictly less than it, or null if there is none.
+       * @throws NullPointerException     if the list or any probe is null.
+       * @throws ClassCastException       if a probe cannot be compared with the elements in the tree.
+       * @throws IllegalArgumentException if the probes are not in ascending order.
+       */
+      public ArrayList < E > lowerAll(List < ? extends E > sortedProbes) {
+        return navigateAll(sortedProbes, false, false);
+      }
+
+      /**
+       * Answers ceiling (upward and inclusive), higher, floor or lower for every probe. The probes are checked once up front,
+       * so the walk itself runs without type checks.
+       */
+      private ArrayList < E > navigateAll(List < ? extends E > sortedProbes, boolean upward, boolean inclusive) {
+        if (sortedProbes == null) throw new NullPointerException("This function's argument does not accept null.");
+        Object[] probes = sortedProbes.toArray();
+        E previous = null;
+        for (Object o: probes) {
+          E probe = cast(o);
+          checkProbe(probe, head);
+          if (previous != null && compare(comparator, previous, probe) > 0) {
+            throw new IllegalArgumentException("The probes should be in ascending order.");
+          }
+          previous = probe;
+        }
+        Object[] answers = new Object[probes.length];
+        if (probes.length > 0) navigateAllHelper(probes, upward, inclusive, answers);
+        ArrayList < E > result = new ArrayList < > (answers.length);
+        for (Object answer: answers) {
+          result.add(cast(answer));
+        }
+        return result;
+      }
+
+      private E navigateOne(E e, Node < E > cNode, boolean upward, boolean inclusive) {
+        if (upward) return inclusive ? ceilingHelper(e, cNode) : higherHelper(e, cNode);
+        return inclusive ? floorHelper(e, cNode) : lowerHelper(e, cNode);
+      }
+
+      /**
+       * Walks the subtrees the probes lead into. Each pending subtree carries its [from, to) probe range and a candidate: the
+       * nearest element on the answering side of those probes met on the way down, which becomes their answer if the subtree is empty.
+       */
+      private void navigateAllHelper(Object[] probes, boolean upward, boolean inclusive, Object[] answers) {
+        // Pending subtrees, their candidates and their probe ranges, so deep trees don't overflow the stack.
+        ArrayDeque < Node < E >> nodes = new ArrayDeque < > ();
+        Object[] candidates = new Object[8];
+        int[] ranges = new int[16];
+        int pending = 0;
+        Node < E > cNode = head;
+        E candidate = null;
+        int from = 0, to = probes.length;
+        while (true) {
+          if (cNode == null) {
+            Arrays.fill(answers, from, to, candidate);
+          } else if (to - from == 1) { // A lone probe finishes with a plain descent.
+            E found = navigateOne(cast(probes[from]), cNode, upward, inclusive);
+            answers[from] = (found != null) ? found : candidate;
+          } else {
+            int below = lowerBound(probes, from, to, cNode.data, comparator); // probes[from, below) are less than the node's element.
+            int equalEnd = below; // probes[below, equalEnd) are equal to it.
+            while (equalEnd < to && compare(comparator, cast(probes[equalEnd]), cNode.data) == 0) equalEnd++;
+            int leftEnd, rightStart;
+            if (inclusive) {
+              Arrays.fill(answers, below, equalEnd, cNode.data);
+              leftEnd = below;
+              rightStart = equalEnd;
+            } else {
+              // A probe equal to the element looks past it: for higher into the right subtree, for lower into the left one.
+              leftEnd = rightStart = upward ? below : equalEnd;
+            }
+            if (rightStart < to && cNode.right == null) {
+              Arrays.fill(answers, rightStart, to, upward ? candidate : cNode.data);
+            } else if (rightStart < to) {
+              if (pending == candidates.length) {
+                candidates = Arrays.copyOf(candidates, pending * 2);
+                ranges = Arrays.copyOf(ranges, pending * 4);
+              }
+              nodes.push(cNode.right);
+              candidates[pending] = upward ? candidate : cNode.data;
+              ranges[2 * pending] = rightStart;
+              ranges[2 * pending + 1] = to;
+              pending++;
+            }
+            if (from < leftEnd) {
+              if (upward) candidate = cNode.data;
+              cNode = cNode.left;
+              to = leftEnd;
+              continue;
+            }
+          }
+          if (pending == 0) return;
+          pending--;
+          cNode = nodes.pop();
+          candidate = cast(candidates[pending]);
+          candidates[pending] = null;
+          from = ranges[2 * pending];
+          to = ranges[2 * pending + 1];
+        }
+      }
+
+      /**
+       * Removes and returns the lowest element, or returns null if the tree is empty.
+       *
+       * @return the lowest element, or null if the tree is empty.
+       */
+      public E pollFirst() {
+        if (head == null) return null;
+        E e = first();
+        remove(e);
+        return e;
+      }
+
+      /**
+       * Removes and returns the highest element, or returns null if the tree is empty.
+       *
+       * @return the highest element, or null if the tree is empty.
+       */
+      public E pollLast() {
+        if (head == null) return null;
+        E e = last();
+        remove(e);
+        return e;
+      }
+
+      /**
+       * Returns the comparator that orders the tree, or null if the elements are kept in their natural order.
+       *
+       * @return the comparator, or null.
+       */
+      public Comparator < ? super E > comparator() {
+        return comparator;
+      }
+
+      /**
+       * Returns a live view of the elements in descending order. Changes to the tree show in the view, and the other way round.
+       *
+       * @return a descending view of the tree.
+       */
+      public NavigableSet < E > descendingSet() {
+        return new TreeSubSet < > (this, null, false, null, false, true);
+      }
+
+      public Iterator < E > descendingIterator() {
+        return new TreeSubSet.RangeIterator < > (this, null, false, null, false, true);
+      }
+
+      /**
+       * Returns a live view of the elements ranging from fromElement to toElement, created in O(1).
+       * Changes to the tree show in the view and the other way round; adding an element outside the range through the view is refused.
+       *
+       * @param fromElement   Low endpoint of the view.
+       * @param fromInclusive true if the low endpoint is part of the view.
+       * @param toElement     High endpoint of the view.
+       * @param toInclusive   true if the high endpoint is part of the view.
+       * @return a view of the part of the tree from fromElement to toElement.
+       * @throws NullPointerException     if fromElement or toElement is null.
+       * @throws IllegalArgumentException if fromElement is greater than toElement.
+       */
+      public NavigableSet < E > subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+        return new TreeSubSet < > (this, fromElement, fromInclusive, toElement, toInclusive, false);
+      }
+
+      /**
+       * Returns a live view of the elements less than (or equal to, if inclusive) toElement, created in O(1).
+       *
+       * @param toElement High endpoint of the view.
+       * @param inclusive true if the high endpoint is part of the view.
+       * @return a view of the part of the tree below toElement.
+       * @throws NullPointerException if toElement is null.
+       */
+      public NavigableSet < E > headSet(E toElement, boolean inclusive) {
+        if (toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+        return new TreeSubSet < > (this, null, false, toElement, inclusive, false);
+      }
+
+      /**
+       * Returns a live view of the elements greater than (or equal to, if inclusive) fromElement, created in O(1).
+       *
+       * @param fromElement Low endpoint of the view.
+       * @param inclusive   true if the low endpoint is part of the view.
+       * @return a view of the part of the tree above fromElement.
+       * @throws NullPointerException if fromElement is null.
+       */
+      public NavigableSet < E > tailSet(E fromElement, boolean inclusive) {
+        if (fromElement == null) throw new NullPointerException("This function's argument does not accept null.");
+        return new TreeSubSet < > (this, fromElement, inclusive, null, false, false);
+      }
+
+      public SortedSet < E > subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+      }
+
+      public SortedSet < E > headSet(E toElement) {
+        return headSet(toElement, false);
+      }
+
+      public SortedSet < E > tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public boolean equals(Object obj) {
+        if (this.getClass().isInstance(obj) && Objects.equals(((BST < E > ) obj).comparator, comparator)) {
+          BST < E > compareTree = (BST < E > ) obj;
+          if (compareTree.size() == this.size()) {
+            //Traverse the tree using for loop and use the get method to check if each element is equal with the compareTo method.
+            Iterator < E > it1 = iterator();
+            Iterator < E > it2 = compareTree.iterator();
+            while (it1.hasNext()) {
+              if (compare(comparator, it1.next(), it2.next()) != 0) {
+                return false;
+              }
+            }
+            return true;
+          }
+        }
+        return super.equals(obj); // Any other set is equal if it holds the same elements.
+      }
+
+      @Override
+      public String toString() {
+        Iterator < E > it = iterator();
+        StringBuilder sb = new StringBuilder("[");
+        if (size() == 0) return "[]";
+        while (it.hasNext()) {
+          sb.append(String.valueOf(it.next() + ", "));
+        }
+        sb.delete(sb.length() - 2, sb.length());
+        sb.append("]");
+
+        return sb.toString();
+      }
+
+      public Object[] toArray() {
+        Object[] o = new Object[size()];
+        int i = 0;
+        for (E e: this) {
+          o[i++] = e;
+        }
+        return o;
+      }
+
+      private String getIndentation(int depth) {
+        StringBuilder indentation = new StringBuilder();
+        indentation.append("   |".repeat(Math.max(0, depth)));
+        return indentation.toString();
+      }
+      // Method to get a string representation of the tree in tree format
+      public String toStringTreeFormat() {
+        StringBuilder sb = new StringBuilder();
+        toStringTreeFormat(head, 0, sb);
+        return sb.toString();
+      }
+
+      public void toStringTreeFormat(Node < E > currentNode, int currentDepth, StringBuilder resultBuilder) {
+        // Pre-order walk with an explicit stack; null children are kept so they print as "-null".
+        ArrayList < Node < E >> nodes = new ArrayList < > ();
+        ArrayList < Integer > depths = new ArrayList < > ();
+        nodes.add(currentNode);
+        depths.add(currentDepth);
+        while (!nodes.isEmpty()) {
+          currentNode = nodes.remove(nodes.size() - 1);
+          currentDepth = depths.remove(depths.size() - 1);
+          for (int i = 0; i < currentDepth; i++) {
+            resultBuilder.append("|  ");
+          }
+
+          if (currentNode == null) {
+            resultBuilder.append("-null\n");
+            continue;
+          }
+
+          resultBuilder.append("-").append(currentNode.data).append("\n");
+
+          nodes.add(currentNode.right);
+          depths.add(currentDepth + 1);
+          nodes.add(currentNode.left);
+          depths.add(currentDepth + 1);
+        }
+      }
+
+      /**
+       * Returns a collection whose elements range from fromElement to toElement.
+       *
+       * @param fromElement Low endpoint (inclusive) of the returned collection.
+       * @param toElement   High endpoint (inclusive) of the returned collection.
+       * @return a collection containing a portion of this tree whose elements range from fromElement to toElement.
+       * @throws NullPointerException     if fromElement or toElement is null.
+       * @throws IllegalArgumentException if fromElement is greater than toElement.
+       */
+      public ArrayList < E > getRange(E fromElement, E toElement) {
+        if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+
+        if (compare(comparator, fromElement, toElement) > 0) throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+
+        ArrayList < E > result = new ArrayList < > ();
+        getRangeHelper(head, fromElement, toElement, result);
+        return result;
+      }
+
+      /**
+       * Opens a cursor over the elements from fromElement to toElement, in ascending order. Unlike getRange it builds no list:
+       * the elements are found one at a time as next() is called, and the cursor can be reset and reused for later scans.
+       * A null endpoint leaves that end of the range open.
+       *
+       * @param fromElement   Low endpoint of the range, or null for no low endpoint.
+       * @param fromInclusive true if the low endpoint is part of the range.
+       * @param toElement     High endpoint of the range, or null for no high endpoint.
+       * @param toInclusive   true if the high endpoint is part of the range.
+       * @return a cursor positioned before the first element of the range.
+       * @throws IllegalArgumentException if fromElement is greater than toElement.
+       */
+      public RangeCursor < E > openRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return openRange(fromElement, fromInclusive, toElement, toInclusive, false);
+      }
+
+      /**
+       * Opens a cursor over the elements from fromElement to toElement, in ascending or, if descending is true, descending order.
+       *
+       * @param fromElement   Low endpoint of the range, or null for no low endpoint.
+       * @param fromInclusive true if the low endpoint is part of the range.
+       * @param toElement     High endpoint of the range, or null for no high endpoint.
+       * @param toInclusive   true if the high endpoint is part of the range.
+       * @param descending    true to walk the range from its high end down.
+       * @return a cursor positioned before the first element of the range in the chosen order.
+       * @throws IllegalArgumentException if fromElement is greater than toElement.
+       */
+      public RangeCursor < E > openRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive, boolean descending) {
+        TreeCursor cursor = new TreeCursor(descending);
+        cursor.reset(fromElement, fromInclusive, toElement, toInclusive);
+        return cursor;
+      }
+
+      /**
+       * Returns the number of elements between fromElement and toElement, in O(h + k) time for k elements in the range,
+       * since the tree keeps no subtree sizes. A null endpoint leaves that end of the range open.
+       *
+       * @param fromElement   Low endpoint of the range, or null for no low endpoint.
+       * @param fromInclusive true if the low endpoint is part of the range.
+       * @param toElement     High endpoint of the range, or null for no high endpoint.
+       * @param toInclusive   true if the high endpoint is part of the range.
+       * @return the number of elements in the range.
+       * @throws IllegalArgumentException if fromElement is greater than toElement.
+       */
+      public int countInRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null && toElement == null) return size;
+        RangeCursor < E > cursor = openRange(fromElement, fromInclusive, toElement, toInclusive, false);
+        int count = 0;
+        while (cursor.next() != null) {
+          count++;
+        }
+        return count;
+      }
+
+      private void getRangeHelper(Node < E > node, E fromElement, E toElement, ArrayList < E > result) {
+        ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+        while (node != null || !stack.isEmpty()) {
+          // Descend towards the smallest element not below fromElement, skipping subtrees that are entirely below it.
+          while (node != null) {
+            if (compare(comparator, fromElement, node.data) <= 0) {
+              stack.push(node);
+              node = node.left;
+            } else {
+              node = node.right;
+            }
+          }
+          if (stack.isEmpty()) return;
+          node = stack.pop();
+
+          // Stop at the first element above toElement, everything after it is greater still.
+          if (compare(comparator, toElement, node.data) < 0) return;
+          result.add(node.data);
+          node = node.right;
+        }
+      }
+    }
+
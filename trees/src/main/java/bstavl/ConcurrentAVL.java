@@ -0,0 +1,883 @@
+package bstavl;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Elijah Philip
+ * This class is a thread-safe AVL tree, following Bronson, Casper, Chafi and Olukotun, "A Practical Concurrent Binary Search Tree" (PPoPP 2010).
+ * Readers never lock. Every node carries a version number (its OVL) that a rotation bumps whenever the node's key range
+ * shrinks, and a reader moving from a node to its child re-checks the node's version: if it changed, the step is retried
+ * from the closest ancestor that is still valid. Writers lock only the nodes they change, plus the parent when they unlink one.
+ * Removing a node with two children only clears its "present" flag; the node keeps routing searches until it has at most one
+ * child, when rebalancing unlinks it. Balance is relaxed while updates are in flight and restored as they finish.
+ * Null elements are not permitted.
+ */
+public class ConcurrentAVL < E extends Comparable < E >> implements Iterable < E > {
+
+  // Bits of a node's version (OVL). The counts above the flags make every grow and shrink produce a new version.
+  private static final long UNLINKED = 0x1L;
+  private static final long GROWING = 0x2L;
+  private static final long SHRINKING = 0x4L;
+  private static final long GROW_COUNT_INCR = 1L << 3;
+  private static final long GROW_COUNT_MASK = 0xffL << 3;
+  private static final long SHRINK_COUNT_INCR = 1L << 11;
+  private static final long IGNORE_GROW = ~(GROWING | GROW_COUNT_MASK);
+
+  private static final int SPIN_COUNT = 100;
+
+  // Results of nodeCondition other than a new height.
+  private static final int UNLINK_REQUIRED = -1;
+  private static final int REBALANCE_REQUIRED = -2;
+  private static final int NOTHING_REQUIRED = -3;
+
+  // Results of the optimistic attempts that do not carry an answer.
+  private static final Object RETRY = new Object();
+  private static final Object NONE = new Object();
+
+  private static final int LEFT = -1;
+  private static final int RIGHT = 1;
+
+  /**
+   * Never holds a key; the real root is its right child, so the root can be rotated like any other node.
+   */
+  private final Node < E > rootHolder = new Node < > (null, 1, false, null, 0L);
+  private final LongAdder size = new LongAdder();
+
+  /**
+   * Constructs a new, empty tree.
+   */
+  public ConcurrentAVL() {
+  }
+
+  private static final class Node < E > {
+    final E key;
+    volatile int height;
+    volatile boolean present; // False for routing nodes, whose key was removed while they still had two children.
+    volatile long changeOVL;
+    volatile Node < E > parent;
+    volatile Node < E > left;
+    volatile Node < E > right;
+
+    Node(E key, int height, boolean present, Node < E > parent, long changeOVL) {
+      this.key = key;
+      this.height = height;
+      this.present = present;
+      this.parent = parent;
+      this.changeOVL = changeOVL;
+    }
+
+    Node < E > child(int dir) {
+      return (dir < 0) ? left : right;
+    }
+
+    void setChild(int dir, Node < E > node) {
+      if (dir < 0) {
+        left = node;
+      } else {
+        right = node;
+      }
+    }
+
+    /**
+     * Waits for a rotation that has marked this node as changing to finish. Spins briefly, then blocks on the node's lock,
+     * which the rotating thread holds until it is done.
+     */
+    void waitUntilChangeCompleted(long ovl) {
+      if (!isChanging(ovl)) return;
+      for (int tries = 0; tries < SPIN_COUNT; tries++) {
+        if (changeOVL != ovl) return;
+        Thread.onSpinWait();
+      }
+      synchronized(this) {
+        // Acquiring the lock means the change is over.
+      }
+    }
+  }
+
+  private static boolean isChanging(long ovl) {
+    return (ovl & (SHRINKING | GROWING)) != 0;
+  }
+
+  private static boolean isUnlinked(long ovl) {
+    return ovl == UNLINKED;
+  }
+
+  private static boolean isShrinkingOrUnlinked(long ovl) {
+    return (ovl & (SHRINKING | UNLINKED)) != 0;
+  }
+
+  /**
+   * Growing a node only widens its key range, so it does not invalidate a search that passed through the node.
+   */
+  private static boolean hasShrunkOrUnlinked(long orig, long current) {
+    return ((orig ^ current) & IGNORE_GROW) != 0;
+  }
+
+  private static long beginGrow(long ovl) {
+    return ovl | GROWING;
+  }
+
+  private static long endGrow(long ovl) {
+    return ovl + GROW_COUNT_INCR;
+  }
+
+  private static long beginShrink(long ovl) {
+    return ovl | SHRINKING;
+  }
+
+  private static long endShrink(long ovl) {
+    return ovl + SHRINK_COUNT_INCR;
+  }
+
+  private static int height(Node < ? > node) {
+    return (node == null) ? 0 : node.height;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E checkElement(Object o) {
+    if (o == null) throw new NullPointerException("Element cannot be null");
+    Node < E > root = rootHolder.right;
+    if (root != null && !root.key.getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+    return (E) o;
+  }
+
+
+  /**
+   * Checks if the tree contains the specified element.
+   *
+   * @param o The element to look for.
+   * @return true if the tree contains the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public boolean contains(Object o) {
+    E key = checkElement(o);
+    while (true) {
+      Node < E > root = rootHolder.right;
+      if (root == null) return false;
+      int compareVal = key.compareTo(root.key);
+      if (compareVal == 0) return root.present;
+      long ovl = root.changeOVL;
+      if (isShrinkingOrUnlinked(ovl)) {
+        root.waitUntilChangeCompleted(ovl);
+      } else if (root == rootHolder.right) {
+        Object result = attemptContains(key, root, compareVal, ovl);
+        if (result != RETRY) return (Boolean) result;
+      }
+    }
+  }
+
+  /**
+   * Searches the subtree of node, which was reached while node had version nodeOVL.
+   *
+   * @return TRUE or FALSE, or RETRY if node has shrunk since it was reached and the caller must search again.
+   */
+  private Object attemptContains(E key, Node < E > node, int dirToChild, long nodeOVL) {
+    while (true) {
+      Node < E > child = node.child(dirToChild);
+      if (child == null) {
+        return hasShrunkOrUnlinked(nodeOVL, node.changeOVL) ? RETRY : Boolean.FALSE;
+      }
+      int childCompare = key.compareTo(child.key);
+      if (childCompare == 0) return child.present; // Keys never move between nodes, so the flag alone decides.
+
+      long childOVL = child.changeOVL;
+      if (isShrinkingOrUnlinked(childOVL)) {
+        child.waitUntilChangeCompleted(childOVL);
+        if (hasShrunkOrUnlinked(nodeOVL, node.changeOVL)) return RETRY;
+      } else if (child != node.child(dirToChild)) {
+        if (hasShrunkOrUnlinked(nodeOVL, node.changeOVL)) return RETRY;
+      } else {
+        // The version check proves the link from node to child was valid when childOVL was read.
+        if (hasShrunkOrUnlinked(nodeOVL, node.changeOVL)) return RETRY;
+        Object result = attemptContains(key, child, childCompare, childOVL);
+        if (result != RETRY) return result;
+      }
+    }
+  }
+
+  /**
+   * Runs a navigation search from the root, retrying while the root changes under it.
+   *
+   * @param key       The value to match, or null to look for the extreme element in direction near.
+   * @param near      LEFT for ceiling and higher, which look for the element nearest above key; RIGHT for floor and lower.
+   * @param inclusive Whether an element equal to key is a match.
+   */
+  @SuppressWarnings("unchecked")
+  private E navigate(E key, int near, boolean inclusive) {
+    while (true) {
+      Node < E > root = rootHolder.right;
+      if (root == null) return null;
+      long ovl = root.changeOVL;
+      if (isShrinkingOrUnlinked(ovl)) {
+        root.waitUntilChangeCompleted(ovl);
+      } else if (root == rootHolder.right) {
+        Object result = (key == null) ? attemptExtreme(root, ovl, near) : attemptNavigate(key, root, ovl, near, inclusive);
+        if (result == NONE) return null;
+        if (result != RETRY) return (E) result;
+      }
+    }
+  }
+
+  /**
+   * Finds the element nearest to key on the far side of it within the subtree of node.
+   *
+   * @return the element, NONE if the subtree holds no match, or RETRY if node has shrunk since it was reached.
+   */
+  private Object attemptNavigate(E key, Node < E > node, long nodeOVL, int near, boolean inclusive) {
+    int compareVal = key.compareTo(node.key);
+    if (compareVal == 0 && inclusive && node.present) return node.key;
+    // Going toward near means node itself is beyond key and becomes the fallback answer.
+    boolean beyond = (near == LEFT) ? compareVal < 0 : compareVal > 0;
+    if (!beyond) return descend(key, node, nodeOVL, -near, near, inclusive, false);
+
+    Object result = descend(key, node, nodeOVL, near, near, inclusive, false);
+    if (result != NONE) return result;
+    if (node.present) {
+      return hasShrunkOrUnlinked(nodeOVL, node.changeOVL) ? RETRY : node.key;
+    }
+    // A routing node: the answer is the extreme of its far subtree.
+    return descend(null, node, nodeOVL, -near, near, inclusive, true);
+  }
+
+  /**
+   * Finds the element of the subtree of node that lies furthest toward near.
+   */
+  private Object attemptExtreme(Node < E > node, long nodeOVL, int near) {
+    Object result = descend(null, node, nodeOVL, near, near, false, true);
+    if (result != NONE) return result;
+    if (node.present) {
+      return (node.changeOVL != nodeOVL) ? RETRY : node.key;
+    }
+    return descend(null, node, nodeOVL, -near, near, false, true);
+  }
+
+  /**
+   * Checks whether a node has changed since its version was read. A search guided by comparisons only cares about
+   * shrinking, but an extreme search relies on the node's subtree staying within its old bounds, so it treats growth
+   * (a rotation that pulls the node's parent and sibling subtree under it) as a change too.
+   */
+  private static boolean invalidated(long orig, long current, boolean extreme) {
+    return extreme ? orig != current : hasShrunkOrUnlinked(orig, current);
+  }
+
+  /**
+   * Moves from node to its child in direction dir and continues the navigation (or extreme search) there, retrying
+   * the step locally as long as node itself is still valid.
+   */
+  private Object descend(E key, Node < E > node, long nodeOVL, int dir, int near, boolean inclusive, boolean extreme) {
+    while (true) {
+      Node < E > child = node.child(dir);
+      if (child == null) {
+        return invalidated(nodeOVL, node.changeOVL, extreme) ? RETRY : NONE;
+      }
+      long childOVL = child.changeOVL;
+      if (isShrinkingOrUnlinked(childOVL) || (extreme && isChanging(childOVL))) {
+        child.waitUntilChangeCompleted(childOVL);
+        if (invalidated(nodeOVL, node.changeOVL, extreme)) return RETRY;
+      } else if (child != node.child(dir)) {
+        if (invalidated(nodeOVL, node.changeOVL, extreme)) return RETRY;
+      } else {
+        if (invalidated(nodeOVL, node.changeOVL, extreme)) return RETRY;
+        Object result = extreme ? attemptExtreme(child, childOVL, near) : attemptNavigate(key, child, childOVL, near, inclusive);
+        if (result != RETRY) return result;
+      }
+    }
+  }
+
+  /**
+   * Returns the least element in the tree greater than or equal to the given element.
+   *
+   * @param e The value to match.
+   * @return the least element greater than or equal to e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E ceiling(E e) {
+    return navigate(checkElement(e), LEFT, true);
+  }
+
+  /**
+   * Returns the greatest element in the tree less than or equal to the given element.
+   *
+   * @param e The value to match.
+   * @return the greatest element less than or equal to e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E floor(E e) {
+    return navigate(checkElement(e), RIGHT, true);
+  }
+
+  /**
+   * Returns the least element in the tree strictly greater than the given element.
+   *
+   * @param e The value to match.
+   * @return the least element greater than e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E higher(E e) {
+    return navigate(checkElement(e), LEFT, false);
+  }
+
+  /**
+   * Returns the greatest element in the tree strictly less than the given element.
+   *
+   * @param e The value to match.
+   * @return the greatest element less than e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E lower(E e) {
+    return navigate(checkElement(e), RIGHT, false);
+  }
+
+  /**
+   * Returns the first (lowest) element currently in the tree.
+   *
+   * @return the first (lowest) element currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E first() {
+    E first = navigate(null, LEFT, false);
+    if (first == null) throw new NoSuchElementException("The tree is currently empty.");
+    return first;
+  }
+
+  /**
+   * Returns the last (highest) element currently in the tree.
+   *
+   * @return the last (highest) element currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E last() {
+    E last = navigate(null, RIGHT, false);
+    if (last == null) throw new NoSuchElementException("The tree is currently empty.");
+    return last;
+  }
+
+
+  /**
+   * Adds the specified element to the tree.
+   *
+   * @param e The element to be added to the tree.
+   * @return true if the tree did not already contain the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public boolean add(E e) {
+    boolean added = !update(checkElement(e), true);
+    if (added) size.increment();
+    return added;
+  }
+
+  /**
+   * Removes the specified element from the tree.
+   *
+   * @param o The element to be removed from the tree.
+   * @return true if the tree contained the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public boolean remove(Object o) {
+    boolean removed = update(checkElement(o), false);
+    if (removed) size.decrement();
+    return removed;
+  }
+
+  /**
+   * Makes the presence of key equal to insert.
+   *
+   * @return whether key was present before the call.
+   */
+  private boolean update(E key, boolean insert) {
+    while (true) {
+      Node < E > root = rootHolder.right;
+      if (root == null) {
+        if (!insert || attemptInsertIntoEmpty(key)) return false;
+      } else {
+        long ovl = root.changeOVL;
+        if (isShrinkingOrUnlinked(ovl)) {
+          root.waitUntilChangeCompleted(ovl);
+        } else if (root == rootHolder.right) {
+          Object result = attemptUpdate(key, insert, rootHolder, root, ovl);
+          if (result != RETRY) return (Boolean) result;
+        }
+      }
+    }
+  }
+
+  private boolean attemptInsertIntoEmpty(E key) {
+    synchronized(rootHolder) {
+      if (rootHolder.right != null) return false;
+      rootHolder.right = new Node < > (key, 1, true, rootHolder, 0L);
+      rootHolder.height = 2;
+      return true;
+    }
+  }
+
+  /**
+   * Updates key within the subtree of node, which was reached from parent while node had version nodeOVL.
+   *
+   * @return TRUE or FALSE for whether key was present, or RETRY if node has shrunk and the caller must search again.
+   */
+  private Object attemptUpdate(E key, boolean insert, Node < E > parent, Node < E > node, long nodeOVL) {
+    int compareVal = key.compareTo(node.key);
+    if (compareVal == 0) return attemptNodeUpdate(insert, parent, node);
+    int dir = (compareVal < 0) ? LEFT : RIGHT;
+
+    while (true) {
+      Node < E > child = node.child(dir);
+      if (hasShrunkOrUnlinked(nodeOVL, node.changeOVL)) return RETRY;
+
+      if (child == null) {
+        if (!insert) return Boolean.FALSE;
+        Node < E > damaged;
+        synchronized(node) {
+          // With node locked no rotation can move it, so checking its version once more is enough.
+          if (hasShrunkOrUnlinked(nodeOVL, node.changeOVL)) return RETRY;
+          if (node.child(dir) != null) {
+            // Lost a race with another insert; retry from node.
+            continue;
+          }
+          node.setChild(dir, new Node < > (key, 1, true, node, 0L));
+          damaged = fixHeight_nl(node);
+        }
+        fixHeightAndRebalance(damaged);
+        return Boolean.FALSE;
+      }
+
+      long childOVL = child.changeOVL;
+      if (isShrinkingOrUnlinked(childOVL)) {
+        child.waitUntilChangeCompleted(childOVL);
+      } else if (child == node.child(dir)) {
+        if (hasShrunkOrUnlinked(nodeOVL, node.changeOVL)) return RETRY;
+        Object result = attemptUpdate(key, insert, node, child, childOVL);
+        if (result != RETRY) return result;
+      }
+    }
+  }
+
+  /**
+   * Updates the node holding key. Removing a node with at most one child unlinks it, which needs the parent locked as well;
+   * every other update only flips the node's present flag.
+   */
+  private Object attemptNodeUpdate(boolean insert, Node < E > parent, Node < E > node) {
+    if (!insert) {
+      if (!node.present) return Boolean.FALSE;
+      if (node.left == null || node.right == null) {
+        Node < E > damaged;
+        synchronized(parent) {
+          if (isUnlinked(parent.changeOVL) || node.parent != parent) return RETRY;
+          synchronized(node) {
+            if (!node.present) return Boolean.FALSE;
+            if (!attemptUnlink_nl(parent, node)) return RETRY;
+          }
+          damaged = fixHeight_nl(parent);
+        }
+        fixHeightAndRebalance(damaged);
+        return Boolean.TRUE;
+      }
+    }
+    synchronized(node) {
+      if (isUnlinked(node.changeOVL)) return RETRY;
+      boolean wasPresent = node.present;
+      if (wasPresent == insert) return wasPresent;
+      // A child may have gone since the check above, in which case the node has to be unlinked instead.
+      if (!insert && (node.left == null || node.right == null)) return RETRY;
+      node.present = insert;
+      return wasPresent;
+    }
+  }
+
+  /**
+   * Splices out node, which has at most one child. Both parent and node must be locked.
+   *
+   * @return false if the tree changed so that node cannot be spliced out from parent.
+   */
+  private boolean attemptUnlink_nl(Node < E > parent, Node < E > node) {
+    Node < E > parentL = parent.left;
+    Node < E > parentR = parent.right;
+    if (parentL != node && parentR != node) return false;
+    Node < E > left = node.left;
+    Node < E > right = node.right;
+    if (left != null && right != null) return false;
+    Node < E > splice = (left != null) ? left : right;
+    if (parentL == node) {
+      parent.left = splice;
+    } else {
+      parent.right = splice;
+    }
+    if (splice != null) splice.parent = parent;
+    node.changeOVL = UNLINKED;
+    node.present = false;
+    return true;
+  }
+
+
+  /**
+   * Reads a snapshot of node and reports what it needs.
+   *
+   * @return UNLINK_REQUIRED, REBALANCE_REQUIRED, NOTHING_REQUIRED, or the height node should have.
+   */
+  private int nodeCondition(Node < E > node) {
+    Node < E > nL = node.left;
+    Node < E > nR = node.right;
+    if ((nL == null || nR == null) && !node.present) return UNLINK_REQUIRED;
+    int hN = node.height;
+    int hL0 = height(nL);
+    int hR0 = height(nR);
+    int hNRepl = 1 + Math.max(hL0, hR0);
+    int balance = hL0 - hR0;
+    if (balance < -1 || balance > 1) return REBALANCE_REQUIRED;
+    return (hN != hNRepl) ? hNRepl : NOTHING_REQUIRED;
+  }
+
+  /**
+   * Walks up from a damaged node, fixing heights, rotating and unlinking routing nodes until nothing more is needed.
+   */
+  private void fixHeightAndRebalance(Node < E > node) {
+    while (node != null && node.parent != null) {
+      int condition = nodeCondition(node);
+      if (condition == NOTHING_REQUIRED || isUnlinked(node.changeOVL)) return;
+      if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+        synchronized(node) {
+          node = fixHeight_nl(node);
+        }
+      } else {
+        Node < E > nParent = node.parent;
+        synchronized(nParent) {
+          if (!isUnlinked(nParent.changeOVL) && node.parent == nParent) {
+            synchronized(node) {
+              node = rebalance_nl(nParent, node);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Fixes the height of a locked node if that is all it needs.
+   *
+   * @return the next node to repair (node itself if it needs more than a height fix), or null if nothing is left to do.
+   */
+  private Node < E > fixHeight_nl(Node < E > node) {
+    int condition = nodeCondition(node);
+    switch (condition) {
+    case REBALANCE_REQUIRED:
+    case UNLINK_REQUIRED:
+      return node;
+    case NOTHING_REQUIRED:
+      return null;
+    default:
+      node.height = condition;
+      return node.parent; // The parent's height may now be wrong, but it is not locked here.
+    }
+  }
+
+  /**
+   * Repairs n, whose parent nParent is also locked.
+   *
+   * @return the next node to repair, or null if nothing is left to do.
+   */
+  private Node < E > rebalance_nl(Node < E > nParent, Node < E > n) {
+    Node < E > nL = n.left;
+    Node < E > nR = n.right;
+    if ((nL == null || nR == null) && !n.present) {
+      return attemptUnlink_nl(nParent, n) ? fixHeight_nl(nParent) : n;
+    }
+    int hN = n.height;
+    int hL0 = height(nL);
+    int hR0 = height(nR);
+    int hNRepl = 1 + Math.max(hL0, hR0);
+    int balance = hL0 - hR0;
+    if (balance > 1) return rebalanceToRight_nl(nParent, n, nL, hR0);
+    if (balance < -1) return rebalanceToLeft_nl(nParent, n, nR, hL0);
+    if (hNRepl != hN) {
+      n.height = hNRepl;
+      return fixHeight_nl(nParent);
+    }
+    return null;
+  }
+
+  private Node < E > rebalanceToRight_nl(Node < E > nParent, Node < E > n, Node < E > nL, int hR0) {
+    synchronized(nL) {
+      int hL = nL.height;
+      if (hL - hR0 <= 1) return n; // The snapshot was stale; look at n again.
+      Node < E > nLR = nL.right;
+      int hLL0 = height(nL.left);
+      int hLR0 = height(nLR);
+      if (hLL0 >= hLR0) return rotateRight_nl(nParent, n, nL, hR0, hLL0, nLR, hLR0);
+      synchronized(nLR) {
+        int hLR = nLR.height;
+        if (hLL0 >= hLR) return rotateRight_nl(nParent, n, nL, hR0, hLL0, nLR, hLR);
+        int hLRL = height(nLR.left);
+        int balance = hLL0 - hLRL;
+        if (balance >= -1 && balance <= 1 && !((hLL0 == 0 || hLRL == 0) && !nL.present)) {
+          return rotateRightOverLeft_nl(nParent, n, nL, hR0, hLL0, nLR, hLRL);
+        }
+      }
+      // A double rotation would leave nL unbalanced, so rotate nL on its own first; n is rebalanced afterwards.
+      return rebalanceToLeft_nl(n, nL, nLR, hLL0);
+    }
+  }
+
+  private Node < E > rebalanceToLeft_nl(Node < E > nParent, Node < E > n, Node < E > nR, int hL0) {
+    synchronized(nR) {
+      int hR = nR.height;
+      if (hL0 - hR >= -1) return n;
+      Node < E > nRL = nR.left;
+      int hRL0 = height(nRL);
+      int hRR0 = height(nR.right);
+      if (hRR0 >= hRL0) return rotateLeft_nl(nParent, n, hL0, nR, nRL, hRL0, hRR0);
+      synchronized(nRL) {
+        int hRL = nRL.height;
+        if (hRR0 >= hRL) return rotateLeft_nl(nParent, n, hL0, nR, nRL, hRL, hRR0);
+        int hRLR = height(nRL.right);
+        int balance = hRR0 - hRLR;
+        if (balance >= -1 && balance <= 1 && !((hRR0 == 0 || hRLR == 0) && !nR.present)) {
+          return rotateLeftOverRight_nl(nParent, n, hL0, nR, nRL, hRR0, hRLR);
+        }
+      }
+      return rebalanceToRight_nl(n, nR, nRL, hRR0);
+    }
+  }
+
+  /**
+   * Rotates n right. Links into shrinking nodes change last and links out of them first, so a concurrent reader
+   * either sees the old structure or reaches a node whose version tells it to retry.
+   */
+  private Node < E > rotateRight_nl(Node < E > nParent, Node < E > n, Node < E > nL, int hR, int hLL, Node < E > nLR, int hLR) {
+    long nodeOVL = n.changeOVL;
+    long leftOVL = nL.changeOVL;
+    Node < E > nPL = nParent.left;
+
+    n.changeOVL = beginShrink(nodeOVL);
+    nL.changeOVL = beginGrow(leftOVL);
+
+    n.left = nLR;
+    nL.right = n;
+    if (nPL == n) {
+      nParent.left = nL;
+    } else {
+      nParent.right = nL;
+    }
+    nL.parent = nParent;
+    n.parent = nL;
+    if (nLR != null) nLR.parent = n;
+
+    int hNRepl = 1 + Math.max(hLR, hR);
+    n.height = hNRepl;
+    nL.height = 1 + Math.max(hLL, hNRepl);
+
+    nL.changeOVL = endGrow(leftOVL);
+    n.changeOVL = endShrink(nodeOVL);
+
+    // n is the deepest damaged node; fix what the held locks allow.
+    int balN = hLR - hR;
+    if (balN < -1 || balN > 1) return n;
+    if ((nLR == null || hR == 0) && !n.present) return n;
+    int balL = hLL - hNRepl;
+    if (balL < -1 || balL > 1) return nL;
+    if (hLL == 0 && !nL.present) return nL;
+    return fixHeight_nl(nParent);
+  }
+
+  private Node < E > rotateLeft_nl(Node < E > nParent, Node < E > n, int hL, Node < E > nR, Node < E > nRL, int hRL, int hRR) {
+    long nodeOVL = n.changeOVL;
+    long rightOVL = nR.changeOVL;
+    Node < E > nPL = nParent.left;
+
+    n.changeOVL = beginShrink(nodeOVL);
+    nR.changeOVL = beginGrow(rightOVL);
+
+    n.right = nRL;
+    nR.left = n;
+    if (nPL == n) {
+      nParent.left = nR;
+    } else {
+      nParent.right = nR;
+    }
+    nR.parent = nParent;
+    n.parent = nR;
+    if (nRL != null) nRL.parent = n;
+
+    int hNRepl = 1 + Math.max(hL, hRL);
+    n.height = hNRepl;
+    nR.height = 1 + Math.max(hNRepl, hRR);
+
+    nR.changeOVL = endGrow(rightOVL);
+    n.changeOVL = endShrink(nodeOVL);
+
+    int balN = hRL - hL;
+    if (balN < -1 || balN > 1) return n;
+    if ((nRL == null || hL == 0) && !n.present) return n;
+    int balR = hRR - hNRepl;
+    if (balR < -1 || balR > 1) return nR;
+    if (hRR == 0 && !nR.present) return nR;
+    return fixHeight_nl(nParent);
+  }
+
+  private Node < E > rotateRightOverLeft_nl(Node < E > nParent, Node < E > n, Node < E > nL, int hR, int hLL, Node < E > nLR, int hLRL) {
+    long nodeOVL = n.changeOVL;
+    long leftOVL = nL.changeOVL;
+    long leftROVL = nLR.changeOVL;
+    Node < E > nPL = nParent.left;
+    Node < E > nLRL = nLR.left;
+    Node < E > nLRR = nLR.right;
+    int hLRR = height(nLRR);
+
+    n.changeOVL = beginShrink(nodeOVL);
+    nL.changeOVL = beginShrink(leftOVL);
+    nLR.changeOVL = beginGrow(leftROVL);
+
+    n.left = nLRR;
+    nL.right = nLRL;
+    nLR.left = nL;
+    nLR.right = n;
+    if (nPL == n) {
+      nParent.left = nLR;
+    } else {
+      nParent.right = nLR;
+    }
+    nLR.parent = nParent;
+    nL.parent = nLR;
+    n.parent = nLR;
+    if (nLRR != null) nLRR.parent = n;
+    if (nLRL != null) nLRL.parent = nL;
+
+    int hNRepl = 1 + Math.max(hLRR, hR);
+    n.height = hNRepl;
+    int hLRepl = 1 + Math.max(hLL, hLRL);
+    nL.height = hLRepl;
+    nLR.height = 1 + Math.max(hLRepl, hNRepl);
+
+    nLR.changeOVL = endGrow(leftROVL);
+    nL.changeOVL = endShrink(leftOVL);
+    n.changeOVL = endShrink(nodeOVL);
+
+    int balN = hLRR - hR;
+    if (balN < -1 || balN > 1) return n;
+    if ((nLRR == null || hR == 0) && !n.present) return n;
+    int balLR = hLRepl - hNRepl;
+    if (balLR < -1 || balLR > 1) return nLR;
+    return fixHeight_nl(nParent);
+  }
+
+  private Node < E > rotateLeftOverRight_nl(Node < E > nParent, Node < E > n, int hL, Node < E > nR, Node < E > nRL, int hRR, int hRLR) {
+    long nodeOVL = n.changeOVL;
+    long rightOVL = nR.changeOVL;
+    long rightLOVL = nRL.changeOVL;
+    Node < E > nPL = nParent.left;
+    Node < E > nRLL = nRL.left;
+    int hRLL = height(nRLL);
+    Node < E > nRLR = nRL.right;
+
+    n.changeOVL = beginShrink(nodeOVL);
+    nR.changeOVL = beginShrink(rightOVL);
+    nRL.changeOVL = beginGrow(rightLOVL);
+
+    n.right = nRLL;
+    nR.left = nRLR;
+    nRL.right = nR;
+    nRL.left = n;
+    if (nPL == n) {
+      nParent.left = nRL;
+    } else {
+      nParent.right = nRL;
+    }
+    nRL.parent = nParent;
+    nR.parent = nRL;
+    n.parent = nRL;
+    if (nRLL != null) nRLL.parent = n;
+    if (nRLR != null) nRLR.parent = nR;
+
+    int hNRepl = 1 + Math.max(hL, hRLL);
+    n.height = hNRepl;
+    int hRRepl = 1 + Math.max(hRLR, hRR);
+    nR.height = hRRepl;
+    nRL.height = 1 + Math.max(hNRepl, hRRepl);
+
+    nRL.changeOVL = endGrow(rightLOVL);
+    nR.changeOVL = endShrink(rightOVL);
+    n.changeOVL = endShrink(nodeOVL);
+
+    int balN = hRLL - hL;
+    if (balN < -1 || balN > 1) return n;
+    if ((nRLL == null || hL == 0) && !n.present) return n;
+    int balRL = hRRepl - hNRepl;
+    if (balRL < -1 || balRL > 1) return nRL;
+    return fixHeight_nl(nParent);
+  }
+
+
+  /**
+   * Returns the number of elements. While other threads are updating the tree the result is only an estimate.
+   *
+   * @return the number of elements in the tree.
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(Integer.MAX_VALUE, size.sum()));
+  }
+
+  public boolean isEmpty() {
+    return navigate(null, LEFT, false) == null;
+  }
+
+  /**
+   * Returns the height of the tree. While other threads are updating the tree it may briefly exceed the AVL bound.
+   *
+   * @return the height of the tree.
+   */
+  public int height() {
+    return height(rootHolder.right);
+  }
+
+  /**
+   * Returns a weakly consistent iterator over the elements in ascending order. It never throws
+   * ConcurrentModificationException; each step finds the next higher element in the tree as it is at that moment.
+   *
+   * @return an iterator over the elements in ascending order.
+   */
+  @Override
+  public Iterator < E > iterator() {
+    return new Iterator < E > () {
+      private E next = navigate(null, LEFT, false);
+      private E lastReturned;
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public E next() {
+        if (next == null) throw new NoSuchElementException();
+        lastReturned = next;
+        next = navigate(lastReturned, LEFT, false);
+        return lastReturned;
+      }
+
+      @Override
+      public void remove() {
+        if (lastReturned == null) throw new IllegalStateException();
+        ConcurrentAVL.this.remove(lastReturned);
+        lastReturned = null;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(", ", "[", "]");
+    for (E e: this) {
+      joiner.add(String.valueOf(e));
+    }
+    return joiner.toString();
+  }
+}
@@ -0,0 +1,367 @@
+package bstavl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * @author Elijah Philip
+ * This class is an AVL tree whose changes survive a crash. Every add or remove that changes the tree appends a record
+ * (operation, key and CRC32) to a write-ahead log, and checkpoint() writes the whole tree as a TreeSnapshot and empties the log.
+ * Opening the directory again loads the checkpoint and replays the log on top of it.
+ * Records are written in groups according to the FsyncPolicy, so several changes can share one fsync.
+ * Replaying is safe even if a crash leaves an old log next to a newer checkpoint: add and remove set whether a key is present,
+ * so applying them again in order yields the same tree. The class is not thread-safe.
+ */
+public class DurableAVL < E extends Comparable < E >> implements AutoCloseable {
+
+  /**
+   * When log records are forced to disk.
+   */
+  public enum FsyncPolicy {
+    /** Every change is written and forced before add or remove returns. */
+    ALWAYS,
+    /** Changes are written and forced together once a group of them has built up, or when commit() is called. */
+    GROUP,
+    /** Changes are written when the log buffer fills up and forced only by commit(), checkpoint() and close(). */
+    NEVER
+  }
+
+  static final int DEFAULT_GROUP_SIZE = 256;
+  static final String CHECKPOINT_FILE = "checkpoint.snap";
+  static final String LOG_FILE = "wal.log";
+
+  private static final int MAGIC = 0x4C415741; // "AWAL" read as a little-endian int.
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 12;
+  private static final byte ADD = 1;
+  private static final byte REMOVE = 2;
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final AVL < E > tree;
+  private final KeyCodec < E > codec;
+  private final FsyncPolicy policy;
+  private final int groupSize;
+  private final Path directory;
+  private final FileChannel log;
+  private final int recordBytes; // Operation byte, key and CRC32.
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  private final CRC32 crc = new CRC32();
+  private int pending; // Records appended since the last force.
+  private boolean failed;
+  private boolean closed;
+
+  private DurableAVL(Path directory, KeyCodec < E > codec, FsyncPolicy policy, int groupSize) throws IOException {
+    this.directory = directory;
+    this.codec = codec;
+    this.policy = policy;
+    this.groupSize = groupSize;
+    this.recordBytes = 1 + codec.width() + Integer.BYTES;
+    Files.createDirectories(directory);
+
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    if (Files.exists(checkpoint)) {
+      try (FileChannel in = FileChannel.open(checkpoint, StandardOpenOption.READ)) {
+        tree = TreeSnapshot.readAVL(in, codec);
+      }
+    } else {
+      tree = new AVL < > ();
+    }
+
+    log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (log.size() < HEADER_BYTES) {
+        resetLog();
+      } else {
+        replay();
+      }
+    } catch (IOException | RuntimeException e) {
+      log.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the tree stored in the given directory with the GROUP policy, creating the directory if needed.
+   *
+   * @param directory The directory holding the checkpoint and the log.
+   * @param codec     Codec that writes and reads the fixed-width keys.
+   * @return the recovered tree.
+   * @throws NullPointerException if any argument is null.
+   * @throws IOException          if the files cannot be read, or were written with a different key width.
+   */
+  public static < E extends Comparable < E >> DurableAVL < E > open(Path directory, KeyCodec < E > codec) throws IOException {
+    return open(directory, codec, FsyncPolicy.GROUP, DEFAULT_GROUP_SIZE);
+  }
+
+  /**
+   * Opens the tree stored in the given directory, creating the directory if needed.
+   *
+   * @param directory The directory holding the checkpoint and the log.
+   * @param codec     Codec that writes and reads the fixed-width keys.
+   * @param policy    When log records are forced to disk.
+   * @param groupSize Number of changes forced together under the GROUP policy.
+   * @return the recovered tree.
+   * @throws NullPointerException     if any argument is null.
+   * @throws IllegalArgumentException if groupSize is less than 1.
+   * @throws IOException              if the files cannot be read, or were written with a different key width.
+   */
+  public static < E extends Comparable < E >> DurableAVL < E > open(Path directory, KeyCodec < E > codec, FsyncPolicy policy, int groupSize) throws IOException {
+    if (directory == null || codec == null || policy == null) throw new NullPointerException("This function's argument does not accept null.");
+    if (groupSize < 1) throw new IllegalArgumentException("The group size must be at least 1.");
+    return new DurableAVL < > (directory, codec, policy, groupSize);
+  }
+
+  private void resetLog() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putInt(VERSION).putInt(codec.width()).flip();
+    log.truncate(0);
+    while (header.hasRemaining()) log.write(header, header.position());
+    log.force(false);
+    log.position(HEADER_BYTES);
+  }
+
+  /**
+   * Applies every intact log record to the tree. A torn or corrupt record ends the log: it and anything after it
+   * were never acknowledged as durable, so the file is truncated there before new records are appended.
+   */
+  private void replay() throws IOException {
+    buffer.clear().limit(HEADER_BYTES);
+    log.position(0);
+    while (buffer.hasRemaining()) {
+      if (log.read(buffer) < 0) break;
+    }
+    buffer.flip();
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) throw new IOException(directory.resolve(LOG_FILE) + " is not a write-ahead log.");
+    int version = buffer.getInt();
+    if (version != VERSION) throw new IOException("Unsupported write-ahead log version " + version + ".");
+    int width = buffer.getInt();
+    if (width != codec.width()) throw new IOException("The log stores " + width + "-byte keys, but the codec reads " + codec.width() + "-byte keys.");
+
+    long position = HEADER_BYTES;
+    log.position(position);
+    buffer.clear();
+    boolean eof = false;
+    replay: while (true) {
+      while (!eof && buffer.hasRemaining()) {
+        if (log.read(buffer) < 0) eof = true;
+      }
+      buffer.flip();
+      while (buffer.remaining() >= recordBytes) {
+        int start = buffer.position();
+        crc.reset();
+        crc.update(buffer.array(), start, 1 + codec.width());
+        byte op = buffer.get(start);
+        if ((int) crc.getValue() != buffer.getInt(start + 1 + codec.width()) || (op != ADD && op != REMOVE)) break replay;
+        E key = codec.decode(buffer, start + 1);
+        if (op == ADD) {
+          tree.add(key);
+        } else {
+          tree.remove(key);
+        }
+        buffer.position(start + recordBytes);
+        position += recordBytes;
+      }
+      if (eof) break; // Whatever is left is a torn record at the end of the file.
+      buffer.compact();
+    }
+    if (log.size() > position) {
+      log.truncate(position);
+      log.force(false);
+    }
+    log.position(position);
+    buffer.clear();
+  }
+
+  private void checkWritable() {
+    if (closed) throw new IllegalStateException("The tree has been closed.");
+    if (failed) throw new IllegalStateException("Writing the log failed earlier, so the tree is no longer durable; reopen it to recover.");
+  }
+
+  private void append(byte op, E e) throws IOException {
+    if (buffer.remaining() < recordBytes) write();
+    int start = buffer.position();
+    buffer.put(start, op);
+    codec.encode(e, buffer, start + 1);
+    crc.reset();
+    crc.update(buffer.array(), start, 1 + codec.width());
+    buffer.putInt(start + 1 + codec.width(), (int) crc.getValue());
+    buffer.position(start + recordBytes);
+    pending++;
+    if (policy == FsyncPolicy.ALWAYS || (policy == FsyncPolicy.GROUP && pending >= groupSize)) commit();
+  }
+
+  private void write() throws IOException {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) log.write(buffer);
+    } catch (IOException e) {
+      failed = true;
+      throw e;
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Writes and forces every change made so far, so they survive a crash.
+   *
+   * @throws IllegalStateException if the tree has been closed, or an earlier log write failed.
+   * @throws IOException           if writing the log fails.
+   */
+  public void commit() throws IOException {
+    checkWritable();
+    write();
+    try {
+      log.force(false);
+    } catch (IOException e) {
+      failed = true;
+      throw e;
+    }
+    pending = 0;
+  }
+
+  /**
+   * Writes the whole tree to a new checkpoint and empties the log. The checkpoint replaces the old one atomically,
+   * so a crash at any point leaves a checkpoint and log that recover the tree.
+   *
+   * @throws IllegalStateException if the tree has been closed, or an earlier log write failed.
+   * @throws IOException           if writing the checkpoint or the log fails.
+   */
+  public void checkpoint() throws IOException {
+    commit();
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+    TreeSnapshot.Encoding encoding = TreeSnapshot.isNumeric(codec) ? TreeSnapshot.Encoding.DELTA_VARINT : TreeSnapshot.Encoding.FIXED;
+    try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      TreeSnapshot.write(tree, codec, encoding, out);
+      out.force(true);
+    }
+    Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    forceDirectory();
+    try {
+      resetLog();
+    } catch (IOException e) {
+      failed = true;
+      throw e;
+    }
+  }
+
+  /**
+   * Forces the directory entry of the renamed checkpoint to disk. Some platforms cannot open a directory; there the rename is left to the file system.
+   */
+  private void forceDirectory() {
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      // Not supported on this platform.
+    }
+  }
+
+  /**
+   * Adds the specified element to the tree and logs the change.
+   *
+   * @param e The element to be added to the tree.
+   * @return true if the tree did not already contain the element.
+   * @throws NullPointerException  if the specified element is null.
+   * @throws IllegalStateException if the tree has been closed, or an earlier log write failed.
+   * @throws IOException           if writing the log fails. The tree then refuses further changes.
+   */
+  public boolean add(E e) throws IOException {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkWritable();
+    if (!tree.add(e)) return false;
+    append(ADD, e);
+    return true;
+  }
+
+  /**
+   * Removes the specified element from the tree and logs the change.
+   *
+   * @param e The element to be removed from the tree.
+   * @return true if the tree contained the element.
+   * @throws NullPointerException  if the specified element is null.
+   * @throws IllegalStateException if the tree has been closed, or an earlier log write failed.
+   * @throws IOException           if writing the log fails. The tree then refuses further changes.
+   */
+  public boolean remove(E e) throws IOException {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkWritable();
+    if (!tree.remove(e)) return false;
+    append(REMOVE, e);
+    return true;
+  }
+
+  public boolean contains(Object o) {
+    return tree.contains(o);
+  }
+
+  public E ceiling(E e) {
+    return tree.ceiling(e);
+  }
+
+  public E floor(E e) {
+    return tree.floor(e);
+  }
+
+  public E lower(E e) {
+    return tree.lower(e);
+  }
+
+  public E higher(E e) {
+    return tree.higher(e);
+  }
+
+  public E first() {
+    return tree.first();
+  }
+
+  public E last() {
+    return tree.last();
+  }
+
+  public E get(int index) {
+    return tree.get(index);
+  }
+
+  public int rank(E e) {
+    return tree.rank(e);
+  }
+
+  public ArrayList < E > getRange(E fromElement, E toElement) {
+    return tree.getRange(fromElement, toElement);
+  }
+
+  public int size() {
+    return tree.size();
+  }
+
+  public boolean isEmpty() {
+    return tree.isEmpty();
+  }
+
+  /**
+   * Commits any pending changes and closes the log. Later changes throw IllegalStateException.
+   *
+   * @throws IOException if the pending changes cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) return;
+    try {
+      if (!failed) commit();
+    } finally {
+      closed = true;
+      log.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return tree.toString();
+  }
+}
@@ -0,0 +1,50 @@
+package bstavl;
+
+import java.util.Map;
+
+/**
+ * @author Elijah Philip
+ * Walks the entries of an AVLMap whose keys fall in a range, one at a time, in ascending or descending key order.
+ * The entries handed out are the map's own: setValue on one changes the value in the map without another lookup.
+ * Like RangeCursor, the cursor keeps only the path to the current entry in a buffer it reuses, and fails fast with a
+ * ConcurrentModificationException if the map is structurally modified while it is open.
+ */
+public interface EntryCursor < K extends Comparable < K > , V > extends AutoCloseable {
+
+  /**
+   * Returns the next entry of the range, or null once the range is exhausted. The entry stays valid until the map is next
+   * structurally modified.
+   *
+   * @return the next entry, or null if there is none.
+   * @throws IllegalStateException           if the cursor is closed.
+   * @throws java.util.ConcurrentModificationException if the map was modified since the cursor was opened, reset or moved.
+   */
+  Map.Entry < K, V > next();
+
+  /**
+   * Moves the cursor so that next() returns the first entry of the range whose key is at or after the given key, in the cursor's direction.
+   * A key before the start of the range moves the cursor to the start.
+   *
+   * @param key The key to move to.
+   * @throws NullPointerException  if the key is null.
+   * @throws IllegalStateException if the cursor is closed.
+   */
+  void seek(K key);
+
+  /**
+   * Reopens the cursor, in the same direction, on a new range of the same map. A null endpoint leaves that end of the range open.
+   *
+   * @param fromKey       Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param toKey         High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @throws IllegalArgumentException if fromKey is greater than toKey.
+   */
+  void reset(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive);
+
+  /**
+   * Releases the path the cursor holds, so it keeps no entries of the map reachable. The cursor can be reopened with reset.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,400 @@
+package bstavl;
+
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * This class is an AVL tree specialised for primitive int keys, such as timestamps.
+ * Keys are stored unboxed in the nodes and compared with plain operators, so no hot-path call allocates or goes through compareTo.
+ * Navigation methods that find no matching key return the tree's "no entry" key (Integer.MIN_VALUE unless another one is given to the constructor).
+ */
+public class IntAVL {
+
+  private Node head;
+  private int size;
+  private final int noEntryKey;
+
+  /**
+   * Constructs a new, empty tree that reports missing keys as Integer.MIN_VALUE.
+   */
+  public IntAVL() {
+    this(Integer.MIN_VALUE);
+  }
+
+  /**
+   * Constructs a new, empty tree.
+   *
+   * @param noEntryKey The value the navigation methods return when there is no matching key.
+   */
+  public IntAVL(int noEntryKey) {
+    this.noEntryKey = noEntryKey;
+  }
+
+  private static class Node {
+
+    int key;
+    int height;
+    Node left,
+    right;
+
+    public Node(int key) {
+      this.key = key;
+      this.height = 1;
+    }
+  }
+
+  /**
+   * Returns the value the navigation methods return when there is no matching key.
+   *
+   * @return the "no entry" key of this tree.
+   */
+  public int getNoEntryKey() {
+    return noEntryKey;
+  }
+
+  private int getHeight(Node cNode) {
+    return (cNode == null) ? 0 : cNode.height;
+  }
+
+  private int getBalance(Node cNode) {
+    return (cNode == null) ? 0 : getHeight(cNode.left) - getHeight(cNode.right);
+  }
+
+  private Node rotateRight(Node node2) {
+    Node node1 = node2.left;
+    node2.left = node1.right;
+    node1.right = node2;
+    node2.height = 1 + Math.max(getHeight(node2.left), getHeight(node2.right));
+    node1.height = 1 + Math.max(getHeight(node1.left), getHeight(node1.right));
+    return node1;
+  }
+
+  private Node rotateLeft(Node node1) {
+    Node node2 = node1.right;
+    node1.right = node2.left;
+    node2.left = node1;
+    node1.height = 1 + Math.max(getHeight(node1.left), getHeight(node1.right));
+    node2.height = 1 + Math.max(getHeight(node2.left), getHeight(node2.right));
+    return node2;
+  }
+
+  /**
+   * Updates the height of the node and restores the AVL balance of its subtree if needed.
+   *
+   * @return the new root of the subtree.
+   */
+  private Node rebalance(Node cNode) {
+    cNode.height = 1 + Math.max(getHeight(cNode.left), getHeight(cNode.right));
+    int balance = getBalance(cNode);
+    if (balance > 1) {
+      if (getBalance(cNode.left) < 0) cNode.left = rotateLeft(cNode.left);
+      return rotateRight(cNode);
+    }
+    if (balance < -1) {
+      if (getBalance(cNode.right) > 0) cNode.right = rotateRight(cNode.right);
+      return rotateLeft(cNode);
+    }
+    return cNode;
+  }
+
+  private Node addHelper(int key, Node cNode) {
+    if (cNode == null) {
+      size++;
+      return new Node(key);
+    }
+    if (key < cNode.key) {
+      cNode.left = addHelper(key, cNode.left);
+    } else if (key > cNode.key) {
+      cNode.right = addHelper(key, cNode.right);
+    } else {
+      return cNode;
+    }
+    return rebalance(cNode);
+  }
+
+  /**
+   * Adds the specified key to the tree.
+   *
+   * @param key The key to be added to the tree.
+   * @return true if the tree did not already contain the key.
+   */
+  public boolean add(int key) {
+    int oldSize = size;
+    head = addHelper(key, head);
+    return size != oldSize;
+  }
+
+  private Node removeHelper(int key, Node cNode) {
+    if (cNode == null) return null;
+    if (key < cNode.key) {
+      cNode.left = removeHelper(key, cNode.left);
+    } else if (key > cNode.key) {
+      cNode.right = removeHelper(key, cNode.right);
+    } else if (cNode.left == null || cNode.right == null) {
+      size--;
+      return (cNode.left != null) ? cNode.left : cNode.right;
+    } else {
+      // Node with two children: take over the inorder successor's key and remove the successor instead.
+      Node successor = cNode.right;
+      while (successor.left != null) successor = successor.left;
+      cNode.key = successor.key;
+      cNode.right = removeHelper(successor.key, cNode.right);
+    }
+    return rebalance(cNode);
+  }
+
+  /**
+   * Removes the specified key from the tree.
+   *
+   * @param key The key to be removed from the tree.
+   * @return true if the tree contained the key.
+   */
+  public boolean remove(int key) {
+    int oldSize = size;
+    head = removeHelper(key, head);
+    return size != oldSize;
+  }
+
+  /**
+   * Removes all keys from the tree.
+   */
+  public void clear() {
+    head = null;
+    size = 0;
+  }
+
+  /**
+   * Checks if the tree contains the specified key.
+   *
+   * @param key The key to look for.
+   * @return true if the tree contains the key.
+   */
+  public boolean contains(int key) {
+    Node cNode = head;
+    while (cNode != null) {
+      if (key < cNode.key) {
+        cNode = cNode.left;
+      } else if (key > cNode.key) {
+        cNode = cNode.right;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the least key in the tree greater than or equal to the given key.
+   *
+   * @param key The value to match.
+   * @return the least key greater than or equal to key, or the "no entry" key if there is no such key.
+   */
+  public int ceiling(int key) {
+    Node cNode = head, ceil = null;
+    while (cNode != null) {
+      if (key < cNode.key) {
+        ceil = cNode;
+        cNode = cNode.left;
+      } else if (key > cNode.key) {
+        cNode = cNode.right;
+      } else {
+        return key;
+      }
+    }
+    return (ceil == null) ? noEntryKey : ceil.key;
+  }
+
+  /**
+   * Returns the greatest key in the tree less than or equal to the given key.
+   *
+   * @param key The value to match.
+   * @return the greatest key less than or equal to key, or the "no entry" key if there is no such key.
+   */
+  public int floor(int key) {
+    Node cNode = head, floor = null;
+    while (cNode != null) {
+      if (key > cNode.key) {
+        floor = cNode;
+        cNode = cNode.right;
+      } else if (key < cNode.key) {
+        cNode = cNode.left;
+      } else {
+        return key;
+      }
+    }
+    return (floor == null) ? noEntryKey : floor.key;
+  }
+
+  /**
+   * Returns the greatest key in the tree strictly less than the given key.
+   *
+   * @param key The value to match.
+   * @return the greatest key less than key, or the "no entry" key if there is no such key.
+   */
+  public int lower(int key) {
+    Node cNode = head, lower = null;
+    while (cNode != null) {
+      if (key > cNode.key) {
+        lower = cNode;
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return (lower == null) ? noEntryKey : lower.key;
+  }
+
+  /**
+   * Returns the least key in the tree strictly greater than the given key.
+   *
+   * @param key The value to match.
+   * @return the least key greater than key, or the "no entry" key if there is no such key.
+   */
+  public int higher(int key) {
+    Node cNode = head, higher = null;
+    while (cNode != null) {
+      if (key < cNode.key) {
+        higher = cNode;
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return (higher == null) ? noEntryKey : higher.key;
+  }
+
+  /**
+   * Returns the first (lowest) key currently in the tree.
+   *
+   * @return the first (lowest) key currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public int first() {
+    if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+    Node cNode = head;
+    while (cNode.left != null) cNode = cNode.left;
+    return cNode.key;
+  }
+
+  /**
+   * Returns the last (highest) key currently in the tree.
+   *
+   * @return the last (highest) key currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public int last() {
+    if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+    Node cNode = head;
+    while (cNode.right != null) cNode = cNode.right;
+    return cNode.key;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return head == null;
+  }
+
+  public int height() {
+    return getHeight(head);
+  }
+
+  /**
+   * Returns all keys in ascending order.
+   *
+   * @return a new array containing every key in the tree.
+   */
+  public int[] toArray() {
+    int[] keys = new int[size];
+    Cursor cursor = openRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    int i = 0;
+    while (cursor.next()) {
+      keys[i++] = cursor.key();
+    }
+    return keys;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  /**
+   * Opens a cursor over the keys from fromKey to toKey (both inclusive), in ascending order.
+   *
+   * @param fromKey Low endpoint (inclusive) of the range.
+   * @param toKey   High endpoint (inclusive) of the range.
+   * @return a cursor positioned before the first key of the range.
+   */
+  public Cursor openRange(int fromKey, int toKey) {
+    Cursor cursor = new Cursor();
+    cursor.reset(fromKey, toKey);
+    return cursor;
+  }
+
+  /**
+   * A forward-only cursor over a range of keys. It keeps the path to the current key in an array that is reused
+   * by reset, so a cursor can scan range after range without allocating. The tree must not be modified while a cursor is in use.
+   */
+  public class Cursor {
+    private Node[] stack = new Node[0];
+    private int depth;
+    private int toKey;
+    private int current;
+
+    private Cursor() {
+    }
+
+    /**
+     * Repositions the cursor before the first key of a new range.
+     *
+     * @param fromKey Low endpoint (inclusive) of the range.
+     * @param toKey   High endpoint (inclusive) of the range.
+     */
+    public void reset(int fromKey, int toKey) {
+      int height = getHeight(head);
+      if (stack.length < height) stack = new Node[height];
+      this.toKey = toKey;
+      depth = 0;
+      Node cNode = head;
+      while (cNode != null) {
+        if (fromKey <= cNode.key) {
+          stack[depth++] = cNode;
+          cNode = cNode.left;
+        } else {
+          cNode = cNode.right;
+        }
+      }
+    }
+
+    /**
+     * Advances to the next key in the range.
+     *
+     * @return true if the cursor moved to a key, false if the range is exhausted.
+     */
+    public boolean next() {
+      if (depth == 0) return false;
+      Node cNode = stack[--depth];
+      if (cNode.key > toKey) {
+        depth = 0;
+        return false;
+      }
+      current = cNode.key;
+      for (Node n = cNode.right; n != null; n = n.left) {
+        stack[depth++] = n;
+      }
+      return true;
+    }
+
+    /**
+     * Returns the key the cursor is positioned on.
+     *
+     * @return the key returned by the last successful call to next().
+     */
+    public int key() {
+      return current;
+    }
+  }
+}
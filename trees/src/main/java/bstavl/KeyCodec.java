@@ -0,0 +1,113 @@
+package bstavl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author Elijah Philip
+ * Encodes keys of type E into a fixed number of bytes, so trees can store them outside the Java heap.
+ * Implementations must preserve ordering: compare(key, buffer, offset) has to agree with key.compareTo(decode(buffer, offset)).
+ */
+public interface KeyCodec < E extends Comparable < E >> {
+
+  /**
+   * Returns the number of bytes every encoded key occupies.
+   *
+   * @return the encoded width of a key in bytes.
+   */
+  int width();
+
+  /**
+   * Writes the key at the given absolute offset of the buffer.
+   *
+   * @param key    The key to encode.
+   * @param buffer The buffer to write to.
+   * @param offset Absolute offset of the first byte to write.
+   */
+  void encode(E key, ByteBuffer buffer, int offset);
+
+  /**
+   * Reads a key from the given absolute offset of the buffer.
+   *
+   * @param buffer The buffer to read from.
+   * @param offset Absolute offset of the first byte of the key.
+   * @return the decoded key.
+   */
+  E decode(ByteBuffer buffer, int offset);
+
+  /**
+   * Compares a key with the key stored at the given offset. The default decodes the stored key; codecs for
+   * primitive keys override it to compare the raw bytes without creating an object.
+   *
+   * @param key    The key to compare.
+   * @param buffer The buffer holding the stored key.
+   * @param offset Absolute offset of the stored key.
+   * @return a negative number, zero or a positive number as key is less than, equal to or greater than the stored key.
+   */
+  default int compare(E key, ByteBuffer buffer, int offset) {
+    return key.compareTo(decode(buffer, offset));
+  }
+
+  /**
+   * Returns a codec storing Long keys in 8 bytes.
+   *
+   * @return the codec for Long keys.
+   */
+  static KeyCodec < Long > longKeys() {
+    return LongCodec.INSTANCE;
+  }
+
+  /**
+   * Returns a codec storing Integer keys in 4 bytes.
+   *
+   * @return the codec for Integer keys.
+   */
+  static KeyCodec < Integer > intKeys() {
+    return IntCodec.INSTANCE;
+  }
+
+  final class LongCodec implements KeyCodec < Long > {
+    static final LongCodec INSTANCE = new LongCodec();
+
+    private LongCodec() {
+    }
+
+    public int width() {
+      return Long.BYTES;
+    }
+
+    public void encode(Long key, ByteBuffer buffer, int offset) {
+      buffer.putLong(offset, key);
+    }
+
+    public Long decode(ByteBuffer buffer, int offset) {
+      return buffer.getLong(offset);
+    }
+
+    public int compare(Long key, ByteBuffer buffer, int offset) {
+      return Long.compare(key, buffer.getLong(offset));
+    }
+  }
+
+  final class IntCodec implements KeyCodec < Integer > {
+    static final IntCodec INSTANCE = new IntCodec();
+
+    private IntCodec() {
+    }
+
+    public int width() {
+      return Integer.BYTES;
+    }
+
+    public void encode(Integer key, ByteBuffer buffer, int offset) {
+      buffer.putInt(offset, key);
+    }
+
+    public Integer decode(ByteBuffer buffer, int offset) {
+      return buffer.getInt(offset);
+    }
+
+    public int compare(Integer key, ByteBuffer buffer, int offset) {
+      return Integer.compare(key, buffer.getInt(offset));
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package bstavl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * @author Elijah Philip
+ * This class is an OffHeapAVL whose node chunks are regions of a memory-mapped file, so the tree survives restarts.
+ * The file starts with a fixed header (format, key width and two root slots) followed by the chunks.
+ * Opening an existing file only reads the header: chunks are mapped the first time a descent reaches one of their
+ * nodes, and the operating system pages in just the parts that are touched.
+ * Changes reach the file when sync() or close() is called. Until then the records of the last synced tree are never changed:
+ * an update copies the records on its path, and records the synced tree uses are only reused after the next sync. A sync
+ * writes the root and allocation state to the older of two root slots, with a sequence number and a checksum, so a process
+ * that stops between syncs, or part way through one, leaves the last synced tree intact. Opening such a file checks that tree
+ * and rebuilds its free list, then carries on from it.
+ */
+public class MappedAVL < E extends Comparable < E >> extends OffHeapAVL < E > {
+
+  private static final long MAGIC = 0x314C56414450414DL; // "MAPDAVL1" read as a little-endian long.
+  private static final int VERSION = 2;
+  static final int HEADER_BYTES = 4096; // One page, so every chunk starts page aligned.
+
+  private static final int H_MAGIC = 0;
+  private static final int H_VERSION = 8;
+  private static final int H_KEY_WIDTH = 12;
+  private static final int H_STRIDE = 16;
+  private static final int H_DIRTY = 20;
+  private static final int H_ROOTS = 64; // Two root slots of ROOT_BYTES each, written alternately.
+  private static final int ROOT_BYTES = 64;
+
+  // Fields of a root slot, relative to its start.
+  private static final int R_SEQUENCE = 0;
+  private static final int R_HEAD = 8;
+  private static final int R_SIZE = 12;
+  private static final int R_NEXT_UNUSED = 16;
+  private static final int R_FREE_LIST = 20;
+  private static final int R_CHECKSUM = 24; // CRC32 of the slot's bytes before it.
+
+  private static final int MAX_HEIGHT = 64; // More than any AVL tree of 2^31 - 1 records can reach.
+
+  private final FileChannel channel;
+  private final MappedByteBuffer header;
+  private boolean dirty;
+  private long sequence; // Sequence number of the root slot written last.
+  private final BitSet fresh = new BitSet(); // Records handed out since the last sync; the other live records belong to the synced tree.
+  private int[] retired = new int[16]; // Records the synced tree uses and the current one no longer does, free after the next sync.
+  private int retiredCount;
+
+  private MappedAVL(Path path, KeyCodec < E > codec) throws IOException {
+    super(codec);
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      boolean created = channel.size() == 0;
+      header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+      if (created) {
+        header.putLong(H_MAGIC, MAGIC);
+        header.putInt(H_VERSION, VERSION);
+        header.putInt(H_KEY_WIDTH, codec.width());
+        header.putInt(H_STRIDE, stride);
+        writeRoot();
+        header.force();
+      } else {
+        readHeader(path);
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the tree stored in the given file, creating an empty one if the file does not exist or is empty.
+   * Only the header is read; node chunks are mapped on first access. A file that was changed and not synced before it was
+   * last closed is opened at its last synced state, which takes one pass over the tree to check it.
+   *
+   * @param path  The file holding the tree.
+   * @param codec Codec that writes and reads the fixed-width keys. It must be the codec the file was created with.
+   * @return the opened tree.
+   * @throws NullPointerException if the path or codec is null.
+   * @throws IOException          if the file cannot be opened, is not a tree file, was written with a different key width,
+   *                              or is damaged.
+   */
+  public static < E extends Comparable < E >> MappedAVL < E > open(Path path, KeyCodec < E > codec) throws IOException {
+    if (path == null) throw new NullPointerException("This function's argument does not accept null.");
+    return new MappedAVL < > (path, codec);
+  }
+
+  private void readHeader(Path path) throws IOException {
+    if (header.getLong(H_MAGIC) != MAGIC) throw new IOException(path + " is not a tree file.");
+    if (header.getInt(H_VERSION) != VERSION) throw new IOException(path + " has unsupported format version " + header.getInt(H_VERSION) + ".");
+    if (header.getInt(H_KEY_WIDTH) != codec.width() || header.getInt(H_STRIDE) != stride) {
+      throw new IOException(path + " stores " + header.getInt(H_KEY_WIDTH) + "-byte keys, but the codec writes " + codec.width() + "-byte keys.");
+    }
+    int slot = newestRoot();
+    if (slot < 0) throw damaged(path);
+    sequence = header.getLong(slot + R_SEQUENCE);
+    head = header.getInt(slot + R_HEAD);
+    size = header.getInt(slot + R_SIZE);
+    nextUnused = header.getInt(slot + R_NEXT_UNUSED);
+    freeList = header.getInt(slot + R_FREE_LIST);
+    if (nextUnused < 1 || !isRecord(head) || !isRecord(freeList) || size < 0 || size >= nextUnused) throw damaged(path);
+    // Leave every slot empty; chunk() maps them as descents reach them.
+    chunks = new ByteBuffer[((nextUnused - 1) >>> CHUNK_SHIFT) + 1];
+    if (header.getInt(H_DIRTY) != 0) recover(path);
+  }
+
+  private boolean isRecord(int node) {
+    return node >= NIL && node < nextUnused;
+  }
+
+  private static IOException damaged(Path path) {
+    return new IOException(path + " is damaged: its last synced tree cannot be read.");
+  }
+
+  /**
+   * Returns the start of the valid root slot with the highest sequence number, or -1 if neither slot is valid.
+   */
+  private int newestRoot() {
+    int newest = -1;
+    long newestSequence = 0;
+    for (int i = 0; i < 2; i++) {
+      int slot = H_ROOTS + i * ROOT_BYTES;
+      long slotSequence = header.getLong(slot + R_SEQUENCE);
+      if (slotSequence > newestSequence && header.getLong(slot + R_CHECKSUM) == checksum(slot)) {
+        newest = slot;
+        newestSequence = slotSequence;
+      }
+    }
+    return newest;
+  }
+
+  private long checksum(int slot) {
+    CRC32 crc = new CRC32();
+    crc.update(header.duplicate().position(slot).limit(slot + R_CHECKSUM));
+    return crc.getValue();
+  }
+
+  /**
+   * Writes the root and allocation state to the slot not holding the newest root, so a write cut short leaves that one valid.
+   */
+  private void writeRoot() {
+    sequence++;
+    int slot = H_ROOTS + (int)(sequence & 1) * ROOT_BYTES;
+    header.putLong(slot + R_SEQUENCE, sequence);
+    header.putInt(slot + R_HEAD, head);
+    header.putInt(slot + R_SIZE, size);
+    header.putInt(slot + R_NEXT_UNUSED, nextUnused);
+    header.putInt(slot + R_FREE_LIST, freeList);
+    header.putLong(slot + R_CHECKSUM, checksum(slot));
+  }
+
+  /**
+   * Brings back a file that was changed after its last sync. The synced tree's records were not changed since, but records on
+   * its free list may have been handed out again. So the tree is walked in order, checking every link, height and key, and the
+   * free list is rebuilt from the records the tree does not use. The file is then synced, so it is clean again.
+   */
+  private void recover(Path path) throws IOException {
+    BitSet used = new BitSet(nextUnused);
+    int[] stack = new int[MAX_HEIGHT];
+    int depth = 0;
+    int count = 0;
+    int previous = NIL;
+    int node = head;
+    while (node != NIL || depth > 0) {
+      while (node != NIL) {
+        int left = left(node), right = right(node);
+        if (used.get(node) || !isRecord(left) || !isRecord(right) || depth == MAX_HEIGHT) throw damaged(path);
+        int leftHeight = height(left), rightHeight = height(right);
+        if (height(node) != 1 + Math.max(leftHeight, rightHeight) || Math.abs(leftHeight - rightHeight) > 1) throw damaged(path);
+        used.set(node);
+        stack[depth++] = node;
+        node = left;
+      }
+      node = stack[--depth];
+      if (previous != NIL && compare(key(previous), node) >= 0) throw damaged(path);
+      previous = node;
+      count++;
+      node = right(node);
+    }
+    if (count != size) throw damaged(path);
+    freeList = NIL;
+    for (int record = nextUnused - 1; record > NIL; record--) {
+      if (!used.get(record)) super.freeNode(record);
+    }
+    dirty = true;
+    sync();
+  }
+
+  /**
+   * Gives a record the current tree no longer uses back to the free list, or, if the synced tree still uses it, holds it
+   * back until the next sync.
+   */
+  @Override
+  void freeNode(int node) {
+    if (fresh.get(node)) {
+      super.freeNode(node);
+    } else {
+      retire(node);
+    }
+  }
+
+  private void retire(int node) {
+    if (retiredCount == retired.length) retired = Arrays.copyOf(retired, retiredCount * 2);
+    retired[retiredCount++] = node;
+  }
+
+  @Override
+  int allocateRecord() {
+    int node = super.allocateRecord();
+    fresh.set(node);
+    return node;
+  }
+
+  /**
+   * Copies a record of the synced tree before it is changed, so that tree stays intact on disk until the next sync.
+   */
+  @Override
+  int writable(int node) {
+    if (fresh.get(node)) return node;
+    int copy = allocateRecord();
+    chunk(copy).put(offset(copy), chunk(node), offset(node), stride);
+    retire(node);
+    return copy;
+  }
+
+  @Override
+  ByteBuffer allocateChunk(int chunkIndex, int chunkBytes) {
+    try {
+      long position = HEADER_BYTES + (long) chunkIndex * chunkBytes;
+      return channel.map(FileChannel.MapMode.READ_WRITE, position, chunkBytes).order(ByteOrder.LITTLE_ENDIAN);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Marks the file as modified before the first change after a sync, and forces that mark to disk first, so a file a
+   * process stopped changing is always recovered on open. Only then can the records retired before the sync be reused: the
+   * sync made them free, and recovery rebuilds the free list if the process stops before the next one.
+   */
+  @Override
+  void beforeMutation() {
+    if (dirty) return;
+    header.putInt(H_DIRTY, 1);
+    header.force();
+    dirty = true;
+    for (int i = 0; i < retiredCount; i++) {
+      super.freeNode(retired[i]);
+    }
+    retiredCount = 0;
+  }
+
+  /**
+   * Writes all changes made since the last sync to the file. The node chunks are forced before the root slot, and the root
+   * slot before the file is marked clean, so the slot never points at records that are not on disk yet.
+   *
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public void sync() {
+    checkOpen();
+    if (!dirty) return;
+    for (ByteBuffer chunk: chunks) {
+      if (chunk != null) ((MappedByteBuffer) chunk).force();
+    }
+    writeRoot();
+    header.force();
+    header.putInt(H_DIRTY, 0);
+    header.force();
+    dirty = false;
+    fresh.clear();
+  }
+
+  /**
+   * Syncs the tree, unmaps the file and closes it. Any later call other than close() throws IllegalStateException.
+   *
+   * @throws UncheckedIOException if the file cannot be closed.
+   */
+  @Override
+  public void close() {
+    if (isClosed()) return;
+    sync();
+    if (retiredCount > 0) {
+      // Put the records retired before the sync on the free list and sync again, so the file does not lose them.
+      beforeMutation();
+      sync();
+    }
+    super.close();
+    free(header);
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
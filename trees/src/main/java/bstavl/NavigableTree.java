@@ -0,0 +1,15 @@
+package bstavl;
+
+import java.util.NavigableSet;
+
+/**
+ * @author Elijah Philip
+ * What TreeSubSet needs from a tree beyond NavigableSet: a cursor to walk a range without a lookup per element,
+ * and a count of the elements in a range, which trees that keep subtree sizes answer without walking it.
+ */
+interface NavigableTree < E extends Comparable < E >> extends NavigableSet < E > {
+
+  RangeCursor < E > openRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive, boolean descending);
+
+  int countInRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive);
+}
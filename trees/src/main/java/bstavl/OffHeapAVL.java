@@ -0,0 +1,529 @@
+package bstavl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * This class is an AVL tree whose nodes live outside the Java heap, in direct ByteBuffer chunks.
+ * Every node is a fixed-size record (left, right and height as ints, followed by the key written by a KeyCodec),
+ * addressed by an int index. Index 0 is a sentinel standing for "no node", and removed records are reused through a free list.
+ * The heap only holds the chunk references, so GC pause times do not grow with the number of keys.
+ * The tree must be closed to release its memory, and it is not thread-safe.
+ */
+public class OffHeapAVL < E extends Comparable < E >> implements AutoCloseable {
+
+  static final int NIL = 0;
+  static final int LEFT = 0;
+  static final int RIGHT = 4;
+  static final int HEIGHT = 8;
+  static final int KEY = 12;
+
+  static final int CHUNK_SHIFT = 16;
+  static final int CHUNK_NODES = 1 << CHUNK_SHIFT;
+  static final int CHUNK_MASK = CHUNK_NODES - 1;
+
+  final KeyCodec < E > codec;
+  final int stride; // Bytes per node record, rounded up so longs stay 8-byte aligned.
+  ByteBuffer[] chunks = new ByteBuffer[0];
+
+  int head = NIL;
+  int size;
+  int nextUnused = 1; // First record that has never been handed out; record 0 is the sentinel.
+  int freeList = NIL; // Records of removed nodes, linked through their left field.
+  private boolean closed;
+
+  /**
+   * Constructs a new, empty tree storing its keys with the given codec.
+   *
+   * @param codec Codec that writes and reads the fixed-width keys.
+   * @throws NullPointerException if the codec is null.
+   */
+  public OffHeapAVL(KeyCodec < E > codec) {
+    if (codec == null) throw new NullPointerException("Codec cannot be null.");
+    this.codec = codec;
+    this.stride = (KEY + codec.width() + 7) & ~7;
+  }
+
+  /**
+   * Allocates the memory for a chunk of node records. Subclasses may back chunks with other kinds of buffers.
+   */
+  ByteBuffer allocateChunk(int chunkIndex, int chunkBytes) {
+    return ByteBuffer.allocateDirect(chunkBytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Makes sure the chunk holding the given record exists.
+   */
+  void ensureChunk(int node) {
+    int chunkIndex = node >>> CHUNK_SHIFT;
+    if (chunkIndex < chunks.length) return;
+    chunks = Arrays.copyOf(chunks, chunkIndex + 1);
+    loadChunk(chunkIndex);
+  }
+
+  /**
+   * Fills in a chunk slot that has no buffer yet. Subclasses can leave slots empty and have them loaded on first access.
+   */
+  ByteBuffer loadChunk(int chunkIndex) {
+    ByteBuffer chunk = allocateChunk(chunkIndex, CHUNK_NODES * stride);
+    chunks[chunkIndex] = chunk;
+    return chunk;
+  }
+
+  final ByteBuffer chunk(int node) {
+    ByteBuffer chunk = chunks[node >>> CHUNK_SHIFT];
+    return (chunk != null) ? chunk : loadChunk(node >>> CHUNK_SHIFT);
+  }
+
+  final int offset(int node) {
+    return (node & CHUNK_MASK) * stride;
+  }
+
+  final int left(int node) {
+    return chunk(node).getInt(offset(node) + LEFT);
+  }
+
+  final int right(int node) {
+    return chunk(node).getInt(offset(node) + RIGHT);
+  }
+
+  final int height(int node) {
+    return (node == NIL) ? 0 : chunk(node).getInt(offset(node) + HEIGHT);
+  }
+
+  final void setLeft(int node, int child) {
+    chunk(node).putInt(offset(node) + LEFT, child);
+  }
+
+  final void setRight(int node, int child) {
+    chunk(node).putInt(offset(node) + RIGHT, child);
+  }
+
+  final int compare(E e, int node) {
+    return codec.compare(e, chunk(node), offset(node) + KEY);
+  }
+
+  final E key(int node) {
+    return (node == NIL) ? null : codec.decode(chunk(node), offset(node) + KEY);
+  }
+
+  void checkOpen() {
+    if (closed) throw new IllegalStateException("The tree has been closed.");
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Called before add or remove changes any record. Subclasses use it to mark persistent state as modified.
+   */
+  void beforeMutation() {
+  }
+
+  /**
+   * Hands out a record, from the free list if it has one.
+   */
+  int allocateRecord() {
+    int node;
+    if (freeList != NIL) {
+      node = freeList;
+      freeList = left(node);
+    } else {
+      if (nextUnused == Integer.MAX_VALUE) throw new IllegalStateException("The tree cannot hold more nodes.");
+      node = nextUnused++;
+      ensureChunk(node);
+    }
+    return node;
+  }
+
+  /**
+   * Returns a record that can be changed in place of the given node: the node itself here. A subclass that must keep some
+   * records unchanged returns a copy of the node instead, and the caller links the copy in where the node was.
+   */
+  int writable(int node) {
+    return node;
+  }
+
+  private int newNode(E e) {
+    int node = allocateRecord();
+    ByteBuffer buffer = chunk(node);
+    int offset = offset(node);
+    buffer.putInt(offset + LEFT, NIL);
+    buffer.putInt(offset + RIGHT, NIL);
+    buffer.putInt(offset + HEIGHT, 1);
+    codec.encode(e, buffer, offset + KEY);
+    return node;
+  }
+
+  void freeNode(int node) {
+    setLeft(node, freeList);
+    freeList = node;
+  }
+
+  private void updateHeight(int node) {
+    chunk(node).putInt(offset(node) + HEIGHT, 1 + Math.max(height(left(node)), height(right(node))));
+  }
+
+  private int getBalance(int node) {
+    return height(left(node)) - height(right(node));
+  }
+
+  private int rotateRight(int node2) {
+    node2 = writable(node2);
+    int node1 = writable(left(node2));
+    setLeft(node2, right(node1));
+    setRight(node1, node2);
+    updateHeight(node2);
+    updateHeight(node1);
+    return node1;
+  }
+
+  private int rotateLeft(int node1) {
+    node1 = writable(node1);
+    int node2 = writable(right(node1));
+    setRight(node1, left(node2));
+    setLeft(node2, node1);
+    updateHeight(node1);
+    updateHeight(node2);
+    return node2;
+  }
+
+  /**
+   * Updates the height of the node and restores the AVL balance of its subtree if needed. The node must be writable.
+   *
+   * @return the new root of the subtree.
+   */
+  private int rebalance(int node) {
+    updateHeight(node);
+    int balance = getBalance(node);
+    if (balance > 1) {
+      if (getBalance(left(node)) < 0) setLeft(node, rotateLeft(left(node)));
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (getBalance(right(node)) > 0) setRight(node, rotateRight(right(node)));
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private int addHelper(E e, int node) {
+    if (node == NIL) {
+      size++;
+      return newNode(e);
+    }
+    int compareVal = compare(e, node);
+    if (compareVal == 0) return node;
+    int oldSize = size;
+    int child = addHelper(e, (compareVal < 0) ? left(node) : right(node));
+    if (size == oldSize) return node; // Already present, so nothing on the path changed.
+    node = writable(node);
+    if (compareVal < 0) {
+      setLeft(node, child);
+    } else {
+      setRight(node, child);
+    }
+    return rebalance(node);
+  }
+
+  /**
+   * Adds the specified key to the tree.
+   *
+   * @param e The key to be added to the tree.
+   * @return true if the tree did not already contain the key.
+   * @throws NullPointerException  if the specified key is null.
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public boolean add(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkOpen();
+    beforeMutation();
+    int oldSize = size;
+    head = addHelper(e, head);
+    return size != oldSize;
+  }
+
+  private int removeHelper(E e, int node) {
+    if (node == NIL) return NIL;
+    int compareVal = compare(e, node);
+    if (compareVal != 0) {
+      int oldSize = size;
+      int child = removeHelper(e, (compareVal < 0) ? left(node) : right(node));
+      if (size == oldSize) return node; // Not found, so nothing on the path changed.
+      node = writable(node);
+      if (compareVal < 0) {
+        setLeft(node, child);
+      } else {
+        setRight(node, child);
+      }
+    } else if (left(node) == NIL || right(node) == NIL) {
+      int child = (left(node) != NIL) ? left(node) : right(node);
+      freeNode(node);
+      size--;
+      return child;
+    } else {
+      // Node with two children: copy the inorder successor's key bytes over this node's and remove the successor instead.
+      int successor = right(node);
+      while (left(successor) != NIL) successor = left(successor);
+      E successorKey = key(successor);
+      node = writable(node);
+      codec.encode(successorKey, chunk(node), offset(node) + KEY);
+      setRight(node, removeHelper(successorKey, right(node)));
+    }
+    return rebalance(node);
+  }
+
+  /**
+   * Removes the specified key from the tree.
+   *
+   * @param e The key to be removed from the tree.
+   * @return true if the tree contained the key.
+   * @throws NullPointerException  if the specified key is null.
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public boolean remove(E e) {
+    if (e == null) throw new NullPointerException("Specified element cannot be null.");
+    checkOpen();
+    beforeMutation();
+    int oldSize = size;
+    head = removeHelper(e, head);
+    return size != oldSize;
+  }
+
+  /**
+   * Checks if the tree contains the specified key.
+   *
+   * @param e The key to look for.
+   * @return true if the tree contains the key.
+   * @throws NullPointerException  if the specified key is null.
+   * @throws IllegalStateException if the tree has been closed.
+   */
+  public boolean contains(E e) {
+    if (e == null) throw new NullPointerException("Specified element cannot be null.");
+    checkOpen();
+    int node = head;
+    while (node != NIL) {
+      int compareVal = compare(e, node);
+      if (compareVal == 0) return true;
+      node = (compareVal < 0) ? left(node) : right(node);
+    }
+    return false;
+  }
+
+  /**
+   * Returns the least key in the tree greater than or equal to the given key.
+   *
+   * @param e The value to match.
+   * @return the least key greater than or equal to e, or null if there is no such key.
+   */
+  public E ceiling(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkOpen();
+    int node = head, ceil = NIL;
+    while (node != NIL) {
+      int compareVal = compare(e, node);
+      if (compareVal == 0) return key(node);
+      if (compareVal < 0) {
+        ceil = node;
+        node = left(node);
+      } else {
+        node = right(node);
+      }
+    }
+    return key(ceil);
+  }
+
+  /**
+   * Returns the greatest key in the tree less than or equal to the given key.
+   *
+   * @param e The value to match.
+   * @return the greatest key less than or equal to e, or null if there is no such key.
+   */
+  public E floor(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkOpen();
+    int node = head, floor = NIL;
+    while (node != NIL) {
+      int compareVal = compare(e, node);
+      if (compareVal == 0) return key(node);
+      if (compareVal > 0) {
+        floor = node;
+        node = right(node);
+      } else {
+        node = left(node);
+      }
+    }
+    return key(floor);
+  }
+
+  /**
+   * Returns the greatest key in the tree strictly less than the given key.
+   *
+   * @param e The value to match.
+   * @return the greatest key less than e, or null if there is no such key.
+   */
+  public E lower(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkOpen();
+    int node = head, lower = NIL;
+    while (node != NIL) {
+      if (compare(e, node) > 0) {
+        lower = node;
+        node = right(node);
+      } else {
+        node = left(node);
+      }
+    }
+    return key(lower);
+  }
+
+  /**
+   * Returns the least key in the tree strictly greater than the given key.
+   *
+   * @param e The value to match.
+   * @return the least key greater than e, or null if there is no such key.
+   */
+  public E higher(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    checkOpen();
+    int node = head, higher = NIL;
+    while (node != NIL) {
+      if (compare(e, node) < 0) {
+        higher = node;
+        node = left(node);
+      } else {
+        node = right(node);
+      }
+    }
+    return key(higher);
+  }
+
+  /**
+   * Returns the first (lowest) key currently in the tree.
+   *
+   * @return the first (lowest) key currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E first() {
+    checkOpen();
+    if (head == NIL) throw new NoSuchElementException("The tree is currently empty.");
+    int node = head;
+    while (left(node) != NIL) node = left(node);
+    return key(node);
+  }
+
+  /**
+   * Returns the last (highest) key currently in the tree.
+   *
+   * @return the last (highest) key currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E last() {
+    checkOpen();
+    if (head == NIL) throw new NoSuchElementException("The tree is currently empty.");
+    int node = head;
+    while (right(node) != NIL) node = right(node);
+    return key(node);
+  }
+
+  /**
+   * Returns a collection whose keys range from fromElement to toElement.
+   *
+   * @param fromElement Low endpoint (inclusive) of the returned collection.
+   * @param toElement   High endpoint (inclusive) of the returned collection.
+   * @return a collection containing a portion of this tree whose keys range from fromElement to toElement.
+   * @throws NullPointerException     if fromElement or toElement is null.
+   * @throws IllegalArgumentException if fromElement is greater than toElement.
+   */
+  public ArrayList < E > getRange(E fromElement, E toElement) {
+    if (fromElement == null || toElement == null) throw new NullPointerException("This function's argument does not accept null.");
+
+    if (fromElement.compareTo(toElement) > 0) throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+
+    checkOpen();
+    ArrayList < E > result = new ArrayList < > ();
+    int[] stack = new int[height(head)];
+    int depth = 0;
+    int node = head;
+    while (node != NIL || depth > 0) {
+      while (node != NIL) {
+        if (compare(fromElement, node) <= 0) {
+          stack[depth++] = node;
+          node = left(node);
+        } else {
+          node = right(node);
+        }
+      }
+      if (depth == 0) break;
+      node = stack[--depth];
+      if (compare(toElement, node) < 0) break;
+      result.add(key(node));
+      node = right(node);
+    }
+    return result;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int height() {
+    checkOpen();
+    return height(head);
+  }
+
+  /**
+   * Releases the memory of the tree. Any later call other than close() throws IllegalStateException.
+   */
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    ByteBuffer[] released = chunks;
+    chunks = new ByteBuffer[0];
+    for (ByteBuffer chunk: released) {
+      free(chunk);
+    }
+  }
+
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class < ? > unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafe = theUnsafe.get(null);
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Not available on this JVM; buffers are then released by the garbage collector instead.
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  /**
+   * Frees (or unmaps) a direct buffer right away rather than when the garbage collector finds it unreachable.
+   * The buffer must not be used afterwards.
+   */
+  static void free(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || INVOKE_CLEANER == null) return;
+    try {
+      INVOKE_CLEANER.invoke(UNSAFE, buffer);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Leave the buffer to the garbage collector.
+    }
+  }
+}
@@ -0,0 +1,413 @@
+package bstavl;
+
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * This class is an immutable AVL tree. add and remove leave the tree they are called on untouched and return a new version
+ * that shares every node off the changed path, so each update copies only O(log n) nodes.
+ * Because no version ever changes, any number of threads can read and iterate one without locks, and keeping an old version
+ * around is free. VersionedAVL builds a mutable, thread-safe set with O(1) snapshots on top of it.
+ * Null elements are not permitted.
+ */
+public final class PersistentAVL < E extends Comparable < E >> implements Iterable < E > {
+
+  private static final PersistentAVL < ? > EMPTY = new PersistentAVL < > (null);
+
+  private final Node < E > head;
+
+  private PersistentAVL(Node < E > head) {
+    this.head = head;
+  }
+
+  /**
+   * Returns the empty tree.
+   *
+   * @return a tree with no elements.
+   */
+  @SuppressWarnings("unchecked")
+  public static < E extends Comparable < E >> PersistentAVL < E > empty() {
+    return (PersistentAVL < E > ) EMPTY;
+  }
+
+  private static final class Node < E > {
+    final E data;
+    final Node < E > left;
+    final Node < E > right;
+    final int height;
+    final int size; // Number of nodes in the subtree rooted at this node, used for order statistics.
+
+    Node(E data, Node < E > left, Node < E > right) {
+      this.data = data;
+      this.left = left;
+      this.right = right;
+      this.height = 1 + Math.max(getHeight(left), getHeight(right));
+      this.size = 1 + getSize(left) + getSize(right);
+    }
+  }
+
+  private static int getHeight(Node < ? > cNode) {
+    return (cNode == null) ? 0 : cNode.height;
+  }
+
+  private static int getSize(Node < ? > cNode) {
+    return (cNode == null) ? 0 : cNode.size;
+  }
+
+  private PersistentAVL < E > withHead(Node < E > newHead) {
+    if (newHead == head) return this;
+    return (newHead == null) ? empty() : new PersistentAVL < > (newHead);
+  }
+
+  /**
+   * Builds the node for data over the given subtrees, rotating if their heights differ by two.
+   * The subtrees are balanced and differ by at most two, as they do after a single insertion or removal.
+   */
+  private static < E > Node < E > balance(E data, Node < E > left, Node < E > right) {
+    int balance = getHeight(left) - getHeight(right);
+    if (balance > 1) {
+      if (getHeight(left.left) >= getHeight(left.right)) {
+        return new Node < > (left.data, left.left, new Node < > (data, left.right, right));
+      }
+      Node < E > pivot = left.right;
+      return new Node < > (pivot.data, new Node < > (left.data, left.left, pivot.left), new Node < > (data, pivot.right, right));
+    }
+    if (balance < -1) {
+      if (getHeight(right.right) >= getHeight(right.left)) {
+        return new Node < > (right.data, new Node < > (data, left, right.left), right.right);
+      }
+      Node < E > pivot = right.left;
+      return new Node < > (pivot.data, new Node < > (data, left, pivot.left), new Node < > (right.data, pivot.right, right.right));
+    }
+    return new Node < > (data, left, right);
+  }
+
+  private static < E extends Comparable < E >> Node < E > addHelper(E e, Node < E > cNode) {
+    if (cNode == null) return new Node < > (e, null, null);
+    int compareVal = e.compareTo(cNode.data);
+    if (compareVal < 0) {
+      Node < E > left = addHelper(e, cNode.left);
+      return (left == cNode.left) ? cNode : balance(cNode.data, left, cNode.right);
+    }
+    if (compareVal > 0) {
+      Node < E > right = addHelper(e, cNode.right);
+      return (right == cNode.right) ? cNode : balance(cNode.data, cNode.left, right);
+    }
+    return cNode;
+  }
+
+  private static < E > Node < E > removeMin(Node < E > cNode) {
+    if (cNode.left == null) return cNode.right;
+    return balance(cNode.data, removeMin(cNode.left), cNode.right);
+  }
+
+  private static < E extends Comparable < E >> Node < E > removeHelper(E e, Node < E > cNode) {
+    if (cNode == null) return null;
+    int compareVal = e.compareTo(cNode.data);
+    if (compareVal < 0) {
+      Node < E > left = removeHelper(e, cNode.left);
+      return (left == cNode.left) ? cNode : balance(cNode.data, left, cNode.right);
+    }
+    if (compareVal > 0) {
+      Node < E > right = removeHelper(e, cNode.right);
+      return (right == cNode.right) ? cNode : balance(cNode.data, cNode.left, right);
+    }
+    if (cNode.left == null) return cNode.right;
+    if (cNode.right == null) return cNode.left;
+    Node < E > successor = cNode.right;
+    while (successor.left != null) successor = successor.left;
+    return balance(successor.data, cNode.left, removeMin(cNode.right));
+  }
+
+  private void checkElement(Object o) {
+    if (o == null) throw new NullPointerException("Element cannot be null");
+    if (head != null && !head.data.getClass().isInstance(o)) {
+      throw new ClassCastException("The specified object cannot be compared with the elements currently in the set");
+    }
+  }
+
+  /**
+   * Returns a tree that also contains the specified element. This tree is not changed.
+   *
+   * @param e The element to be added.
+   * @return the new version, or this tree if it already contains the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public PersistentAVL < E > add(E e) {
+    checkElement(e);
+    return withHead(addHelper(e, head));
+  }
+
+  /**
+   * Returns a tree that also contains all of the elements in the specified collection. This tree is not changed.
+   *
+   * @param collection Collection containing elements to be added.
+   * @return the new version, or this tree if it already contains every element.
+   * @throws NullPointerException if the specified collection or any of its elements is null.
+   */
+  public PersistentAVL < E > addAll(Collection < ? extends E > collection) {
+    Node < E > newHead = head;
+    for (E e: collection) {
+      if (e == null) throw new NullPointerException("Element cannot be null.");
+      newHead = addHelper(e, newHead);
+    }
+    return withHead(newHead);
+  }
+
+  /**
+   * Returns a tree without the specified element. This tree is not changed.
+   *
+   * @param o The element to be removed.
+   * @return the new version, or this tree if it does not contain the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  @SuppressWarnings("unchecked")
+  public PersistentAVL < E > remove(Object o) {
+    checkElement(o);
+    return withHead(removeHelper((E) o, head));
+  }
+
+  /**
+   * Checks if the tree contains the specified element.
+   *
+   * @param o The element to look for.
+   * @return true if the tree contains the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean contains(Object o) {
+    checkElement(o);
+    E e = (E) o;
+    Node < E > cNode = head;
+    while (cNode != null) {
+      int compareVal = e.compareTo(cNode.data);
+      if (compareVal == 0) return true;
+      cNode = (compareVal < 0) ? cNode.left : cNode.right;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the least element in the tree greater than or equal to the given element.
+   *
+   * @param e The value to match.
+   * @return the least element greater than or equal to e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E ceiling(E e) {
+    checkElement(e);
+    Node < E > cNode = head, ceil = null;
+    while (cNode != null) {
+      int compareVal = e.compareTo(cNode.data);
+      if (compareVal == 0) return cNode.data;
+      if (compareVal < 0) {
+        ceil = cNode;
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return (ceil == null) ? null : ceil.data;
+  }
+
+  /**
+   * Returns the greatest element in the tree less than or equal to the given element.
+   *
+   * @param e The value to match.
+   * @return the greatest element less than or equal to e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E floor(E e) {
+    checkElement(e);
+    Node < E > cNode = head, floor = null;
+    while (cNode != null) {
+      int compareVal = e.compareTo(cNode.data);
+      if (compareVal == 0) return cNode.data;
+      if (compareVal > 0) {
+        floor = cNode;
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return (floor == null) ? null : floor.data;
+  }
+
+  /**
+   * Returns the greatest element in the tree strictly less than the given element.
+   *
+   * @param e The value to match.
+   * @return the greatest element less than e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E lower(E e) {
+    checkElement(e);
+    Node < E > cNode = head, lower = null;
+    while (cNode != null) {
+      if (e.compareTo(cNode.data) > 0) {
+        lower = cNode;
+        cNode = cNode.right;
+      } else {
+        cNode = cNode.left;
+      }
+    }
+    return (lower == null) ? null : lower.data;
+  }
+
+  /**
+   * Returns the least element in the tree strictly greater than the given element.
+   *
+   * @param e The value to match.
+   * @return the least element greater than e, or null if there is no such element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public E higher(E e) {
+    checkElement(e);
+    Node < E > cNode = head, higher = null;
+    while (cNode != null) {
+      if (e.compareTo(cNode.data) < 0) {
+        higher = cNode;
+        cNode = cNode.left;
+      } else {
+        cNode = cNode.right;
+      }
+    }
+    return (higher == null) ? null : higher.data;
+  }
+
+  /**
+   * Returns the first (lowest) element currently in the tree.
+   *
+   * @return the first (lowest) element currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E first() {
+    if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+    Node < E > cNode = head;
+    while (cNode.left != null) cNode = cNode.left;
+    return cNode.data;
+  }
+
+  /**
+   * Returns the last (highest) element currently in the tree.
+   *
+   * @return the last (highest) element currently in the tree.
+   * @throws NoSuchElementException if the tree is empty.
+   */
+  public E last() {
+    if (head == null) throw new NoSuchElementException("The tree is currently empty.");
+    Node < E > cNode = head;
+    while (cNode.right != null) cNode = cNode.right;
+    return cNode.data;
+  }
+
+  /**
+   * Returns the element at the specified position in ascending order, in O(log n) time.
+   *
+   * @param index Index of the element to return.
+   * @return the element at the specified position.
+   * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size()).
+   */
+  public E get(int index) {
+    if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    Node < E > cNode = head;
+    while (true) {
+      int leftSize = getSize(cNode.left);
+      if (index < leftSize) {
+        cNode = cNode.left;
+      } else if (index > leftSize) {
+        index -= leftSize + 1;
+        cNode = cNode.right;
+      } else {
+        return cNode.data;
+      }
+    }
+  }
+
+  public int size() {
+    return getSize(head);
+  }
+
+  public boolean isEmpty() {
+    return head == null;
+  }
+
+  public int height() {
+    return getHeight(head);
+  }
+
+  /**
+   * Returns an iterator over the elements in ascending order. The tree cannot change, so the iterator never fails and
+   * does not support remove().
+   *
+   * @return an iterator over the elements in ascending order.
+   */
+  @Override
+  public Iterator < E > iterator() {
+    return new Iterator < E > () {
+      private final ArrayDeque < Node < E >> stack = new ArrayDeque < > ();
+
+      {
+        pushLeft(head);
+      }
+
+      private void pushLeft(Node < E > node) {
+        while (node != null) {
+          stack.push(node);
+          node = node.left;
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        return !stack.isEmpty();
+      }
+
+      @Override
+      public E next() {
+        if (stack.isEmpty()) throw new NoSuchElementException();
+        Node < E > node = stack.pop();
+        pushLeft(node.right);
+        return node.data;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof PersistentAVL)) return false;
+    PersistentAVL < ? > other = (PersistentAVL < ? > ) obj;
+    if (size() != other.size()) return false;
+    Iterator < ? > otherIter = other.iterator();
+    for (E e: this) {
+      if (!e.equals(otherIter.next())) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for (E e: this) {
+      hash += e.hashCode();
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(", ", "[", "]");
+    for (E e: this) {
+      joiner.add(String.valueOf(e));
+    }
+    return joiner.toString();
+  }
+}
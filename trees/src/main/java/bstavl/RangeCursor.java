@@ -0,0 +1,48 @@
+package bstavl;
+
+/**
+ * @author Elijah Philip
+ * Walks the elements of a tree that fall in a range, one at a time, in ascending or descending order.
+ * Only the path to the current element is kept, in a buffer the cursor reuses, so a scan can stop early without
+ * having built anything, and a cursor that is reset for the next scan allocates nothing once its buffer is deep enough.
+ * A cursor fails fast with a ConcurrentModificationException if its tree is structurally modified while it is open.
+ */
+public interface RangeCursor < E extends Comparable < E >> extends AutoCloseable {
+
+  /**
+   * Returns the next element of the range, or null once the range is exhausted. The trees do not hold null elements,
+   * so null always means the end.
+   *
+   * @return the next element, or null if there is none.
+   * @throws IllegalStateException           if the cursor is closed.
+   * @throws java.util.ConcurrentModificationException if the tree was modified since the cursor was opened, reset or moved.
+   */
+  E next();
+
+  /**
+   * Moves the cursor so that next() returns the first element of the range at or after the key, in the cursor's direction.
+   * A key before the start of the range moves the cursor to the start.
+   *
+   * @param key The key to move to.
+   * @throws NullPointerException  if the key is null.
+   * @throws IllegalStateException if the cursor is closed.
+   */
+  void seek(E key);
+
+  /**
+   * Reopens the cursor, in the same direction, on a new range of the same tree. A null endpoint leaves that end of the range open.
+   *
+   * @param from          Low endpoint of the range, or null for no low endpoint.
+   * @param fromInclusive true if the low endpoint is part of the range.
+   * @param to            High endpoint of the range, or null for no high endpoint.
+   * @param toInclusive   true if the high endpoint is part of the range.
+   * @throws IllegalArgumentException if from is greater than to.
+   */
+  void reset(E from, boolean fromInclusive, E to, boolean toInclusive);
+
+  /**
+   * Releases the path the cursor holds, so it keeps no nodes of the tree reachable. The cursor can be reopened with reset.
+   */
+  @Override
+  void close();
+}
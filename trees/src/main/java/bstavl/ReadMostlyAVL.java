@@ -0,0 +1,212 @@
+package bstavl;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+
+/**
+ * @author Elijah Philip
+ * This class makes an AVL tree safe to share between threads when reads far outnumber writes.
+ * Every read first runs as a StampedLock optimistic read: it takes no lock at all and is only kept if no write started meanwhile.
+ * If a write did interfere (the stamp no longer validates, or the search tripped over the half-updated tree), the read is
+ * repeated under the read lock. The optimistic reads use AVL's bounded descents, which give up rather than loop forever when
+ * a half-finished rotation has left a cycle in the links they follow. Writes take the write lock. Counters report how often each path was taken, to show
+ * whether readers are contending with writers.
+ * Null elements are not permitted.
+ */
+public class ReadMostlyAVL < E extends Comparable < E >> {
+
+  private final AVL < E > tree = new AVL < > ();
+  private final StampedLock lock = new StampedLock();
+
+  private final LongAdder optimisticReads = new LongAdder();
+  private final LongAdder lockedReads = new LongAdder();
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder contendedWrites = new LongAdder();
+
+  /**
+   * Constructs a new, empty tree.
+   */
+  public ReadMostlyAVL() {
+  }
+
+  /**
+   * Runs a read-only operation on the tree, optimistically first and under the read lock if that fails.
+   * The optimistic version must be one of AVL's bounded reads, so it ends even on a tree a write left half-updated.
+   */
+  @SuppressWarnings("unchecked")
+  private < A, R > R read(BiFunction < AVL < E > , A, Object > optimistic, BiFunction < AVL < E > , A, R > op, A arg) {
+    long stamp = lock.tryOptimisticRead();
+    if (stamp != 0) {
+      try {
+        Object result = optimistic.apply(tree, arg);
+        if (result != AVL.GAVE_UP && lock.validate(stamp)) {
+          optimisticReads.increment();
+          return (R) result;
+        }
+      } catch (RuntimeException e) {
+        // Either the caller's own error or a half-finished write; the locked read below tells them apart by failing again or not.
+      }
+    }
+    return lockedRead(op, arg);
+  }
+
+  private < A, R > R lockedRead(BiFunction < AVL < E > , A, R > op, A arg) {
+    lockedReads.increment();
+    long stamp = lock.readLock();
+    try {
+      return op.apply(tree, arg);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  private < A, R > R write(BiFunction < AVL < E > , A, R > op, A arg) {
+    long stamp = lock.tryWriteLock();
+    if (stamp == 0) {
+      contendedWrites.increment();
+      stamp = lock.writeLock();
+    }
+    writes.increment();
+    try {
+      return op.apply(tree, arg);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Adds the specified element to the tree.
+   *
+   * @param e The element to be added to the tree.
+   * @return true if the tree did not already contain the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public boolean add(E e) {
+    return write(AVL::add, e);
+  }
+
+  /**
+   * Adds all of the elements in the specified collection to the tree, as a single write.
+   *
+   * @param collection Collection containing elements to be added to the tree.
+   * @return true if the tree changed as a result of the call.
+   * @throws NullPointerException if the specified collection or any of its elements is null.
+   */
+  public boolean addAll(Collection < ? extends E > collection) {
+    return write(AVL::addAll, collection);
+  }
+
+  /**
+   * Removes the specified element from the tree.
+   *
+   * @param o The element to be removed from the tree.
+   * @return true if the tree contained the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the tree.
+   */
+  public boolean remove(Object o) {
+    return write(AVL::remove, o);
+  }
+
+  public boolean contains(Object o) {
+    return read(AVL::boundedContains, AVL::contains, o);
+  }
+
+  public E ceiling(E e) {
+    return read((t, x) -> t.boundedNavigate(x, true, true), AVL::ceiling, e);
+  }
+
+  public E floor(E e) {
+    return read((t, x) -> t.boundedNavigate(x, false, true), AVL::floor, e);
+  }
+
+  public E lower(E e) {
+    return read((t, x) -> t.boundedNavigate(x, false, false), AVL::lower, e);
+  }
+
+  public E higher(E e) {
+    return read((t, x) -> t.boundedNavigate(x, true, false), AVL::higher, e);
+  }
+
+  public E first() {
+    return read((t, unused) -> t.boundedEdge(false), (t, unused) -> t.first(), null);
+  }
+
+  public E last() {
+    return read((t, unused) -> t.boundedEdge(true), (t, unused) -> t.last(), null);
+  }
+
+  public E get(int index) {
+    return read(AVL::boundedGet, AVL::get, index);
+  }
+
+  public int rank(E e) {
+    return read(AVL::boundedRank, AVL::rank, e);
+  }
+
+  public int size() {
+    return read((t, unused) -> t.size(), (t, unused) -> t.size(), null);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Returns a list whose elements range from fromElement to toElement, read as one consistent view of the tree.
+   *
+   * @param fromElement Low endpoint (inclusive) of the returned list.
+   * @param toElement   High endpoint (inclusive) of the returned list.
+   * @return a new list containing the elements of the tree from fromElement to toElement.
+   */
+  public ArrayList < E > getRange(E fromElement, E toElement) {
+    return read((t, unused) -> t.boundedRange(fromElement, toElement), (t, unused) -> t.getRange(fromElement, toElement), null);
+  }
+
+  /**
+   * Returns how many reads completed optimistically, without taking any lock.
+   *
+   * @return the number of optimistic reads that validated.
+   */
+  public long optimisticReads() {
+    return optimisticReads.sum();
+  }
+
+  /**
+   * Returns how many reads had to fall back to the read lock because a write was in progress or started during the read.
+   *
+   * @return the number of reads that took the read lock.
+   */
+  public long lockedReads() {
+    return lockedReads.sum();
+  }
+
+  /**
+   * Returns how many writes took the write lock.
+   *
+   * @return the number of writes.
+   */
+  public long writes() {
+    return writes.sum();
+  }
+
+  /**
+   * Returns how many writes found the lock held by another thread and had to wait for it.
+   *
+   * @return the number of contended writes.
+   */
+  public long contendedWrites() {
+    return contendedWrites.sum();
+  }
+
+  /**
+   * Returns the elements in ascending order. The whole tree is walked, so this always takes the read lock.
+   */
+  @Override
+  public String toString() {
+    return lockedRead((t, unused) -> t.toString(), null);
+  }
+}
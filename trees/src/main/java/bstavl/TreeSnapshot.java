@@ -0,0 +1,249 @@
+package bstavl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * This class writes BST and AVL trees to a compact binary snapshot and reads them back.
+ * A snapshot is a small header followed by the keys in ascending order, either at the codec's fixed width or, for
+ * Long and Integer keys, as the first key followed by the varint-encoded gaps between neighbours.
+ * Reading rebuilds a perfectly balanced tree in O(n) time as the keys stream in, without any rotations.
+ * Only trees in natural order can be written, because that is the order the snapshot is read back in.
+ */
+public final class TreeSnapshot {
+
+  private static final int MAGIC = 0x534C5641; // "AVLS" read as a little-endian int.
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 20;
+  private static final int BUFFER_BYTES = 1 << 16;
+  private static final int MAX_VARINT_BYTES = 10;
+
+  /**
+   * How the keys of a snapshot are stored.
+   */
+  public enum Encoding {
+    /** Every key at the codec's fixed width. */
+    FIXED,
+    /** The first key at the codec's width, then each gap to the previous key as a varint. Needs a Long or Integer codec. */
+    DELTA_VARINT
+  }
+
+  /**
+   * Supplies the keys of a tree in ascending order while it is being built.
+   */
+  interface KeySource < E > {
+    E next() throws IOException;
+  }
+
+  private TreeSnapshot() {
+  }
+
+  /**
+   * Writes a snapshot of the tree to the channel.
+   *
+   * @param tree     The tree to write.
+   * @param codec    Codec that encodes the keys.
+   * @param encoding How the keys are stored.
+   * @param out      The channel to write to. It is not closed.
+   * @throws NullPointerException     if any argument is null.
+   * @throws IllegalArgumentException if the tree is ordered by a comparator, or delta encoding is requested for a codec other
+   *                                  than KeyCodec.longKeys() or KeyCodec.intKeys().
+   * @throws IOException              if writing to the channel fails.
+   */
+  public static < E extends Comparable < E >> void write(AVL < E > tree, KeyCodec < E > codec, Encoding encoding, WritableByteChannel out) throws IOException {
+    if (tree == null) throw new NullPointerException("This function's argument does not accept null.");
+    checkNaturalOrder(tree.comparator());
+    write(tree.iterator(), tree.size(), codec, encoding, out);
+  }
+
+  /**
+   * Writes a snapshot of the tree to the channel.
+   *
+   * @param tree     The tree to write.
+   * @param codec    Codec that encodes the keys.
+   * @param encoding How the keys are stored.
+   * @param out      The channel to write to. It is not closed.
+   * @throws NullPointerException     if any argument is null.
+   * @throws IllegalArgumentException if the tree is ordered by a comparator, or delta encoding is requested for a codec other
+   *                                  than KeyCodec.longKeys() or KeyCodec.intKeys().
+   * @throws IOException              if writing to the channel fails.
+   */
+  public static < E extends Comparable < E >> void write(BST < E > tree, KeyCodec < E > codec, Encoding encoding, WritableByteChannel out) throws IOException {
+    if (tree == null) throw new NullPointerException("This function's argument does not accept null.");
+    checkNaturalOrder(tree.comparator());
+    write(tree.iterator(), tree.size(), codec, encoding, out);
+  }
+
+  /**
+   * Reads a snapshot from the channel into a new, height-balanced AVL tree.
+   *
+   * @param in    The channel to read from. It is not closed.
+   * @param codec Codec that decodes the keys. It must have the width the snapshot was written with.
+   * @return the restored tree.
+   * @throws NullPointerException if any argument is null.
+   * @throws IOException          if reading fails, or the data is not a valid snapshot for this codec.
+   */
+  public static < E extends Comparable < E >> AVL < E > readAVL(ReadableByteChannel in, KeyCodec < E > codec) throws IOException {
+    Reader < E > reader = new Reader < > (in, codec);
+    return AVL.fromSortedSource(reader.count, reader);
+  }
+
+  /**
+   * Reads a snapshot from the channel into a new, perfectly balanced BST.
+   *
+   * @param in    The channel to read from. It is not closed.
+   * @param codec Codec that decodes the keys. It must have the width the snapshot was written with.
+   * @return the restored tree.
+   * @throws NullPointerException if any argument is null.
+   * @throws IOException          if reading fails, or the data is not a valid snapshot for this codec.
+   */
+  public static < E extends Comparable < E >> BST < E > readBST(ReadableByteChannel in, KeyCodec < E > codec) throws IOException {
+    Reader < E > reader = new Reader < > (in, codec);
+    return BST.fromSortedSource(reader.count, reader);
+  }
+
+  // A snapshot records no ordering and is read back in natural order, so a tree in any other order could be written but never read.
+  private static void checkNaturalOrder(Comparator < ? > comparator) {
+    if (comparator != null) throw new IllegalArgumentException("Only trees in natural order can be written to a snapshot.");
+  }
+
+  static boolean isNumeric(KeyCodec < ? > codec) {
+    return codec instanceof KeyCodec.LongCodec || codec instanceof KeyCodec.IntCodec;
+  }
+
+  private static long toLong(Object key) {
+    return ((Number) key).longValue();
+  }
+
+  private static < E extends Comparable < E >> void write(Iterator < E > keys, int count, KeyCodec < E > codec, Encoding encoding, WritableByteChannel out) throws IOException {
+    if (codec == null || encoding == null || out == null) throw new NullPointerException("This function's argument does not accept null.");
+    boolean delta = encoding == Encoding.DELTA_VARINT;
+    if (delta && !isNumeric(codec)) throw new IllegalArgumentException("Delta encoding needs KeyCodec.longKeys() or KeyCodec.intKeys().");
+
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(encoding.ordinal()).putInt(codec.width()).putInt(count);
+    int record = Math.max(codec.width(), MAX_VARINT_BYTES);
+    long previous = 0;
+    boolean first = true;
+    while (keys.hasNext()) {
+      E key = keys.next();
+      if (buffer.remaining() < record) flush(buffer, out);
+      if (first || !delta) {
+        codec.encode(key, buffer, buffer.position());
+        buffer.position(buffer.position() + codec.width());
+      } else {
+        // Keys are strictly ascending, so the gap is positive when read as an unsigned 64-bit number.
+        putVarint(buffer, toLong(key) - previous);
+      }
+      if (delta) previous = toLong(key);
+      first = false;
+    }
+    flush(buffer, out);
+  }
+
+  private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) out.write(buffer);
+    buffer.clear();
+  }
+
+  private static void putVarint(ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte)((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Streams the keys of a snapshot through a fixed-size buffer, checking that they arrive in strictly ascending order.
+   */
+  private static final class Reader < E extends Comparable < E >> implements KeySource < E > {
+    private final ReadableByteChannel in;
+    private final KeyCodec < E > codec;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final boolean delta;
+    private final int count;
+    private E previous;
+    private long previousValue;
+
+    Reader(ReadableByteChannel in, KeyCodec < E > codec) throws IOException {
+      if (in == null || codec == null) throw new NullPointerException("This function's argument does not accept null.");
+      this.in = in;
+      this.codec = codec;
+      buffer.limit(0);
+      require(HEADER_BYTES);
+      if (buffer.getInt() != MAGIC) throw new IOException("The data is not a tree snapshot.");
+      int version = buffer.getInt();
+      if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ".");
+      int encoding = buffer.getInt();
+      if (encoding < 0 || encoding >= Encoding.values().length) throw new IOException("Unknown snapshot encoding " + encoding + ".");
+      delta = Encoding.values()[encoding] == Encoding.DELTA_VARINT;
+      int width = buffer.getInt();
+      if (width != codec.width()) throw new IOException("The snapshot stores " + width + "-byte keys, but the codec reads " + codec.width() + "-byte keys.");
+      if (delta && !isNumeric(codec)) throw new IOException("The snapshot is delta encoded, which needs KeyCodec.longKeys() or KeyCodec.intKeys().");
+      count = buffer.getInt();
+      if (count < 0) throw new IOException("The snapshot has a negative key count.");
+    }
+
+    /**
+     * Makes sure at least n bytes are buffered, unless the channel ends first.
+     *
+     * @return true if n bytes are available.
+     */
+    private boolean fill(int n) throws IOException {
+      if (buffer.remaining() >= n) return true;
+      buffer.compact();
+      try {
+        while (buffer.position() < n) {
+          if (in.read(buffer) < 0) return false;
+        }
+        return true;
+      } finally {
+        buffer.flip();
+      }
+    }
+
+    private void require(int n) throws IOException {
+      if (!fill(n)) throw new EOFException("The snapshot is truncated.");
+    }
+
+    private long getVarint() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        require(1);
+        byte b = buffer.get();
+        value |= (long)(b & 0x7F) << shift;
+        if (b >= 0) return value;
+      }
+      throw new IOException("The snapshot holds a malformed varint.");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next() throws IOException {
+      E key;
+      if (previous == null || !delta) {
+        require(codec.width());
+        key = codec.decode(buffer, buffer.position());
+        buffer.position(buffer.position() + codec.width());
+        if (key == null) throw new IOException("The snapshot holds a null key.");
+        if (delta) previousValue = toLong(key);
+      } else {
+        long gap = getVarint();
+        if (gap == 0 || Long.compareUnsigned(gap, Long.MAX_VALUE - previousValue) > 0) throw new IOException("The snapshot keys are not in strictly ascending order.");
+        previousValue += gap;
+        key = (E)((codec instanceof KeyCodec.IntCodec) ? (Object) Integer.valueOf((int) previousValue) : (Object) Long.valueOf(previousValue));
+      }
+      if (previous != null && previous.compareTo(key) >= 0) throw new IOException("The snapshot keys are not in strictly ascending order.");
+      previous = key;
+      return key;
+    }
+  }
+}
@@ -0,0 +1,273 @@
+package bstavl;
+
+import java.util.*;
+
+/**
+ * @author Elijah Philip
+ * A live view of the elements of a tree that fall in a range, in ascending or descending order. It holds no elements of its own:
+ * every call reads from or writes to the tree, so creating a view is O(1) and changes made through either are seen by both.
+ * A null bound leaves that end of the range open. Adding an element outside the range throws an IllegalArgumentException.
+ * Bounds are compared in the tree's own order, so a view of a tree with a comparator follows that comparator.
+ */
+final class TreeSubSet < E extends Comparable < E >> extends AbstractSet < E > implements NavigableSet < E > {
+
+  private final NavigableTree < E > tree;
+  private final Comparator < ? super E > comparator;
+  private final E low, high;
+  private final boolean lowInclusive, highInclusive;
+  private final boolean descending;
+
+  TreeSubSet(NavigableTree < E > tree, E low, boolean lowInclusive, E high, boolean highInclusive, boolean descending) {
+    this.comparator = tree.comparator();
+    if (low != null && high != null && AVL.compare(comparator, low, high) > 0) {
+      throw new IllegalArgumentException("The range should start from a low endpoint, to a higher endpoint.");
+    }
+    this.tree = tree;
+    this.low = low;
+    this.lowInclusive = lowInclusive;
+    this.high = high;
+    this.highInclusive = highInclusive;
+    this.descending = descending;
+  }
+
+  private boolean tooLow(E e) {
+    if (low == null) return false;
+    int compareVal = AVL.compare(comparator, e, low);
+    return compareVal < 0 || (compareVal == 0 && !lowInclusive);
+  }
+
+  private boolean tooHigh(E e) {
+    if (high == null) return false;
+    int compareVal = AVL.compare(comparator, e, high);
+    return compareVal > 0 || (compareVal == 0 && !highInclusive);
+  }
+
+  private boolean inRange(E e) {
+    return !tooLow(e) && !tooHigh(e);
+  }
+
+  /**
+   * Checks that a bound for a narrower view lies within this range. A bound equal to an exclusive endpoint is only allowed as an exclusive bound.
+   */
+  private void checkBound(E e, boolean inclusive) {
+    if (e == null) throw new NullPointerException("This function's argument does not accept null.");
+    int compareLow = (low == null) ? 1 : AVL.compare(comparator, e, low);
+    int compareHigh = (high == null) ? -1 : AVL.compare(comparator, e, high);
+    if (compareLow < 0 || compareHigh > 0 || (inclusive && ((compareLow == 0 && !lowInclusive) || (compareHigh == 0 && !highInclusive)))) {
+      throw new IllegalArgumentException("The bound lies outside the range of this view.");
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private E cast(Object o) {
+    return (E) o;
+  }
+
+  // Lookups in ascending order over the range; the descending view maps its methods onto the mirrored ones.
+  private E lowest() {
+    E e = (low == null) ? (tree.isEmpty() ? null : tree.first()) : (lowInclusive ? tree.ceiling(low) : tree.higher(low));
+    return (e == null || tooHigh(e)) ? null : e;
+  }
+
+  private E highest() {
+    E e = (high == null) ? (tree.isEmpty() ? null : tree.last()) : (highInclusive ? tree.floor(high) : tree.lower(high));
+    return (e == null || tooLow(e)) ? null : e;
+  }
+
+  private E ceilingInRange(E e) {
+    if (tooLow(e)) return lowest();
+    E found = tree.ceiling(e);
+    return (found == null || tooHigh(found)) ? null : found;
+  }
+
+  private E higherInRange(E e) {
+    if (tooLow(e)) return lowest();
+    E found = tree.higher(e);
+    return (found == null || tooHigh(found)) ? null : found;
+  }
+
+  private E floorInRange(E e) {
+    if (tooHigh(e)) return highest();
+    E found = tree.floor(e);
+    return (found == null || tooLow(found)) ? null : found;
+  }
+
+  private E lowerInRange(E e) {
+    if (tooHigh(e)) return highest();
+    E found = tree.lower(e);
+    return (found == null || tooLow(found)) ? null : found;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return inRange(cast(o)) && tree.contains(o);
+  }
+
+  @Override
+  public boolean add(E e) {
+    if (e == null) throw new NullPointerException("Element cannot be null");
+    if (!inRange(e)) throw new IllegalArgumentException("The element lies outside the range of this view.");
+    return tree.add(e);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return inRange(cast(o)) && tree.remove(o);
+  }
+
+  @Override
+  public int size() {
+    return tree.countInRange(low, lowInclusive, high, highInclusive);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return lowest() == null;
+  }
+
+  @Override
+  public Iterator < E > iterator() {
+    return new RangeIterator < > (tree, low, lowInclusive, high, highInclusive, descending);
+  }
+
+  @Override
+  public Iterator < E > descendingIterator() {
+    return new RangeIterator < > (tree, low, lowInclusive, high, highInclusive, !descending);
+  }
+
+  @Override
+  public Comparator < ? super E > comparator() {
+    return descending ? Collections.reverseOrder(comparator) : comparator;
+  }
+
+  @Override
+  public E first() {
+    E e = descending ? highest() : lowest();
+    if (e == null) throw new NoSuchElementException("The view is currently empty.");
+    return e;
+  }
+
+  @Override
+  public E last() {
+    E e = descending ? lowest() : highest();
+    if (e == null) throw new NoSuchElementException("The view is currently empty.");
+    return e;
+  }
+
+  @Override
+  public E ceiling(E e) {
+    return descending ? floorInRange(e) : ceilingInRange(e);
+  }
+
+  @Override
+  public E higher(E e) {
+    return descending ? lowerInRange(e) : higherInRange(e);
+  }
+
+  @Override
+  public E floor(E e) {
+    return descending ? ceilingInRange(e) : floorInRange(e);
+  }
+
+  @Override
+  public E lower(E e) {
+    return descending ? higherInRange(e) : lowerInRange(e);
+  }
+
+  @Override
+  public E pollFirst() {
+    E e = descending ? highest() : lowest();
+    if (e != null) tree.remove(e);
+    return e;
+  }
+
+  @Override
+  public E pollLast() {
+    E e = descending ? lowest() : highest();
+    if (e != null) tree.remove(e);
+    return e;
+  }
+
+  @Override
+  public NavigableSet < E > descendingSet() {
+    return new TreeSubSet < > (tree, low, lowInclusive, high, highInclusive, !descending);
+  }
+
+  @Override
+  public NavigableSet < E > subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+    checkBound(fromElement, fromInclusive);
+    checkBound(toElement, toInclusive);
+    if (descending) return new TreeSubSet < > (tree, toElement, toInclusive, fromElement, fromInclusive, true);
+    return new TreeSubSet < > (tree, fromElement, fromInclusive, toElement, toInclusive, false);
+  }
+
+  @Override
+  public NavigableSet < E > headSet(E toElement, boolean inclusive) {
+    checkBound(toElement, inclusive);
+    if (descending) return new TreeSubSet < > (tree, toElement, inclusive, high, highInclusive, true);
+    return new TreeSubSet < > (tree, low, lowInclusive, toElement, inclusive, false);
+  }
+
+  @Override
+  public NavigableSet < E > tailSet(E fromElement, boolean inclusive) {
+    checkBound(fromElement, inclusive);
+    if (descending) return new TreeSubSet < > (tree, low, lowInclusive, fromElement, inclusive, true);
+    return new TreeSubSet < > (tree, fromElement, inclusive, high, highInclusive, false);
+  }
+
+  @Override
+  public SortedSet < E > subSet(E fromElement, E toElement) {
+    return subSet(fromElement, true, toElement, false);
+  }
+
+  @Override
+  public SortedSet < E > headSet(E toElement) {
+    return headSet(toElement, false);
+  }
+
+  @Override
+  public SortedSet < E > tailSet(E fromElement) {
+    return tailSet(fromElement, true);
+  }
+
+  /**
+   * Iterates over a range of a tree with a RangeCursor, one element ahead. After a removal the cursor is moved back to the
+   * element it had already read, because the removal may have restructured the path it held.
+   */
+  static final class RangeIterator < E extends Comparable < E >> implements Iterator < E > {
+    private final NavigableTree < E > tree;
+    private final RangeCursor < E > cursor;
+    private E next;
+    private E lastReturned;
+
+    RangeIterator(NavigableTree < E > tree, E low, boolean lowInclusive, E high, boolean highInclusive, boolean descending) {
+      this.tree = tree;
+      this.cursor = tree.openRange(low, lowInclusive, high, highInclusive, descending);
+      this.next = cursor.next();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public E next() {
+      if (next == null) throw new NoSuchElementException();
+      lastReturned = next;
+      next = cursor.next();
+      return lastReturned;
+    }
+
+    @Override
+    public void remove() {
+      if (lastReturned == null) throw new IllegalStateException();
+      tree.remove(lastReturned);
+      lastReturned = null;
+      if (next != null) {
+        cursor.seek(next);
+        cursor.next(); // The element already held in next.
+      }
+    }
+  }
+}
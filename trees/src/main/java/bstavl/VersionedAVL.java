@@ -0,0 +1,157 @@
+package bstavl;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Elijah Philip
+ * This class is a thread-safe set holding the current version of a PersistentAVL.
+ * Writers build the next version by path copying and publish it with a compare-and-set, retrying if another writer got there first;
+ * readers just read the current version. snapshot() hands out the current version in O(1), and it stays consistent
+ * (and can be iterated at leisure) however much the set changes afterwards. No operation takes a lock.
+ * Null elements are not permitted.
+ */
+public class VersionedAVL < E extends Comparable < E >> implements Iterable < E > {
+
+  private final AtomicReference < PersistentAVL < E >> current;
+
+  /**
+   * Constructs a new, empty set.
+   */
+  public VersionedAVL() {
+    current = new AtomicReference < > (PersistentAVL.empty());
+  }
+
+  /**
+   * Constructs a set starting from the given version.
+   *
+   * @param initial The version to start from.
+   * @throws NullPointerException if the version is null.
+   */
+  public VersionedAVL(PersistentAVL < E > initial) {
+    if (initial == null) throw new NullPointerException("This function's argument does not accept null.");
+    current = new AtomicReference < > (initial);
+  }
+
+  /**
+   * Returns the current version of the set. It never changes, so it can be read and iterated while writers continue.
+   *
+   * @return the current version.
+   */
+  public PersistentAVL < E > snapshot() {
+    return current.get();
+  }
+
+  /**
+   * Adds the specified element to the set.
+   *
+   * @param e The element to be added.
+   * @return true if the set did not already contain the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the set.
+   */
+  public boolean add(E e) {
+    while (true) {
+      PersistentAVL < E > version = current.get();
+      PersistentAVL < E > next = version.add(e);
+      if (next == version) return false;
+      if (current.compareAndSet(version, next)) return true;
+    }
+  }
+
+  /**
+   * Removes the specified element from the set.
+   *
+   * @param o The element to be removed.
+   * @return true if the set contained the element.
+   * @throws NullPointerException if the specified element is null.
+   * @throws ClassCastException   if the specified element cannot be compared with the elements in the set.
+   */
+  public boolean remove(Object o) {
+    while (true) {
+      PersistentAVL < E > version = current.get();
+      PersistentAVL < E > next = version.remove(o);
+      if (next == version) return false;
+      if (current.compareAndSet(version, next)) return true;
+    }
+  }
+
+  /**
+   * Adds all of the elements in the specified collection to the set as one atomic change.
+   *
+   * @param collection Collection containing elements to be added.
+   * @return true if the set changed as a result of the call.
+   * @throws NullPointerException if the specified collection or any of its elements is null.
+   */
+  public boolean addAll(Collection < ? extends E > collection) {
+    while (true) {
+      PersistentAVL < E > version = current.get();
+      PersistentAVL < E > next = version.addAll(collection);
+      if (next == version) return false;
+      if (current.compareAndSet(version, next)) return true;
+    }
+  }
+
+  /**
+   * Removes all of the elements from the set.
+   */
+  public void clear() {
+    current.set(PersistentAVL.empty());
+  }
+
+  public boolean contains(Object o) {
+    return current.get().contains(o);
+  }
+
+  public E ceiling(E e) {
+    return current.get().ceiling(e);
+  }
+
+  public E floor(E e) {
+    return current.get().floor(e);
+  }
+
+  public E lower(E e) {
+    return current.get().lower(e);
+  }
+
+  public E higher(E e) {
+    return current.get().higher(e);
+  }
+
+  public E first() {
+    return current.get().first();
+  }
+
+  public E last() {
+    return current.get().last();
+  }
+
+  public E get(int index) {
+    return current.get().get(index);
+  }
+
+  public int size() {
+    return current.get().size();
+  }
+
+  public boolean isEmpty() {
+    return current.get().isEmpty();
+  }
+
+  /**
+   * Returns an iterator over the version current at the time of the call. Later changes to the set are not seen,
+   * and remove() is not supported.
+   *
+   * @return an iterator over the elements in ascending order.
+   */
+  @Override
+  public Iterator < E > iterator() {
+    return current.get().iterator();
+  }
+
+  @Override
+  public String toString() {
+    return current.get().toString();
+  }
+}